@@ -0,0 +1,118 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import team.unnamed.mocha.parser.ExpressionBundle;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// measures the time to load a pack of animation expressions,
+// one per line, which is what happens at server start
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BundleBenchmark {
+    private static final String[] EXPRESSIONS = {
+            "math.cos(query.anim_time * 38) * variable.rotation_scale + variable.x * variable.x * query.life_time",
+            "q.is_sneaking ? 10 : (v.y ?? 3)",
+            "temp.t = 3; return 3*temp.t*temp.t - 2*temp.t*temp.t*temp.t;",
+            "math.clamp(math.sin(q.anim_time * 180) * 15, -10, 10)",
+            "v.x = 0; loop(10, { v.x = v.x + 1; });"
+    };
+
+    @Param({"10000", "100000"})
+    private int expressionCount;
+
+    private Path file;
+    private List<String> sources;
+    private MochaEngine<?> engine;
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(BundleBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+        sources = new ArrayList<>(expressionCount);
+        for (int i = 0; i < expressionCount; i++) {
+            builder.append(EXPRESSIONS[i % EXPRESSIONS.length]).append('\n');
+            sources.add(EXPRESSIONS[i % EXPRESSIONS.length]);
+        }
+        file = Files.createTempFile("mocha-bundle", ".txt");
+        // deleted on exit, since mapped files can't be deleted on some platforms
+        file.toFile().deleteOnExit();
+        Files.write(file, builder.toString().getBytes(StandardCharsets.UTF_8));
+        engine = MochaEngine.createStandard();
+    }
+
+    @Benchmark
+    public ExpressionBundle mapped() throws IOException {
+        return ExpressionBundle.load(file, '\n');
+    }
+
+    @Benchmark
+    public ExpressionBundle parallel() {
+        return engine.parseAll(sources);
+    }
+
+    @Benchmark
+    public List<List<Expression>> readers() throws IOException {
+        // the previous approach, a string and a reader per expression
+        final List<List<Expression>> programs = new ArrayList<>(expressionCount);
+        try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                programs.add(engine.parse(new StringReader(line)));
+            }
+        }
+        return programs;
+    }
+}
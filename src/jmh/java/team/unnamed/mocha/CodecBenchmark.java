@@ -0,0 +1,82 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import team.unnamed.mocha.parser.ExpressionCodec;
+import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// measures the time to reload a program from its binary
+// encoding, compared to parsing its source again
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CodecBenchmark {
+    private static final String SOURCE = "v.x = math.cos(query.anim_time * 38) * variable.rotation_scale + variable.x * variable.x * query.life_time;"
+            + "v.y = q.is_sneaking ? 10 : (v.y ?? 3);"
+            + "temp.t = math.clamp(math.sin(q.anim_time * 180) * 15, -10, 10);"
+            + "loop(10, { v.x = v.x + 1; });"
+            + "return 3 * temp.t * temp.t - 2 * temp.t * temp.t * temp.t;";
+
+    private byte[] encoded;
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(CodecBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        encoded = ExpressionCodec.toByteArray(MolangParser.parseAll(SOURCE));
+    }
+
+    @Benchmark
+    public List<Expression> decode() throws IOException {
+        return ExpressionCodec.fromByteArray(encoded);
+    }
+
+    @Benchmark
+    public List<Expression> parse() throws IOException {
+        return MolangParser.parseAll(SOURCE);
+    }
+}
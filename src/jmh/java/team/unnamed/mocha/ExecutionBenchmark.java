@@ -0,0 +1,92 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import team.unnamed.mocha.runtime.MochaFunction;
+
+import java.util.concurrent.TimeUnit;
+
+// compares mocha's execution modes on the CompareBenchmark
+// expression: the interpreter, the tree and virtual machine
+// tiers, and the bytecode compiler
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExecutionBenchmark {
+    private static final String SOURCE = "temp.t = 3; return 3*temp.t*temp.t - 2*temp.t*temp.t*temp.t;";
+
+    private MochaFunction interpreted;
+    private MochaFunction tree;
+    private MochaFunction vm;
+    private MochaFunction compiled;
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(ExecutionBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        final MochaEngine<?> mocha = MochaEngine.createStandard();
+        interpreted = mocha.prepareEval(SOURCE);
+        tree = mocha.compileTree(SOURCE);
+        vm = mocha.compileVm(SOURCE);
+        compiled = mocha.compile(SOURCE);
+    }
+
+    @Benchmark
+    public float interpreter() {
+        return interpreted.evaluate();
+    }
+
+    @Benchmark
+    public float tree() {
+        return tree.evaluate();
+    }
+
+    @Benchmark
+    public float vm() {
+        return vm.evaluate();
+    }
+
+    @Benchmark
+    public float compiler() {
+        return compiled.evaluate();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import team.unnamed.mocha.lexer.Cursor;
+import team.unnamed.mocha.lexer.MolangLexer;
+import team.unnamed.mocha.lexer.Token;
+import team.unnamed.mocha.lexer.TokenKind;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LexerBenchmark {
+    // length of the large script, so that large script
+    // benchmarks report the time per character
+    private static final int LARGE_SCRIPT_LENGTH = 64 * 1024;
+
+    private String source;
+    private char[] chars;
+    private String largeScript;
+
+    public static void main(final String[] args) throws RunnerException {
+        final Options opt = new OptionsBuilder()
+                .include(LexerBenchmark.class.getSimpleName())
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        source = "v.x = 0;\n" +
+                "for_each(v.pig, query.get_nearby_entities(4, 'minecraft:pig'), {\n" +
+                "    v.x = v.x + v.pig->query.get_relative_block_state(0, 1, 0, 'flammable');\n" +
+                "});\n" +
+                "math.cos(query.anim_time * 38) * variable.rotation_scale + variable.x * variable.x * query.life_time;\n" +
+                "temp.t = 3; return 3*temp.t*temp.t - 2*temp.t*temp.t*temp.t;";
+        chars = source.toCharArray();
+
+        final StringBuilder builder = new StringBuilder(LARGE_SCRIPT_LENGTH);
+        while (builder.length() + source.length() + 1 <= LARGE_SCRIPT_LENGTH) {
+            builder.append(source).append('\n');
+        }
+        while (builder.length() < LARGE_SCRIPT_LENGTH) {
+            builder.append(' ');
+        }
+        largeScript = builder.toString();
+    }
+
+    @Benchmark
+    public List<Token> reader() throws IOException {
+        try (final MolangLexer lexer = MolangLexer.lexer(new StringReader(source))) {
+            return lexer.tokenizeAll();
+        }
+    }
+
+    @Benchmark
+    public List<Token> string() throws IOException {
+        try (final MolangLexer lexer = MolangLexer.lexer(source)) {
+            return lexer.tokenizeAll();
+        }
+    }
+
+    @Benchmark
+    public List<Token> charArray() throws IOException {
+        try (final MolangLexer lexer = MolangLexer.lexer(chars, 0, chars.length)) {
+            return lexer.tokenizeAll();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LARGE_SCRIPT_LENGTH)
+    public int largeScript() throws IOException {
+        try (final MolangLexer lexer = MolangLexer.lexer(largeScript)) {
+            int count = 0;
+            while (lexer.next().kind() != TokenKind.EOF) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LARGE_SCRIPT_LENGTH)
+    public Cursor largeScriptCursorTracking() {
+        // the per-character line and column tracking the lexer
+        // no longer does, for comparison with largeScript()
+        final Cursor cursor = new Cursor();
+        for (int i = 0; i < LARGE_SCRIPT_LENGTH; i++) {
+            cursor.push(largeScript.charAt(i));
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.Scope;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+import team.unnamed.mocha.util.CaseInsensitiveStringHashMap;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reusable state for interpreted evaluations: the interpreter,
+ * the "temp" storage and the read-only scope that exposes it
+ * over the engine scope, and the virtual machine registers.
+ *
+ * <p>The temp storage is cleared after every evaluation instead
+ * of being re-created. A context can only be used by a single
+ * evaluation at a time, evaluations that can't acquire it (nested
+ * or concurrent ones) must use a new context.</p>
+ *
+ * @param <T> The entity type
+ */
+final class EvaluationContext<T> {
+    private final AtomicBoolean inUse = new AtomicBoolean();
+    private final MutableObjectBinding temp = new MutableObjectBinding();
+    private final ExpressionInterpreter<T> interpreter;
+    private float[] registers = new float[0];
+
+    EvaluationContext(final @Nullable T entity, final @NotNull Scope scope) {
+        this.interpreter = new ExpressionInterpreter<>(entity, new LocalScope(scope, temp));
+    }
+
+    /**
+     * Tries to acquire this context for an evaluation.
+     *
+     * @return True if acquired, false if it is already in use
+     */
+    boolean acquire() {
+        return inUse.compareAndSet(false, true);
+    }
+
+    @NotNull ExpressionInterpreter<T> interpreter() {
+        return interpreter;
+    }
+
+    /**
+     * Returns the registers for a virtual machine evaluation,
+     * reused between evaluations of this context.
+     *
+     * @param count The minimum amount of registers
+     * @return The registers
+     */
+    float @NotNull [] registers(final int count) {
+        if (registers.length < count) {
+            registers = new float[count];
+        }
+        return registers;
+    }
+
+    /**
+     * Clears the state left by the last evaluation and
+     * releases this context.
+     */
+    void release() {
+        temp.clear();
+        interpreter.flag(null);
+        interpreter.popReturnValue();
+        inUse.set(false);
+    }
+
+    //
+    // Read-only view of the engine scope with the "temp" and "t"
+    // bindings, bindings added to the engine scope later are visible
+    // too, so it doesn't have to be copied for every evaluation
+    //
+    private static final class LocalScope implements Scope {
+        private final Scope parent;
+        private final MutableObjectBinding temp;
+        private final ObjectProperty tempProperty;
+
+        LocalScope(final @NotNull Scope parent, final @NotNull MutableObjectBinding temp) {
+            this.parent = requireNonNull(parent, "parent");
+            this.temp = requireNonNull(temp, "temp");
+            this.tempProperty = ObjectProperty.property(temp, false);
+        }
+
+        @Override
+        public @Nullable ObjectProperty getProperty(final @NotNull String name) {
+            if (name.equalsIgnoreCase("temp") || name.equalsIgnoreCase("t")) {
+                return tempProperty;
+            }
+            return parent.getProperty(name);
+        }
+
+        @Override
+        public @NotNull Map<String, ObjectProperty> entries() {
+            final Map<String, ObjectProperty> entries = new CaseInsensitiveStringHashMap<>(parent.entries());
+            entries.put("temp", tempProperty);
+            entries.put("t", tempProperty);
+            return entries;
+        }
+
+        @Override
+        public @NotNull Scope copy() {
+            final Scope copy = parent.copy();
+            copy.set("temp", temp);
+            copy.set("t", temp);
+            return copy;
+        }
+
+        @Override
+        public void readOnly(final boolean readOnly) {
+            // always read-only
+        }
+
+        @Override
+        public boolean readOnly() {
+            return true;
+        }
+    }
+}
@@ -28,6 +28,12 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ExpressionBundle;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
+import team.unnamed.mocha.parser.ExpressionInterner;
+import team.unnamed.mocha.parser.FlatProgram;
+import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.parser.ParseCache;
 import team.unnamed.mocha.parser.ParseException;
 import team.unnamed.mocha.parser.ast.Expression;
 import team.unnamed.mocha.runtime.MochaFunction;
@@ -43,7 +49,9 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.io.UncheckedIOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import static java.util.Objects.requireNonNull;
@@ -133,6 +141,24 @@ public interface MochaEngine<T> {
         }
     }
 
+    /**
+     * Parses all the given sources in parallel, using the common
+     * {@link ForkJoinPool}, see
+     * {@link ExpressionBundle#parseAll(Collection, ForkJoinPool, ExpressionBundle.SourceParser)}.
+     *
+     * <p>Every source is parsed like {@link #parse(String)} does,
+     * with the options of this engine, like the parse cache or
+     * canonicalization. Errors are reported per source, and are
+     * not passed to the parse exception handler.</p>
+     *
+     * @param sources The sources to parse
+     * @return The parsed expressions, in the same order as the sources
+     * @since 3.0.0
+     */
+    default @NotNull ExpressionBundle parseAll(final @NotNull Collection<String> sources) {
+        return ExpressionBundle.parseAll(sources, ForkJoinPool.commonPool(), source -> parse(source.toString()));
+    }
+
     //#endregion END PARSING API
 
     //#region INTERPRETER API
@@ -147,6 +173,19 @@ public interface MochaEngine<T> {
      */
     float eval(final @NotNull List<Expression> expressions);
 
+    /**
+     * Evaluates the given flat program, walking its nodes directly,
+     * so that programs can be kept in their compact form instead of
+     * as expression trees, see {@link FlatProgram}.
+     *
+     * <p>The result is the same as evaluating {@link FlatProgram#toExpressions()}.</p>
+     *
+     * @param program The program to evaluate.
+     * @return The result of the evaluation.
+     * @since 3.0.0
+     */
+    float eval(final @NotNull FlatProgram program);
+
     /**
      * Parses and evaluates the given Molang source.
      *
@@ -198,6 +237,10 @@ public interface MochaEngine<T> {
      * {@link #eval(List)}, but easier, since it already keeps
      * this {@link MochaEngine} instance.</p>
      *
+     * <p>Constant bindings of the scope, like {@code math} and its
+     * functions, are resolved once, when preparing, same as the
+     * bytecode compiler does, instead of in every evaluation.</p>
+     *
      * @param reader The reader to read the data from
      * @return The cached, interpretable function
      * @since 3.0.0
@@ -282,6 +325,77 @@ public interface MochaEngine<T> {
         }
     }
 
+    /**
+     * Compiles the given code into a tree of specialized
+     * node objects, and returns it as a {@link MochaFunction}.
+     *
+     * <p>Unlike {@link #compile(Reader)}, this doesn't define any
+     * class, so it can be used where defining classes is slow or
+     * not allowed, and it supports every expression supported by
+     * the interpreter. Evaluation is faster than the functions
+     * returned by {@link #prepareEval(Reader)}, since expressions
+     * are not visited and numeric expressions don't create
+     * intermediate values.</p>
+     *
+     * <pre><strong>Note that this method won't close the given
+     * {@code reader}</strong></pre>
+     *
+     * @param reader The code to compile.
+     * @return The compiled function.
+     * @since 3.0.0
+     */
+    @NotNull MochaFunction compileTree(final @NotNull Reader reader);
+
+    /**
+     * Compiles the given code into a tree of specialized
+     * node objects, and returns it as a {@link MochaFunction}.
+     *
+     * @param code The code to compile.
+     * @return The compiled function.
+     * @see #compileTree(Reader)
+     * @since 3.0.0
+     */
+    default @NotNull MochaFunction compileTree(final @NotNull String code) {
+        requireNonNull(code, "code");
+        try (final StringReader reader = new StringReader(code)) {
+            return compileTree(reader);
+        }
+    }
+
+    /**
+     * Compiles the given code into instructions for a register-based
+     * virtual machine, and returns it as a {@link MochaFunction}.
+     *
+     * <p>Like {@link #compileTree(Reader)}, this doesn't define any
+     * class and it supports every expression supported by the
+     * interpreter. Numeric expressions are evaluated over a reused
+     * array of {@code float} registers, without creating any object.</p>
+     *
+     * <pre><strong>Note that this method won't close the given
+     * {@code reader}</strong></pre>
+     *
+     * @param reader The code to compile.
+     * @return The compiled function.
+     * @since 3.0.0
+     */
+    @NotNull MochaFunction compileVm(final @NotNull Reader reader);
+
+    /**
+     * Compiles the given code into instructions for a register-based
+     * virtual machine, and returns it as a {@link MochaFunction}.
+     *
+     * @param code The code to compile.
+     * @return The compiled function.
+     * @see #compileVm(Reader)
+     * @since 3.0.0
+     */
+    default @NotNull MochaFunction compileVm(final @NotNull String code) {
+        requireNonNull(code, "code");
+        try (final StringReader reader = new StringReader(code)) {
+            return compileVm(reader);
+        }
+    }
+
     /**
      * Returns the internal {@link ClassPool} used by
      * the compiler.
@@ -393,6 +507,99 @@ public interface MochaEngine<T> {
      */
     @Contract("_ -> this")
     @NotNull MochaEngine<T> postCompile(final @Nullable Consumer<byte @NotNull []> bytecodeConsumer);
+
+    /**
+     * Sets the parse cache, used to avoid parsing the same sources
+     * again when calling {@link #parse(String)}, {@link #eval(String)},
+     * {@link #prepareEval(String)} or {@link #compile(String)}.
+     *
+     * <p>The same cache can be shared by many engines. Expressions
+     * are cached by the parse options of the engine, like
+     * {@link #lazyExecutionScopes(boolean) lazy parsing} or
+     * {@link #canonicalizeAliases(boolean) canonicalization}, so
+     * the processed expressions are cached too.</p>
+     *
+     * <p>By default this is null, sources are always parsed.</p>
+     *
+     * @param cache The new parse cache, or null to disable caching
+     * @return This engine instance
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MochaEngine<T> parseCache(final @Nullable ParseCache cache);
+
+    /**
+     * Sets whether parsed expressions should be interned, so that
+     * structurally equal sub-expressions are shared by identity,
+     * see {@link ExpressionInterner}.
+     *
+     * <p>Interned expressions are shared between all the engines.</p>
+     *
+     * <p>By default this is false.</p>
+     *
+     * @param internExpressions Whether to intern parsed expressions
+     * @return This engine instance
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MochaEngine<T> internExpressions(final boolean internExpressions);
+
+    /**
+     * Sets whether parsed expressions should be canonicalized, so
+     * that the {@code t}, {@code v}, {@code q} and {@code c} aliases
+     * are replaced by {@code temp}, {@code variable}, {@code query}
+     * and {@code context}, see {@link ExpressionCanonicalizer}.
+     *
+     * <p>When enabled, bindings are only looked up by their full
+     * names, so the scope doesn't need to bind the aliases.</p>
+     *
+     * <p>By default this is false.</p>
+     *
+     * @param canonicalizeAliases Whether to canonicalize parsed expressions
+     * @return This engine instance
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MochaEngine<T> canonicalizeAliases(final boolean canonicalizeAliases);
+
+    /**
+     * Sets whether the bodies of execution scopes should be parsed
+     * lazily, see {@link MolangParser#lazyParser(CharSequence)}.
+     *
+     * <p>Execution scopes are then only brace-matched when parsing,
+     * and their bodies are parsed the first time they are evaluated.
+     * Syntax errors inside them are reported at that moment, to the
+     * parse exception handler, and the evaluation outputs zero.</p>
+     *
+     * <p>This only applies to sources given as strings.</p>
+     *
+     * <p>By default this is false.</p>
+     *
+     * @param lazyExecutionScopes Whether to parse execution scopes lazily
+     * @return This engine instance
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MochaEngine<T> lazyExecutionScopes(final boolean lazyExecutionScopes);
+
+    /**
+     * Sets whether parse errors should be reported as lightweight
+     * exceptions, see {@link ParseException#lightweight(String, int)}.
+     *
+     * <p>Lightweight exceptions have no stack trace and no cursor,
+     * only the message and the {@link ParseException#offset() offset}
+     * of the error, so they are much cheaper to create. Useful when
+     * bulk-loading many sources where failures are expected, e.g.
+     * user content.</p>
+     *
+     * <p>By default this is false.</p>
+     *
+     * @param lightweightParseErrors Whether to use lightweight parse exceptions
+     * @return This engine instance
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MochaEngine<T> lightweightParseErrors(final boolean lightweightParseErrors);
     //#endregion
 
     /**
@@ -26,33 +26,47 @@ package team.unnamed.mocha;
 import javassist.ClassPool;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
+import team.unnamed.mocha.parser.ExpressionInterner;
+import team.unnamed.mocha.parser.FlatProgram;
 import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.parser.ParseCache;
 import team.unnamed.mocha.parser.ParseException;
 import team.unnamed.mocha.parser.ast.Expression;
 import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.FlatInterpreter;
+import team.unnamed.mocha.runtime.ExpressionResolver;
 import team.unnamed.mocha.runtime.MochaFunction;
 import team.unnamed.mocha.runtime.MolangCompiler;
 import team.unnamed.mocha.runtime.Scope;
 import team.unnamed.mocha.runtime.binding.JavaObjectBinding;
 import team.unnamed.mocha.runtime.compiled.MochaCompiledFunction;
-import team.unnamed.mocha.runtime.value.MutableObjectBinding;
-import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.tree.TreeProgram;
 import team.unnamed.mocha.runtime.value.Value;
+import team.unnamed.mocha.runtime.vm.VmProgram;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.io.UncheckedIOException;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 final class MochaEngineImpl<T> implements MochaEngine<T> {
     private final Scope scope;
     private final T entity;
     private final MolangCompiler compiler;
+    private final EvaluationContext<T> context;
 
     private Consumer<@NotNull ParseException> parseExceptionHandler;
     private boolean warnOnReflectiveFunctionUsage;
+    private @Nullable ParseCache parseCache;
+    private boolean internExpressions;
+    private boolean canonicalizeAliases;
+    private boolean lazyExecutionScopes;
+    private boolean lightweightParseErrors;
 
     public MochaEngineImpl(final T entity, final Consumer<Scope.Builder> scopeBuilder) {
         Scope.Builder builder = Scope.builder();
@@ -60,34 +74,86 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         this.scope = builder.build();
         this.entity = entity;
         this.compiler = new MolangCompiler(entity, getClass().getClassLoader(), scope);
+        this.context = new EvaluationContext<>(entity, scope);
     }
 
     @Override
     public float eval(final @NotNull List<Expression> expressions) {
-        // create bindings that just apply for this evaluation
-        final Scope local = scope.copy();
-        {
-            // create temp bindings
-            MutableObjectBinding temp = new MutableObjectBinding();
-            local.set("temp", temp);
-            local.set("t", temp);
-        }
-        local.readOnly(true);
-        ExpressionInterpreter<T> evaluator = new ExpressionInterpreter<>(entity, local);
-        evaluator.warnOnReflectiveFunctionUsage(warnOnReflectiveFunctionUsage);
-        Value lastResult = NumberValue.zero();
+        return eval(context, expressions);
+    }
 
-        for (Expression expression : expressions) {
-            lastResult = expression.visit(evaluator);
-            Value returnValue = evaluator.popReturnValue();
-            if (returnValue != null) {
-                lastResult = returnValue;
-                break;
+    private float eval(final @NotNull EvaluationContext<T> shared, final @NotNull List<Expression> expressions) {
+        final EvaluationContext<T> context = acquire(shared);
+        try {
+            final ExpressionInterpreter<T> evaluator = context.interpreter();
+            float lastResult = 0F;
+            for (Expression expression : expressions) {
+                lastResult = evaluator.evalFloat(expression);
+                Value returnValue = evaluator.popReturnValue();
+                if (returnValue != null) {
+                    return returnValue.getAsNumber();
+                }
             }
+            return lastResult;
+        } catch (final UncheckedIOException e) {
+            return handleLazyParseError(e);
+        } finally {
+            context.release();
+        }
+    }
+
+    @Override
+    public float eval(final @NotNull FlatProgram program) {
+        final EvaluationContext<T> context = acquire(this.context);
+        try {
+            return new FlatInterpreter(program, context.interpreter()).eval();
+        } finally {
+            context.release();
+        }
+    }
+
+    private float eval(final @NotNull EvaluationContext<T> shared, final @NotNull TreeProgram program) {
+        final EvaluationContext<T> context = acquire(shared);
+        try {
+            return program.eval(context.interpreter());
+        } catch (final UncheckedIOException e) {
+            return handleLazyParseError(e);
+        } finally {
+            context.release();
+        }
+    }
+
+    private float eval(final @NotNull EvaluationContext<T> shared, final @NotNull VmProgram program) {
+        final EvaluationContext<T> context = acquire(shared);
+        try {
+            return program.eval(context.interpreter(), context.registers(program.registerCount()));
+        } catch (final UncheckedIOException e) {
+            return handleLazyParseError(e);
+        } finally {
+            context.release();
+        }
+    }
+
+    private @NotNull EvaluationContext<T> acquire(final @NotNull EvaluationContext<T> shared) {
+        EvaluationContext<T> context = shared;
+        if (!context.acquire()) {
+            // already in use by a nested or concurrent evaluation
+            context = new EvaluationContext<>(entity, scope);
+            context.acquire();
         }
+        context.interpreter().warnOnReflectiveFunctionUsage(warnOnReflectiveFunctionUsage);
+        return context;
+    }
 
-        // ensure returned value is a number
-        return lastResult == null ? 0F : lastResult.getAsNumber();
+    private float handleLazyParseError(final @NotNull UncheckedIOException e) {
+        // a lazy execution scope failed to parse, same as parse errors
+        if (!(e.getCause() instanceof ParseException)) {
+            throw e;
+        }
+        if (parseExceptionHandler != null) {
+            parseExceptionHandler.accept((ParseException) e.getCause());
+        }
+        return 0;
     }
 
     @Override
@@ -107,6 +173,21 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         return eval(parsed);
     }
 
+    @Override
+    public float eval(final @NotNull String source) {
+        final List<Expression> parsed;
+        try {
+            parsed = parse(source);
+        } catch (final ParseException e) {
+            // parse errors just output zero
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            return 0;
+        }
+        return eval(parsed);
+    }
+
     @Override
     public @NotNull MochaFunction prepareEval(final @NotNull Reader reader) {
         final List<Expression> parsed;
@@ -121,17 +202,7 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         } catch (final IOException e) {
             throw new UncheckedIOException("Failed to read from given reader", e);
         }
-        return new MochaFunction() {
-            @Override
-            public float evaluate() {
-                return eval(parsed);
-            }
-
-            @Override
-            public @NotNull String toString() {
-                return "MochaPreparedFunction(" + parsed + ")";
-            }
-        };
+        return prepareEval(parsed);
     }
 
     @Override
@@ -157,10 +228,24 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
             };
         }
 
+        return prepareEval(parsed);
+    }
+
+    private @NotNull MochaFunction prepareEval(final @NotNull List<Expression> parsed) {
+        // constant bindings are resolved once, not in every evaluation
+        final List<Expression> resolved;
+        try {
+            resolved = ExpressionResolver.resolveAll(parsed, scope);
+        } catch (final UncheckedIOException e) {
+            handleLazyParseError(e);
+            return MochaFunction.nop();
+        }
         return new MochaFunction() {
+            private final EvaluationContext<T> context = new EvaluationContext<>(entity, scope);
+
             @Override
             public float evaluate() {
-                return eval(parsed);
+                return eval(context, resolved);
             }
 
             @Override
@@ -170,6 +255,116 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         };
     }
 
+    @Override
+    public @NotNull MochaFunction compileTree(final @NotNull Reader reader) {
+        final List<Expression> parsed;
+        try {
+            parsed = parse(reader);
+        } catch (final ParseException e) {
+            // parse errors just output zero
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            return MochaFunction.nop();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read from given reader", e);
+        }
+        return compileTree(parsed);
+    }
+
+    @Override
+    public @NotNull MochaFunction compileTree(final @NotNull String code) {
+        final List<Expression> parsed;
+        try {
+            parsed = parse(code);
+        } catch (final ParseException e) {
+            // parse errors just output zero
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            return MochaFunction.nop();
+        }
+        return compileTree(parsed);
+    }
+
+    private @NotNull MochaFunction compileTree(final @NotNull List<Expression> parsed) {
+        final TreeProgram program;
+        try {
+            program = TreeProgram.compile(parsed, scope);
+        } catch (final UncheckedIOException e) {
+            handleLazyParseError(e);
+            return MochaFunction.nop();
+        }
+        return new MochaFunction() {
+            private final EvaluationContext<T> context = new EvaluationContext<>(entity, scope);
+
+            @Override
+            public float evaluate() {
+                return eval(context, program);
+            }
+
+            @Override
+            public @NotNull String toString() {
+                return "MochaTreeFunction(" + parsed + ")";
+            }
+        };
+    }
+
+    @Override
+    public @NotNull MochaFunction compileVm(final @NotNull Reader reader) {
+        final List<Expression> parsed;
+        try {
+            parsed = parse(reader);
+        } catch (final ParseException e) {
+            // parse errors just output zero
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            return MochaFunction.nop();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to read from given reader", e);
+        }
+        return compileVm(parsed);
+    }
+
+    @Override
+    public @NotNull MochaFunction compileVm(final @NotNull String code) {
+        final List<Expression> parsed;
+        try {
+            parsed = parse(code);
+        } catch (final ParseException e) {
+            // parse errors just output zero
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            return MochaFunction.nop();
+        }
+        return compileVm(parsed);
+    }
+
+    private @NotNull MochaFunction compileVm(final @NotNull List<Expression> parsed) {
+        final VmProgram program;
+        try {
+            program = VmProgram.compile(parsed, scope);
+        } catch (final UncheckedIOException e) {
+            handleLazyParseError(e);
+            return MochaFunction.nop();
+        }
+        return new MochaFunction() {
+            private final EvaluationContext<T> context = new EvaluationContext<>(entity, scope);
+
+            @Override
+            public float evaluate() {
+                return eval(context, program);
+            }
+
+            @Override
+            public @NotNull String toString() {
+                return "MochaVmFunction(" + parsed + ")";
+            }
+        };
+    }
+
     @Override
     public <F extends MochaCompiledFunction> @NotNull F compile(final @NotNull Reader reader, final @NotNull Class<F> interfaceType) {
         List<Expression> parsed;
@@ -183,7 +378,36 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         } catch (final IOException e) {
             throw new RuntimeException("Failed to read from given reader", e);
         }
-        return compiler.compile(parsed, interfaceType);
+        return compile(parsed, interfaceType);
+    }
+
+    @Override
+    public <F extends MochaCompiledFunction> @NotNull F compile(final @NotNull String code, final @NotNull Class<F> interfaceType) {
+        List<Expression> parsed;
+        try {
+            parsed = parse(code);
+        } catch (final ParseException e) {
+            if (parseExceptionHandler != null) {
+                parseExceptionHandler.accept(e);
+            }
+            parsed = Collections.emptyList();
+        }
+        return compile(parsed, interfaceType);
+    }
+
+    private <F extends MochaCompiledFunction> @NotNull F compile(final @NotNull List<Expression> parsed, final @NotNull Class<F> interfaceType) {
+        try {
+            return compiler.compile(parsed, interfaceType);
+        } catch (final UncheckedIOException e) {
+            // a lazy execution scope failed to parse while compiling
+            handleLazyParseError(e);
+            return compiler.compile(Collections.emptyList(), interfaceType);
+        }
+    }
+
+    @Override
+    public @NotNull MochaFunction compile(final @NotNull String code) {
+        return compile(code, MochaFunction.class);
     }
 
     @Override
@@ -215,7 +439,57 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
 
     @Override
     public @NotNull List<Expression> parse(final @NotNull Reader reader) throws IOException {
-        return MolangParser.parser(reader).parseAll();
+        return processed(MolangParser.parser(reader)
+                .lightweightErrors(lightweightParseErrors)
+                .parseAll());
+    }
+
+    @Override
+    public @NotNull List<Expression> parse(final @NotNull String string) throws ParseException {
+        final ParseCache cache = parseCache;
+        if (cache != null) {
+            // the processed expressions are cached too, so hits skip processing
+            return cache.parse(string, parseOptions());
+        }
+
+        // lex the string directly, without wrapping it in a reader
+        try {
+            final MolangParser parser = lazyExecutionScopes
+                    ? MolangParser.lazyParser(string)
+                    : MolangParser.parser(string);
+            return processed(parser.lightweightErrors(lightweightParseErrors).parseAll());
+        } catch (final ParseException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error occurred reading the source code: '" + string + "'", e);
+        }
+    }
+
+    private @NotNull Set<ParseCache.Option> parseOptions() {
+        final Set<ParseCache.Option> options = EnumSet.noneOf(ParseCache.Option.class);
+        if (lazyExecutionScopes) {
+            options.add(ParseCache.Option.LAZY_EXECUTION_SCOPES);
+        }
+        if (lightweightParseErrors) {
+            options.add(ParseCache.Option.LIGHTWEIGHT_ERRORS);
+        }
+        if (canonicalizeAliases) {
+            options.add(ParseCache.Option.CANONICALIZE_ALIASES);
+        }
+        if (internExpressions) {
+            options.add(ParseCache.Option.INTERN_EXPRESSIONS);
+        }
+        return options;
+    }
+
+    private @NotNull List<Expression> processed(@NotNull List<Expression> expressions) {
+        if (canonicalizeAliases) {
+            expressions = ExpressionCanonicalizer.canonicalizeAll(expressions);
+        }
+        if (internExpressions) {
+            expressions = ExpressionInterner.internAll(expressions);
+        }
+        return expressions;
     }
 
     @Override
@@ -235,4 +509,34 @@ final class MochaEngineImpl<T> implements MochaEngine<T> {
         compiler.postCompile(bytecodeConsumer);
         return this;
     }
+
+    @Override
+    public @NotNull MochaEngine<T> parseCache(final @Nullable ParseCache cache) {
+        this.parseCache = cache;
+        return this;
+    }
+
+    @Override
+    public @NotNull MochaEngine<T> internExpressions(final boolean internExpressions) {
+        this.internExpressions = internExpressions;
+        return this;
+    }
+
+    @Override
+    public @NotNull MochaEngine<T> canonicalizeAliases(final boolean canonicalizeAliases) {
+        this.canonicalizeAliases = canonicalizeAliases;
+        return this;
+    }
+
+    @Override
+    public @NotNull MochaEngine<T> lazyExecutionScopes(final boolean lazyExecutionScopes) {
+        this.lazyExecutionScopes = lazyExecutionScopes;
+        return this;
+    }
+
+    @Override
+    public @NotNull MochaEngine<T> lightweightParseErrors(final boolean lightweightParseErrors) {
+        this.lightweightParseErrors = lightweightParseErrors;
+        return this;
+    }
 }
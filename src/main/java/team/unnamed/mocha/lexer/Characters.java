@@ -32,14 +32,42 @@ import org.jetbrains.annotations.ApiStatus;
  */
 @ApiStatus.Internal
 final class Characters {
+    private static final byte DIGIT = 1;
+    private static final byte WORD_START = 1 << 1;
+    private static final byte WORD_CONTINUATION = 1 << 2;
+
+    // flags for every ASCII character, characters outside
+    // this table do not have any flag
+    private static final byte[] FLAGS = new byte[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            FLAGS[c] = DIGIT | WORD_CONTINUATION;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            FLAGS[c] = WORD_START | WORD_CONTINUATION;
+            FLAGS[Character.toUpperCase(c)] = WORD_START | WORD_CONTINUATION;
+        }
+        FLAGS['_'] = WORD_START | WORD_CONTINUATION;
+    }
+
     private Characters() {
     }
 
+    private static boolean hasFlag(final int c, final byte flag) {
+        // (c & ~0x7F) == 0 checks that 0 <= c < 128, so EOF (-1) is excluded
+        return (c & ~0x7F) == 0 && (FLAGS[c] & flag) != 0;
+    }
+
+    public static boolean isDigit(final int c) {
+        return hasFlag(c, DIGIT);
+    }
+
     public static boolean isValidForWordStart(final int c) {
-        return ('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z') || c == '_';
+        return hasFlag(c, WORD_START);
     }
 
     public static boolean isValidForWordContinuation(final int c) {
-        return isValidForWordStart(c) || Character.isDigit(c);
+        return hasFlag(c, WORD_CONTINUATION);
     }
 }
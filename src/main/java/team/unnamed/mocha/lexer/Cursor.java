@@ -31,6 +31,10 @@ import java.util.Objects;
  * Mutable class that tracks the position of characters
  * when performing lexical analysis
  *
+ * <p>Note that lexers only track character indexes, cursors
+ * are computed when requested, which is commonly only done
+ * when reporting errors</p>
+ *
  * <p>Can be used to show the position of lexical errors
  * in a human-readable way</p>
  *
@@ -49,6 +53,46 @@ public final class Cursor implements Cloneable {
     public Cursor() {
     }
 
+    private Cursor(final int index, final int line, final int column) {
+        this.index = index;
+        this.line = line;
+        this.column = column;
+    }
+
+    // computes the cursor at the given index from the sorted indexes of
+    // the line breaks, only the line breaks before or at the index count,
+    // the column is counted from the last line break, or from the start
+    static @NotNull Cursor of(final int index, final int @NotNull [] lineBreaks, final int lineBreakCount) {
+        int low = 0;
+        int high = lineBreakCount;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (lineBreaks[middle] <= index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        // "low" is now the amount of line breaks before or at the index
+        final int column = low == 0 ? index : 1 + index - lineBreaks[low - 1];
+        return new Cursor(index, 1 + low, column);
+    }
+
+    // computes the cursor a lexer would have after reading the given
+    // source up to the given index, note that the lexer reads the first
+    // character without pushing it, so it is never counted as a line break
+    static @NotNull Cursor at(final @NotNull CharSequence source, final int index) {
+        int line = 1;
+        int lastLineBreak = -1;
+        for (int i = 1, end = Math.min(index, source.length() - 1); i <= end; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+                lastLineBreak = i;
+            }
+        }
+        return new Cursor(index, line, lastLineBreak == -1 ? index : 1 + index - lastLineBreak);
+    }
+
     public int index() {
         return index;
     }
@@ -25,11 +25,12 @@ package team.unnamed.mocha.lexer;
 
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnknownNullability;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -63,7 +64,7 @@ import java.util.List;
  * @since 3.0.0
  */
 @ApiStatus.NonExtendable
-public /* sealed */ interface MolangLexer /* permits MolangLexerImpl */ extends Closeable {
+public /* sealed */ interface MolangLexer /* permits MolangLexerImpl, TokenBufferLexer */ extends Closeable {
     /**
      * Creates a new lexer that will read the characters from the
      * given reader.
@@ -87,7 +88,62 @@ public /* sealed */ interface MolangLexer /* permits MolangLexerImpl */ extends
      * @since 3.0.0
      */
     static @NotNull MolangLexer lexer(final @NotNull String string) throws IOException {
-        return lexer(new StringReader(string));
+        return lexer((CharSequence) string);
+    }
+
+    /**
+     * Creates a new lexer that will read the characters from
+     * the given character sequence.
+     *
+     * <p>Characters are accessed by index, without going through
+     * a {@link Reader}, so this is the preferred way of lexing
+     * in-memory sources. The sequence must not be modified while
+     * the lexer is in use.</p>
+     *
+     * @param source The character sequence to tokenize.
+     * @return The created lexer
+     * @since 3.0.0
+     */
+    static @NotNull MolangLexer lexer(final @NotNull CharSequence source) {
+        return new MolangLexerImpl(source);
+    }
+
+    /**
+     * Creates a new lexer that will read the characters from
+     * the given region of a character sequence.
+     *
+     * <p>Unlike {@link #lexer(char[], int, int)}, token indexes and
+     * cursors are relative to the start of the whole sequence, not
+     * to the start of the region. The sequence must not be modified
+     * while the lexer is in use.</p>
+     *
+     * @param source The character sequence.
+     * @param offset The index of the first character to tokenize.
+     * @param length The amount of characters to tokenize.
+     * @return The created lexer
+     * @throws IndexOutOfBoundsException If the region is out of the sequence bounds
+     * @since 3.0.0
+     */
+    static @NotNull MolangLexer lexer(final @NotNull CharSequence source, final int offset, final int length) {
+        return new MolangLexerImpl(source, offset, length);
+    }
+
+    /**
+     * Creates a new lexer that will read the characters from
+     * the given region of a character array, without copying it.
+     *
+     * <p>The array must not be modified while the lexer is
+     * in use.</p>
+     *
+     * @param chars The character array.
+     * @param offset The index of the first character to tokenize.
+     * @param length The amount of characters to tokenize.
+     * @return The created lexer
+     * @throws IndexOutOfBoundsException If the region is out of the array bounds
+     * @since 3.0.0
+     */
+    static @NotNull MolangLexer lexer(final char @NotNull [] chars, final int offset, final int length) {
+        return lexer(CharBuffer.wrap(chars, offset, length));
     }
 
     /**
@@ -123,6 +179,10 @@ public /* sealed */ interface MolangLexer /* permits MolangLexerImpl */ extends
      * track of the current line and column, it is used for
      * error reporting.
      *
+     * <p>The returned cursor is a snapshot of the current
+     * position, computed on demand, it is not updated when
+     * the lexer continues reading.</p>
+     *
      * @return The lexer cursor
      * @since 3.0.0
      */
@@ -177,7 +237,100 @@ public /* sealed */ interface MolangLexer /* permits MolangLexerImpl */ extends
     }
 
     /**
-     * Closes this lexer and the internal {@link Reader}.
+     * Moves to the next token and returns its kind.
+     *
+     * <p>Same as {@code next().kind()}, but implementations
+     * may avoid creating the {@link Token} instance.</p>
+     *
+     * @return The kind of the new current token
+     * @throws IOException If reading fails
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default @NotNull TokenKind advance() throws IOException {
+        return next().kind();
+    }
+
+    /**
+     * Returns the kind of the current token, same
+     * as {@code current().kind()}.
+     *
+     * @return The current token kind
+     * @throws IllegalStateException If there is no current token
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default @NotNull TokenKind currentKind() {
+        return current().kind();
+    }
+
+    /**
+     * Returns the value of the current token, same
+     * as {@code current().value()}.
+     *
+     * @return The current token value
+     * @throws IllegalStateException If there is no current token
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default @UnknownNullability String currentValue() {
+        return current().value();
+    }
+
+    /**
+     * Returns the numeric value of the current token,
+     * same as {@code current().number()}.
+     *
+     * @return The current token numeric value
+     * @throws IllegalStateException If there is no current token
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default float currentNumber() {
+        return current().number();
+    }
+
+    /**
+     * Returns the start index of the current token, same
+     * as {@code current().start()}.
+     *
+     * @return The current token start index
+     * @throws IllegalStateException If there is no current token
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default int currentStart() {
+        return current().start();
+    }
+
+    /**
+     * Returns the end index of the current token, same
+     * as {@code current().end()}.
+     *
+     * @return The current token end index
+     * @throws IllegalStateException If there is no current token
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default int currentEnd() {
+        return current().end();
+    }
+
+    /**
+     * Returns the index of the lexer position, same as
+     * {@code cursor().index()}, without computing the line
+     * and column.
+     *
+     * @return The lexer position index
+     * @since 3.0.0
+     */
+    @ApiStatus.Internal
+    default int position() {
+        return cursor().index();
+    }
+
+    /**
+     * Closes this lexer and the internal {@link Reader}, if any.
      *
      * @throws IOException If closing fails
      * @since 3.0.0
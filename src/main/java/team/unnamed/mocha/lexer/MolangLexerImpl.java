@@ -24,58 +24,184 @@
 package team.unnamed.mocha.lexer;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.UnknownNullability;
+import team.unnamed.mocha.util.SymbolTable;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 
 import static java.util.Objects.requireNonNull;
 
 final class MolangLexerImpl implements MolangLexer {
-    // the source reader
-    private final Reader reader;
+    // mantissas up to 2^24 are exactly representable as floats
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
 
-    // the current index
-    private final Cursor cursor = new Cursor();
+    // powers of ten that are exactly representable as floats
+    private static final float[] EXACT_POWERS_OF_TEN = {
+            1e0F, 1e1F, 1e2F, 1e3F, 1e4F, 1e5F, 1e6F, 1e7F, 1e8F, 1e9F, 1e10F
+    };
+
+    // the source reader, null if reading from a character sequence
+    private final @Nullable Reader reader;
+
+    // the source characters, null if reading from a reader, only
+    // the characters before the "length" index are read
+    private final @Nullable CharSequence source;
+    private final int length;
+
+    // the index of the "next" character in the source, this is the only
+    // position tracked while lexing, lines and columns are computed from
+    // it only when a cursor is requested
+    private int position;
+
+    // the indexes of the line breaks, sorted, when reading from a reader,
+    // they are recorded while reading, otherwise, they are computed from
+    // the source the first time a cursor is requested
+    private int @Nullable [] lineBreaks;
+    private int lineBreakCount;
+
+    // buffer for identifier, number and string characters, only
+    // used when reading from a reader, since characters can be
+    // directly sliced from the source otherwise
+    private final @Nullable StringBuilder scratch;
 
     // the next character to be checked
     private int next;
 
-    // the current token
-    private Token token = null;
+    // the current token, kept in fields, so that no Token instance is
+    // created unless it is requested by calling current() or next()
+    private @Nullable TokenKind kind;
+    private @Nullable String value;
+    private float number;
+    private int start;
+    private int end;
+
+    // the Token instance for the current token, created lazily
+    private @Nullable Token token;
 
     MolangLexerImpl(final @NotNull Reader reader) throws IOException {
         this.reader = requireNonNull(reader, "reader");
+        this.source = null;
+        this.length = 0;
+        this.scratch = new StringBuilder(16);
+        this.lineBreaks = new int[16];
         this.next = reader.read();
     }
 
+    MolangLexerImpl(final @NotNull CharSequence source) {
+        this(requireNonNull(source, "source"), 0, source.length());
+    }
+
+    MolangLexerImpl(final @NotNull CharSequence source, final int offset, final int length) {
+        this.reader = null;
+        this.source = requireNonNull(source, "source");
+        if (offset < 0 || length < 0 || offset + length > source.length()) {
+            throw new IndexOutOfBoundsException("Region [" + offset + ", " + (offset + length) + ") out of bounds for length " + source.length());
+        }
+        this.length = offset + length;
+        this.position = offset;
+        this.scratch = null;
+        this.next = length > 0 ? source.charAt(offset) : -1;
+    }
+
     @Override
     public @NotNull Cursor cursor() {
-        return cursor;
+        if (lineBreaks == null) {
+            // first time, find the line breaks in the source
+            findLineBreaks();
+        }
+        //noinspection DataFlowIssue
+        return Cursor.of(position, lineBreaks, lineBreakCount);
     }
 
     @Override
     public @NotNull Token current() {
+        final TokenKind kind = currentKind();
+        Token token = this.token;
         if (token == null) {
-            throw new IllegalStateException("No current token, please call next() at least once");
+            token = kind.hasTag(TokenKind.Tag.HAS_NUMBER)
+                    ? new Token(kind, currentValue(), number, start, end)
+                    : new Token(kind, value, start, end);
+            this.token = token;
         }
         return token;
     }
 
     @Override
     public @NotNull Token next() throws IOException {
-        return token = next0();
+        advance();
+        return current();
+    }
+
+    @Override
+    public @NotNull TokenKind advance() throws IOException {
+        token = null;
+        value = null;
+        number = 0F;
+        return kind = scan();
+    }
+
+    @Override
+    public @NotNull TokenKind currentKind() {
+        final TokenKind kind = this.kind;
+        if (kind == null) {
+            throw new IllegalStateException("No current token, please call next() at least once");
+        }
+        return kind;
+    }
+
+    @Override
+    public @UnknownNullability String currentValue() {
+        final TokenKind kind = currentKind();
+        if (value == null && kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            // the number text is only sliced when requested, it is
+            // still in the scratch buffer or the source at this point
+            value = text(start);
+        }
+        return value;
+    }
+
+    @Override
+    public float currentNumber() {
+        currentKind();
+        return number;
+    }
+
+    @Override
+    public int currentStart() {
+        currentKind();
+        return start;
+    }
+
+    @Override
+    public int currentEnd() {
+        currentKind();
+        return end;
+    }
+
+    @Override
+    public int position() {
+        return position;
     }
 
     @Override
     public void close() throws IOException {
-        this.reader.close();
+        if (reader != null) {
+            reader.close();
+        }
     }
 
-    private @NotNull Token next0() throws IOException {
+    // reads the next token into the current token fields and returns
+    // its kind, the value and number must be reset before calling it
+    private @NotNull TokenKind scan() throws IOException {
         int c = next;
         if (c == -1) {
             // EOF reached
-            return new Token(TokenKind.EOF, null, cursor.index(), cursor.index() + 1);
+            start = position;
+            end = position + 1;
+            return TokenKind.EOF;
         }
 
         // skip whitespace (including tabs and newlines)
@@ -86,72 +212,89 @@ final class MolangLexerImpl implements MolangLexer {
         // additional spaces, lines, etc. at the end?
         if (c == -1) {
             // EOF reached
-            return new Token(TokenKind.EOF, null, cursor.index(), cursor.index() + 1);
+            start = position;
+            end = position + 1;
+            return TokenKind.EOF;
         }
 
-        int start = cursor.index();
-        if (Character.isDigit(c)) {
-            StringBuilder builder = new StringBuilder(8);
-            builder.appendCodePoint(c);
+        start = position;
+        if (Characters.isDigit(c)) { // [0-9]
+            // number literal, digits are accumulated directly into
+            // the mantissa while they can be exactly represented
+            final int from = mark();
+            long mantissa = 0;
+            int fractionDigits = 0;
+            boolean exact = true;
 
-            // first char is a digit, continue reading number
-            while (Character.isDigit(c = read())) {
-                builder.appendCodePoint(c);
-            }
+            do {
+                if (mantissa <= MAX_EXACT_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exact = false;
+                }
+                keep(c);
+            } while (Characters.isDigit(c = read()));
 
             if (c == '.') {
-                builder.append('.');
-                while (Character.isDigit(c = read())) {
-                    builder.appendCodePoint(c);
+                keep(c);
+                while (Characters.isDigit(c = read())) {
+                    if (mantissa <= MAX_EXACT_MANTISSA) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        fractionDigits++;
+                    } else {
+                        exact = false;
+                    }
+                    keep(c);
                 }
             }
 
-            return new Token(TokenKind.FLOAT, builder.toString(), start, cursor.index());
+            if (exact && mantissa <= MAX_EXACT_MANTISSA && fractionDigits < EXACT_POWERS_OF_TEN.length) {
+                // both the mantissa and the power of ten are exactly representable
+                // as floats, so a single division gives the correctly rounded result
+                number = fractionDigits == 0 ? (float) mantissa : (float) mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+            } else {
+                // too many digits, let the JDK do the rounding
+                number = Float.parseFloat(text(from));
+            }
+            end = position;
+            return TokenKind.FLOAT;
         } else if (Characters.isValidForWordStart(c)) { // [A-z_]
             // may be an identifier or a keyword
-            StringBuilder builder = new StringBuilder();
+            final int from = mark();
             do {
-                builder.appendCodePoint(c);
+                keep(c);
             } while (Characters.isValidForWordContinuation(c = read())); // [A-z_0-9]
-            String word = builder.toString();
-            TokenKind kind;
-            switch (word.toLowerCase()) {
-                //@formatter:off
-                case "break": kind = TokenKind.BREAK; break;
-                case "continue": kind = TokenKind.CONTINUE; break;
-                case "return": kind = TokenKind.RETURN; break;
-                case "true": kind = TokenKind.TRUE; break;
-                case "false": kind = TokenKind.FALSE; break;
-                default: kind = TokenKind.IDENTIFIER; break;
-                //@formatter:on
-            }
 
-            return new Token(
-                    kind,
-                    // keywords do not have values
-                    kind == TokenKind.IDENTIFIER ? word : null,
-                    start,
-                    cursor.index()
-            );
+            final TokenKind kind = keyword(from);
+            if (kind == TokenKind.IDENTIFIER) {
+                // keywords do not have values
+                value = symbol(from);
+            }
+            end = position;
+            return kind;
         } else if (c == '\'') { // single quote means string start
-            StringBuilder value = new StringBuilder(16);
+            final int from = mark() + 1;
             while (true) {
                 c = read();
                 if (c == -1) {
                     // the heck? you didn't close the string
-                    return new Token(TokenKind.ERROR, "Found end-of-file before closing quote", start, cursor.index());
+                    value = "Found end-of-file before closing quote";
+                    end = position;
+                    return TokenKind.ERROR;
                 } else if (c == '\'') {
                     // string was closed!
                     break;
                 } else {
                     // TODO: should we allow escaping quotes? should we disallow line breaks?
                     // not end of file nor quote, this is inside the string literal
-                    value.appendCodePoint(c);
+                    keep(c);
                 }
             }
+            value = text(from);
             // Here, "c" should be a quote, so skip it and give it to the next person
             read();
-            return new Token(TokenKind.STRING, value.toString(), start, cursor.index());
+            end = position;
+            return TokenKind.STRING;
         } else {
             // here we are sure that "c" is NOT:
             // - EOF
@@ -159,8 +302,7 @@ final class MolangLexerImpl implements MolangLexer {
             // - A-Za-z_
             // - 0-9
             // so it must be some sign like ?, *, +, -
-            TokenKind tokenKind;
-            String value = null; // only set of token kind = ERROR, value is error message
+            TokenKind tokenKind; // the value is only set if token kind = ERROR, it is the error message
             int c1 = -2; // only set if "c" may have a continuation, for example "==", "!=", "??"
             switch (c) {
                 case '!': {
@@ -279,14 +421,122 @@ final class MolangLexerImpl implements MolangLexer {
                 read();
             }
 
-            return new Token(tokenKind, value, start, cursor.index());
+            end = position;
+            return tokenKind;
+        }
+    }
+
+    // starts a new identifier, number or string, returns the source
+    // index of the "next" character
+    private int mark() {
+        if (scratch != null) {
+            scratch.setLength(0);
+        }
+        return position;
+    }
+
+    // keeps the given character for the current identifier, number or
+    // string, only required when reading from a reader
+    private void keep(final int c) {
+        if (scratch != null) {
+            scratch.append((char) c);
         }
     }
 
+    // gets the text of the current identifier, number or string, which
+    // started at the given source index and ends before the "next" character
+    private @NotNull String text(final int from) {
+        if (scratch != null) {
+            return scratch.toString();
+        }
+        //noinspection DataFlowIssue
+        return source.subSequence(from, position).toString();
+    }
+
+    // gets the symbol for the current word, which started at the given
+    // source index, no string is created if the symbol already exists
+    private @NotNull String symbol(final int from) {
+        if (scratch != null) {
+            return SymbolTable.symbol(scratch, 0, scratch.length());
+        }
+        //noinspection DataFlowIssue
+        return SymbolTable.symbol(source, from, position);
+    }
+
+    // determines the kind of the current word, which started at the
+    // given source index, without creating a string for it
+    private @NotNull TokenKind keyword(final int from) {
+        final CharSequence chars = scratch != null ? scratch : source;
+        final int offset = scratch != null ? 0 : from;
+        //noinspection DataFlowIssue
+        final int len = scratch != null ? scratch.length() : position - from;
+        switch (len) {
+            case 4:
+                if (matchesIgnoreCase(chars, offset, "true")) return TokenKind.TRUE;
+                break;
+            case 5:
+                if (matchesIgnoreCase(chars, offset, "break")) return TokenKind.BREAK;
+                if (matchesIgnoreCase(chars, offset, "false")) return TokenKind.FALSE;
+                break;
+            case 6:
+                if (matchesIgnoreCase(chars, offset, "return")) return TokenKind.RETURN;
+                break;
+            case 8:
+                if (matchesIgnoreCase(chars, offset, "continue")) return TokenKind.CONTINUE;
+                break;
+        }
+        return TokenKind.IDENTIFIER;
+    }
+
+    private static boolean matchesIgnoreCase(final @NotNull CharSequence chars, final int offset, final @NotNull String keyword) {
+        for (int i = 0, len = keyword.length(); i < len; i++) {
+            // word characters are [A-Za-z0-9_], setting the 0x20 bit only
+            // maps upper-case letters to lower-case ones, and never turns
+            // a digit or underscore into a lower-case letter
+            if ((chars.charAt(offset + i) | 0x20) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private int read() throws IOException {
-        int c = reader.read();
-        cursor.push(c);
+        final int c;
+        if (source != null) {
+            // indexed access, no need to go through a reader
+            if (position < length) {
+                position++;
+            }
+            c = position < length ? source.charAt(position) : -1;
+        } else {
+            position++;
+            //noinspection DataFlowIssue
+            c = reader.read();
+            if (c == '\n') {
+                addLineBreak(position);
+            }
+        }
         next = c;
         return c;
     }
+
+    private void findLineBreaks() {
+        lineBreaks = new int[16];
+        // note that the first character is never counted as a line
+        // break, since the cursor starts after it
+        //noinspection DataFlowIssue
+        for (int i = 1; i < length; i++) {
+            if (source.charAt(i) == '\n') {
+                addLineBreak(i);
+            }
+        }
+    }
+
+    private void addLineBreak(final int index) {
+        //noinspection DataFlowIssue
+        if (lineBreakCount == lineBreaks.length) {
+            lineBreaks = Arrays.copyOf(lineBreaks, lineBreakCount * 2);
+        }
+        lineBreaks[lineBreakCount++] = index;
+    }
 }
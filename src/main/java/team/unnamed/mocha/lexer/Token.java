@@ -41,6 +41,8 @@ import static java.util.Objects.requireNonNull;
 public final class Token {
     private final TokenKind kind;
     private final @Nullable String value;
+    private final boolean numberKnown;
+    private final float number;
     private final int start;
     private final int end;
 
@@ -54,6 +56,8 @@ public final class Token {
         this.value = value;
         this.start = start;
         this.end = end;
+        this.numberKnown = false;
+        this.number = 0F;
 
         // verify state, token kinds that have HAS_VALUE tag, must have a non-null value
         if (kind.hasTag(TokenKind.Tag.HAS_VALUE) && value == null) {
@@ -62,6 +66,38 @@ public final class Token {
         }
     }
 
+    /**
+     * Creates a new token with both its value and its already
+     * parsed numeric value, its kind must have the
+     * {@link TokenKind.Tag#HAS_NUMBER} tag.
+     *
+     * @param kind   The token kind
+     * @param value  The token value, i.e. the source text
+     * @param number The token numeric value
+     * @param start  The token start
+     * @param end    The token end
+     * @since 3.0.0
+     */
+    public Token(
+            final @NotNull TokenKind kind,
+            final @NotNull String value,
+            final float number,
+            final int start,
+            final int end
+    ) {
+        this.kind = requireNonNull(kind, "kind");
+        this.value = requireNonNull(value, "value");
+        this.numberKnown = true;
+        this.number = number;
+        this.start = start;
+        this.end = end;
+
+        if (!kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            throw new IllegalArgumentException("A token with kind "
+                    + kind + " can't have a numeric value");
+        }
+    }
+
     /**
      * Gets the token kind.
      *
@@ -76,6 +112,9 @@ public final class Token {
      * Gets the token value. Null if this kind
      * of tokens doesn't allow values.
      *
+     * <p>For tokens with a numeric value, this is the
+     * source text of the number, see {@link #number()}</p>
+     *
      * @return The token value
      * @since 3.0.0
      */
@@ -83,6 +122,25 @@ public final class Token {
         return value;
     }
 
+    /**
+     * Gets the token numeric value. Zero if this kind
+     * of tokens doesn't have numeric values.
+     *
+     * <p>Tokens created by the lexer already carry their
+     * numeric value, otherwise, it is parsed from the
+     * token value every time.</p>
+     *
+     * @return The token numeric value
+     * @since 3.0.0
+     */
+    public float number() {
+        if (!numberKnown && kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            //noinspection DataFlowIssue
+            return Float.parseFloat(value);
+        }
+        return number;
+    }
+
     /**
      * Gets the start index of this token.
      *
@@ -0,0 +1,296 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.lexer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnknownNullability;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A compact, immutable buffer of tokens, stored as parallel
+ * arrays instead of {@link Token} instances, plus a reference
+ * to the source they were read from.
+ *
+ * <p>Useful for tokenizing a lot of sources ahead of time, since
+ * every token only takes a few bytes. The tokens can then be
+ * parsed by using the lexer returned by {@link #lexer()}, without
+ * creating {@link Token} instances.</p>
+ *
+ * <pre>{@code
+ *     TokenBuffer tokens = TokenBuffer.tokenize("1 + 1");
+ *     List<Expression> expressions = MolangParser.parser(tokens.lexer()).parseAll();
+ * }</pre>
+ *
+ * @since 3.0.0
+ */
+public final class TokenBuffer {
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final CharSequence source;
+
+    // token kind ordinals
+    private byte[] kinds;
+
+    // token start and end indexes
+    private int[] starts;
+    private int[] ends;
+
+    // the raw bits of the float value for tokens with a numeric
+    // value, the index in the values array for tokens with a value
+    private int[] data;
+
+    private String[] values;
+    private int valueCount;
+
+    // the amount of tokens, including the final EOF token
+    private int count;
+
+    private TokenBuffer(final @NotNull CharSequence source) {
+        this.source = source;
+        final int capacity = Math.max(8, source.length() / 3);
+        this.kinds = new byte[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.data = new int[capacity];
+        this.values = new String[Math.max(4, capacity / 2)];
+    }
+
+    /**
+     * Tokenizes all the given source into a new token buffer.
+     *
+     * <p>The source must not be modified while the buffer
+     * is in use.</p>
+     *
+     * @param source The source to tokenize.
+     * @return The token buffer
+     * @since 3.0.0
+     */
+    public static @NotNull TokenBuffer tokenize(final @NotNull CharSequence source) {
+        requireNonNull(source, "source");
+        final TokenBuffer buffer = new TokenBuffer(source);
+        try (final MolangLexer lexer = MolangLexer.lexer(source)) {
+            // tokens are written straight from the lexer state,
+            // without creating Token instances
+            TokenKind kind;
+            do {
+                kind = lexer.advance();
+                buffer.add(lexer, kind);
+            } while (kind != TokenKind.EOF);
+        } catch (final IOException e) {
+            // never thrown when reading from a character sequence
+            throw new UncheckedIOException(e);
+        }
+        buffer.trim();
+        return buffer;
+    }
+
+    /**
+     * Tokenizes all the given region of a character array into
+     * a new token buffer, without copying it.
+     *
+     * <p>The array must not be modified while the buffer
+     * is in use.</p>
+     *
+     * @param chars  The character array.
+     * @param offset The index of the first character to tokenize.
+     * @param length The amount of characters to tokenize.
+     * @return The token buffer
+     * @throws IndexOutOfBoundsException If the region is out of the array bounds
+     * @since 3.0.0
+     */
+    public static @NotNull TokenBuffer tokenize(final char @NotNull [] chars, final int offset, final int length) {
+        return tokenize(CharBuffer.wrap(chars, offset, length));
+    }
+
+    private void add(final @NotNull MolangLexer lexer, final @NotNull TokenKind kind) {
+        if (count == kinds.length) {
+            final int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            data = Arrays.copyOf(data, capacity);
+        }
+
+        kinds[count] = (byte) kind.ordinal();
+        starts[count] = lexer.currentStart();
+        ends[count] = lexer.currentEnd();
+        if (kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            data[count] = Float.floatToRawIntBits(lexer.currentNumber());
+        } else if (kind.hasTag(TokenKind.Tag.HAS_VALUE)) {
+            if (valueCount == values.length) {
+                values = Arrays.copyOf(values, valueCount * 2);
+            }
+            data[count] = valueCount;
+            values[valueCount++] = lexer.currentValue();
+        }
+        count++;
+    }
+
+    private void trim() {
+        kinds = Arrays.copyOf(kinds, count);
+        starts = Arrays.copyOf(starts, count);
+        ends = Arrays.copyOf(ends, count);
+        data = Arrays.copyOf(data, count);
+        values = Arrays.copyOf(values, valueCount);
+    }
+
+    /**
+     * Gets the source these tokens were read from.
+     *
+     * @return The source
+     * @since 3.0.0
+     */
+    public @NotNull CharSequence source() {
+        return source;
+    }
+
+    /**
+     * Gets the amount of tokens in this buffer, not
+     * including the final {@link TokenKind#EOF} token.
+     *
+     * @return The amount of tokens
+     * @since 3.0.0
+     */
+    public int size() {
+        return count - 1;
+    }
+
+    /**
+     * Gets the kind of the token at the given index.
+     *
+     * <p>Note that the index {@link #size()} is valid, and
+     * always returns the final {@link TokenKind#EOF} token.</p>
+     *
+     * @param index The token index
+     * @return The token kind
+     * @since 3.0.0
+     */
+    public @NotNull TokenKind kind(final int index) {
+        return KINDS[kinds[checkIndex(index)]];
+    }
+
+    /**
+     * Gets the start index of the token at the given index.
+     *
+     * @param index The token index
+     * @return The token start
+     * @since 3.0.0
+     */
+    public int start(final int index) {
+        return starts[checkIndex(index)];
+    }
+
+    /**
+     * Gets the end index of the token at the given index.
+     *
+     * @param index The token index
+     * @return The token end
+     * @since 3.0.0
+     */
+    public int end(final int index) {
+        return ends[checkIndex(index)];
+    }
+
+    /**
+     * Gets the value of the token at the given index, same
+     * as {@link Token#value()}.
+     *
+     * @param index The token index
+     * @return The token value
+     * @since 3.0.0
+     */
+    public @UnknownNullability String value(final int index) {
+        final TokenKind kind = kind(index);
+        if (kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            // numbers only keep their parsed value, their text is in the source
+            return source.subSequence(starts[index], ends[index]).toString();
+        } else if (kind.hasTag(TokenKind.Tag.HAS_VALUE)) {
+            return values[data[index]];
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the numeric value of the token at the given
+     * index, same as {@link Token#number()}.
+     *
+     * @param index The token index
+     * @return The token numeric value
+     * @since 3.0.0
+     */
+    public float number(final int index) {
+        return kind(index).hasTag(TokenKind.Tag.HAS_NUMBER) ? Float.intBitsToFloat(data[index]) : 0F;
+    }
+
+    /**
+     * Creates a {@link Token} instance for the token
+     * at the given index.
+     *
+     * @param index The token index
+     * @return The created token
+     * @since 3.0.0
+     */
+    public @NotNull Token token(final int index) {
+        final TokenKind kind = kind(index);
+        if (kind.hasTag(TokenKind.Tag.HAS_NUMBER)) {
+            return new Token(kind, value(index), number(index), starts[index], ends[index]);
+        } else {
+            return new Token(kind, value(index), starts[index], ends[index]);
+        }
+    }
+
+    /**
+     * Creates a new lexer that emits the tokens in this buffer,
+     * can be used to parse them using a {@link team.unnamed.mocha.parser.MolangParser}.
+     *
+     * @return The created lexer
+     * @since 3.0.0
+     */
+    public @NotNull MolangLexer lexer() {
+        return new TokenBufferLexer(this);
+    }
+
+    // used by TokenBufferLexer, skips bounds checking
+    byte kindOrdinal(final int index) {
+        return kinds[index];
+    }
+
+    int count() {
+        return count;
+    }
+
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return index;
+    }
+}
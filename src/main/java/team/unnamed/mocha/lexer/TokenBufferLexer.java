@@ -0,0 +1,121 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.lexer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.UnknownNullability;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A lexer that emits the tokens stored in a {@link TokenBuffer},
+ * {@link Token} instances are only created if requested.
+ */
+final class TokenBufferLexer implements MolangLexer {
+    private static final TokenKind[] KINDS = TokenKind.values();
+
+    private final TokenBuffer buffer;
+
+    // the index of the current token, -1 if next() was never called
+    private int index = -1;
+
+    TokenBufferLexer(final @NotNull TokenBuffer buffer) {
+        this.buffer = requireNonNull(buffer, "buffer");
+    }
+
+    @Override
+    public @NotNull Cursor cursor() {
+        // only required for error reporting, so it is computed on demand
+        final int position;
+        if (index == -1) {
+            position = 0;
+        } else if (currentKind() == TokenKind.EOF) {
+            position = buffer.start(index);
+        } else {
+            position = buffer.end(index);
+        }
+        return Cursor.at(buffer.source(), position);
+    }
+
+    @Override
+    public @NotNull Token current() {
+        checkCurrent();
+        return buffer.token(index);
+    }
+
+    @Override
+    public @NotNull Token next() {
+        advance();
+        return buffer.token(index);
+    }
+
+    @Override
+    public @NotNull TokenKind advance() {
+        // the final token is always EOF, stay there
+        if (index < buffer.count() - 1) {
+            index++;
+        }
+        return KINDS[buffer.kindOrdinal(index)];
+    }
+
+    @Override
+    public @NotNull TokenKind currentKind() {
+        checkCurrent();
+        return KINDS[buffer.kindOrdinal(index)];
+    }
+
+    @Override
+    public @UnknownNullability String currentValue() {
+        checkCurrent();
+        return buffer.value(index);
+    }
+
+    @Override
+    public float currentNumber() {
+        checkCurrent();
+        return buffer.number(index);
+    }
+
+    @Override
+    public int currentStart() {
+        checkCurrent();
+        return buffer.start(index);
+    }
+
+    @Override
+    public int currentEnd() {
+        checkCurrent();
+        return buffer.end(index);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void checkCurrent() {
+        if (index == -1) {
+            throw new IllegalStateException("No current token, please call next() at least once");
+        }
+    }
+}
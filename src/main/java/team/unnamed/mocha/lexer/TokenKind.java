@@ -54,7 +54,8 @@ public enum TokenKind {
     ERROR(Tag.HAS_VALUE),
 
     /**
-     * Identifier token, has a string value of the identifier name
+     * Identifier token, has a string value of the identifier name,
+     * lower-cased, since identifiers are case-insensitive
      */
     IDENTIFIER(Tag.HAS_VALUE),
 
@@ -65,9 +66,9 @@ public enum TokenKind {
 
     /**
      * Float literal token, has a string value of its content,
-     * which can be parsed to a floating-point number
+     * and its numeric value, already parsed by the lexer
      */
-    FLOAT(Tag.HAS_VALUE),
+    FLOAT(Tag.HAS_VALUE, Tag.HAS_NUMBER),
 
     /**
      * 'True' literal boolean token
@@ -267,6 +268,16 @@ public enum TokenKind {
          *
          * @since 3.0.0
          */
-        HAS_VALUE
+        HAS_VALUE,
+
+        /**
+         * A token kind with HAS_NUMBER tag will have a numeric value
+         * in addition to its {@link #HAS_VALUE value}, for example,
+         * float literal tokens, that can be obtained without any
+         * parsing using {@link Token#number()}.
+         *
+         * @since 3.0.0
+         */
+        HAS_NUMBER
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable {@link CharSequence} view of a region of a byte
+ * buffer, where every byte is a character. Only valid for ASCII
+ * regions, except {@link #toString()} and {@link #decode}, which
+ * decode UTF-8.
+ *
+ * @since 3.0.0
+ */
+final class ByteWindow implements CharSequence {
+    private final ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    ByteWindow(final @NotNull ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    void set(final int start, final int end) {
+        this.offset = start;
+        this.length = end - start;
+    }
+
+    @NotNull String decode(final int start, final int end) {
+        final byte[] data = new byte[end - start];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = bytes.get(start + i);
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public @NotNull CharSequence subSequence(final int start, final int end) {
+        return decode(offset + start, offset + end);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        return decode(offset, offset + length);
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.lexer.MolangLexer;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An indexed collection of Molang programs parsed in bulk
+ * from a file (or buffer) of delimited, UTF-8 encoded,
+ * expressions, or from a collection of sources.
+ *
+ * <p>Files are memory-mapped and expressions are lexed and
+ * parsed directly from the mapped bytes, without creating
+ * a {@link String} or {@link java.io.Reader} for each of
+ * them (except for the ones with non-ASCII characters).</p>
+ *
+ * <p>Collections of sources are parsed in parallel, see
+ * {@link #parseAll(Collection, ForkJoinPool)}.</p>
+ *
+ * <pre>{@code
+ *     // one expression per line
+ *     ExpressionBundle bundle = ExpressionBundle.load(path, '\n');
+ *     for (int i = 0; i < bundle.size(); i++) {
+ *         List<Expression> program = bundle.get(i); // null if it failed to parse
+ *     }
+ * }</pre>
+ *
+ * @since 3.0.0
+ */
+public final class ExpressionBundle {
+    private final List<List<Expression>> programs;
+    private final List<ParseException> errors;
+    private final int errorCount;
+
+    private ExpressionBundle(final @NotNull List<List<Expression>> programs, final @NotNull List<ParseException> errors, final int errorCount) {
+        this.programs = programs;
+        this.errors = errors;
+        this.errorCount = errorCount;
+    }
+
+    /**
+     * Memory-maps the given file and parses all the expressions
+     * in it, separated by the given delimiter.
+     *
+     * @param path      The file path
+     * @param delimiter The expression delimiter, must be an
+     *                  ASCII character, e.g. a line break
+     * @return The parsed expressions
+     * @throws IOException If reading the file fails
+     * @since 3.0.0
+     */
+    public static @NotNull ExpressionBundle load(final @NotNull Path path, final char delimiter) throws IOException {
+        requireNonNull(path, "path");
+        checkDelimiter(delimiter);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File is too big to be mapped (" + size + " bytes): " + path);
+            }
+            // the mapping stays valid after the channel is closed
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(buffer, delimiter);
+        }
+    }
+
+    /**
+     * Parses all the expressions in the given buffer, from its
+     * position to its limit, separated by the given delimiter.
+     *
+     * <p>The buffer position is not modified.</p>
+     *
+     * @param bytes     The UTF-8 encoded expressions
+     * @param delimiter The expression delimiter, must be an
+     *                  ASCII character, e.g. a line break
+     * @return The parsed expressions
+     * @since 3.0.0
+     */
+    public static @NotNull ExpressionBundle parse(final @NotNull ByteBuffer bytes, final char delimiter) {
+        requireNonNull(bytes, "bytes");
+        checkDelimiter(delimiter);
+
+        final List<List<Expression>> programs = new ArrayList<>();
+        final List<ParseException> errors = new ArrayList<>();
+        int errorCount = 0;
+
+        final ByteWindow window = new ByteWindow(bytes);
+        final int limit = bytes.limit();
+        int start = bytes.position();
+        while (start < limit) {
+            // find the end of this expression, and check if
+            // it only has ASCII characters meanwhile
+            int end = start;
+            boolean ascii = true;
+            byte b;
+            while (end < limit && (b = bytes.get(end)) != delimiter) {
+                ascii &= b >= 0;
+                end++;
+            }
+
+            final CharSequence source;
+            if (ascii) {
+                // ASCII bytes are the same as their chars, use them directly
+                window.set(start, end);
+                source = window;
+            } else {
+                source = window.decode(start, end);
+            }
+
+            List<Expression> program = null;
+            ParseException error = null;
+            try {
+                program = parseOne(source);
+            } catch (final ParseException e) {
+                error = e;
+                errorCount++;
+            }
+            programs.add(program);
+            errors.add(error);
+
+            // skip the delimiter, note that a delimiter at the end
+            // doesn't start another (empty) expression
+            start = end + 1;
+        }
+
+        return new ExpressionBundle(
+                Collections.unmodifiableList(programs),
+                errors,
+                errorCount
+        );
+    }
+
+    /**
+     * Parses all the given sources in parallel, using the common
+     * {@link ForkJoinPool}, see {@link #parseAll(Collection, ForkJoinPool)}.
+     *
+     * @param sources The sources to parse
+     * @return The parsed expressions, in the same order as the sources
+     * @since 3.0.0
+     */
+    public static @NotNull ExpressionBundle parseAll(final @NotNull Collection<? extends CharSequence> sources) {
+        return parseAll(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses all the given sources in parallel, using the given
+     * {@link ForkJoinPool}.
+     *
+     * <p>Every source is lexed and parsed independently, by the
+     * worker it was assigned to, so the sources must not be modified
+     * until this method returns. Parse errors are reported per source,
+     * see {@link #error(int)}.</p>
+     *
+     * @param sources The sources to parse
+     * @param pool    The pool to run the parsing tasks on
+     * @return The parsed expressions, in the same order as the sources
+     * @since 3.0.0
+     */
+    public static @NotNull ExpressionBundle parseAll(final @NotNull Collection<? extends CharSequence> sources, final @NotNull ForkJoinPool pool) {
+        return parseAll(sources, pool, ExpressionBundle::parseOne);
+    }
+
+    /**
+     * Parses all the given sources in parallel, using the given
+     * {@link ForkJoinPool} and the given function to parse every
+     * source, e.g. one that also processes the parsed expressions.
+     *
+     * <p>The function is called concurrently, from the workers
+     * of the pool, and its errors are reported per source, see
+     * {@link #error(int)}.</p>
+     *
+     * @param sources The sources to parse
+     * @param pool    The pool to run the parsing tasks on
+     * @param parser  The function that parses every source
+     * @return The parsed expressions, in the same order as the sources
+     * @since 3.0.0
+     */
+    public static @NotNull ExpressionBundle parseAll(
+            final @NotNull Collection<? extends CharSequence> sources,
+            final @NotNull ForkJoinPool pool,
+            final @NotNull SourceParser parser
+    ) {
+        requireNonNull(sources, "sources");
+        requireNonNull(pool, "pool");
+        requireNonNull(parser, "parser");
+
+        final CharSequence[] array = sources.toArray(new CharSequence[0]);
+        final List<Expression>[] programs = newProgramArray(array.length);
+        final ParseException[] errors = new ParseException[array.length];
+        if (array.length > 0) {
+            // a few tasks per worker, so that they can balance
+            // sources that take longer to parse
+            final int threshold = Math.max(1, array.length / (pool.getParallelism() * 4));
+            pool.invoke(new ParseTask(parser, array, programs, errors, 0, array.length, threshold));
+        }
+
+        int errorCount = 0;
+        for (final ParseException error : errors) {
+            if (error != null) {
+                errorCount++;
+            }
+        }
+        return new ExpressionBundle(
+                Collections.unmodifiableList(Arrays.asList(programs)),
+                Arrays.asList(errors),
+                errorCount
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static @NotNull List<Expression> @NotNull [] newProgramArray(final int length) {
+        return (List<Expression>[]) new List<?>[length];
+    }
+
+    private static @NotNull List<Expression> parseOne(final @NotNull CharSequence source) throws ParseException {
+        try {
+            return Collections.unmodifiableList(MolangParser.parser(MolangLexer.lexer(source)).parseAll());
+        } catch (final ParseException e) {
+            throw e;
+        } catch (final IOException e) {
+            // never thrown when reading from a character sequence
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final SourceParser parser;
+        private final CharSequence[] sources;
+        private final List<Expression>[] programs;
+        private final ParseException[] errors;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ParseTask(
+                final @NotNull SourceParser parser,
+                final @NotNull CharSequence @NotNull [] sources,
+                final @Nullable List<Expression> @NotNull [] programs,
+                final @Nullable ParseException @NotNull [] errors,
+                final int from,
+                final int to,
+                final int threshold
+        ) {
+            this.parser = parser;
+            this.sources = sources;
+            this.programs = programs;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        programs[i] = Collections.unmodifiableList(parser.parse(sources[i]));
+                    } catch (final ParseException e) {
+                        errors[i] = e;
+                    }
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ParseTask(parser, sources, programs, errors, from, middle, threshold),
+                    new ParseTask(parser, sources, programs, errors, middle, to, threshold)
+            );
+        }
+    }
+
+    /**
+     * A function that parses a source, see
+     * {@link #parseAll(Collection, ForkJoinPool, SourceParser)}.
+     *
+     * @since 3.0.0
+     */
+    @FunctionalInterface
+    public interface SourceParser {
+        /**
+         * Parses the given source.
+         *
+         * @param source The source to parse
+         * @return The parsed expressions
+         * @throws ParseException If parsing fails
+         * @since 3.0.0
+         */
+        @NotNull List<Expression> parse(final @NotNull CharSequence source) throws ParseException;
+    }
+
+    private static void checkDelimiter(final char delimiter) {
+        if (delimiter >= 0x80) {
+            throw new IllegalArgumentException("Delimiter must be an ASCII character, got: '" + delimiter + "'");
+        }
+    }
+
+    /**
+     * Gets the amount of expressions (programs) in this bundle,
+     * including the ones that failed to parse.
+     *
+     * @return The amount of programs
+     * @since 3.0.0
+     */
+    public int size() {
+        return programs.size();
+    }
+
+    /**
+     * Gets the parsed program at the given index, or null
+     * if it failed to parse, in that case, {@link #error(int)}
+     * returns the exception.
+     *
+     * @param index The program index
+     * @return The parsed program, unmodifiable
+     * @since 3.0.0
+     */
+    public @Nullable List<Expression> get(final int index) {
+        return programs.get(index);
+    }
+
+    /**
+     * Gets the exception thrown when parsing the program
+     * at the given index, null if it was parsed correctly.
+     *
+     * @param index The program index
+     * @return The parse exception
+     * @since 3.0.0
+     */
+    public @Nullable ParseException error(final int index) {
+        return errors.get(index);
+    }
+
+    /**
+     * Gets the amount of programs that failed to parse.
+     *
+     * @return The amount of errors
+     * @since 3.0.0
+     */
+    public int errorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Gets all the parsed programs, in order, failed programs
+     * are null.
+     *
+     * @return The programs, unmodifiable
+     * @since 3.0.0
+     */
+    public @NotNull List<List<Expression>> programs() {
+        return programs;
+    }
+}
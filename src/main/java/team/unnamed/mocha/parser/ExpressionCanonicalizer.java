@@ -0,0 +1,277 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.AccessExpression;
+import team.unnamed.mocha.parser.ast.ArrayAccessExpression;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+import team.unnamed.mocha.parser.ast.ForEachExpression;
+import team.unnamed.mocha.parser.ast.IdentifierExpression;
+import team.unnamed.mocha.parser.ast.LoopExpression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.StringExpression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Rewrites expressions to their canonical form, where the
+ * short identifier aliases {@code t}, {@code v}, {@code q} and
+ * {@code c} are replaced by their full names, {@code temp},
+ * {@code variable}, {@code query} and {@code context}.
+ *
+ * <p>Identifiers and properties are already lower-cased when
+ * their expressions are created, so after canonicalization,
+ * equivalent sources like {@code Q.Foo} and {@code query.foo}
+ * produce equal expressions, and bindings only need to be
+ * registered and looked up by their full names.</p>
+ *
+ * <p>The given expressions are never modified, sub-expressions
+ * that don't contain aliases are reused.</p>
+ *
+ * <p>See {@link team.unnamed.mocha.MochaEngine#canonicalizeAliases}
+ * to canonicalize every parsed expression.</p>
+ *
+ * @since 3.0.0
+ */
+public final class ExpressionCanonicalizer {
+    private static final Rewriter REWRITER = new Rewriter();
+
+    private ExpressionCanonicalizer() {
+    }
+
+    /**
+     * Returns the full name for the given lower-cased identifier
+     * name, or the same name if it isn't an alias.
+     *
+     * @param name The lower-cased identifier name.
+     * @return The canonical name
+     * @since 3.0.0
+     */
+    public static @NotNull String canonicalName(final @NotNull String name) {
+        requireNonNull(name, "name");
+        if (name.length() != 1) {
+            // fast path, all the aliases are single characters
+            return name;
+        }
+        switch (name.charAt(0)) {
+            case 't':
+                return "temp";
+            case 'v':
+                return "variable";
+            case 'q':
+                return "query";
+            case 'c':
+                return "context";
+            default:
+                return name;
+        }
+    }
+
+    /**
+     * Canonicalizes the given expression.
+     *
+     * @param expression The expression to canonicalize.
+     * @return The canonical expression, or the given one if it
+     * was already canonical.
+     * @since 3.0.0
+     */
+    public static @NotNull Expression canonicalize(final @NotNull Expression expression) {
+        requireNonNull(expression, "expression");
+        return expression.visit(REWRITER);
+    }
+
+    /**
+     * Canonicalizes all the given expressions, see {@link #canonicalize(Expression)}.
+     *
+     * @param expressions The expressions to canonicalize.
+     * @return A new list with the canonical expressions.
+     * @since 3.0.0
+     */
+    public static @NotNull List<Expression> canonicalizeAll(final @NotNull List<Expression> expressions) {
+        requireNonNull(expressions, "expressions");
+        final List<Expression> canonical = new ArrayList<>(expressions.size());
+        for (final Expression expression : expressions) {
+            canonical.add(canonicalize(expression));
+        }
+        return canonical;
+    }
+
+    private static @Nullable List<Expression> rewriteList(final @NotNull List<Expression> expressions, final @NotNull Rewriter rewriter) {
+        // returns null if none of the expressions changed
+        List<Expression> result = null;
+        for (int i = 0, size = expressions.size(); i < size; i++) {
+            final Expression expression = expressions.get(i);
+            // call arguments may be null
+            final Expression rewritten = expression == null ? null : expression.visit(rewriter);
+            if (result == null && rewritten != expression) {
+                result = new ArrayList<>(expressions.subList(0, i));
+            }
+            if (result != null) {
+                result.add(rewritten);
+            }
+        }
+        return result;
+    }
+
+    private static final class Rewriter implements ExpressionVisitor<Expression> {
+        @Override
+        public @NotNull Expression visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
+            final Expression array = expression.array().visit(this);
+            final Expression index = expression.index().visit(this);
+            if (array == expression.array() && index == expression.index()) {
+                return expression;
+            }
+            return new ArrayAccessExpression(array, index);
+        }
+
+        @Override
+        public @NotNull Expression visitFloat(final @NotNull FloatExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visitString(final @NotNull StringExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visitIdentifier(final @NotNull IdentifierExpression expression) {
+            final String name = expression.name();
+            final String canonicalName = canonicalName(name);
+            //noinspection StringEquality
+            if (canonicalName == name) {
+                return expression;
+            }
+            return new IdentifierExpression(canonicalName);
+        }
+
+        @Override
+        public @NotNull Expression visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            final Expression condition = expression.condition().visit(this);
+            final Expression trueExpression = expression.trueExpression().visit(this);
+            final Expression falseExpression = expression.falseExpression().visit(this);
+            if (condition == expression.condition()
+                    && trueExpression == expression.trueExpression()
+                    && falseExpression == expression.falseExpression()) {
+                return expression;
+            }
+            return new TernaryConditionalExpression(condition, trueExpression, falseExpression);
+        }
+
+        @Override
+        public @NotNull Expression visitUnary(final @NotNull UnaryExpression expression) {
+            final Expression operand = expression.expression().visit(this);
+            if (operand == expression.expression()) {
+                return expression;
+            }
+            return new UnaryExpression(expression.op(), operand);
+        }
+
+        @Override
+        public @NotNull Expression visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            if (!expression.resolved()) {
+                // keep it lazy, its expressions are canonicalized when
+                // they are requested for the first time
+                return expression.lazyTransform(ExpressionCanonicalizer::canonicalizeAll);
+            }
+            final List<Expression> expressions = rewriteList(expression.expressions(), this);
+            if (expressions == null) {
+                return expression;
+            }
+            return new ExecutionScopeExpression(expressions);
+        }
+
+        @Override
+        public @NotNull Expression visitBinary(final @NotNull BinaryExpression expression) {
+            // long "a + b + c + ..." chains are rewritten without recursion
+            return LeftChains.rewrite(expression, this, UnaryOperator.identity());
+        }
+
+        @Override
+        public @NotNull Expression visitAccess(final @NotNull AccessExpression expression) {
+            final Expression object = expression.object().visit(this);
+            if (object == expression.object()) {
+                return expression;
+            }
+            return new AccessExpression(object, expression.property());
+        }
+
+        @Override
+        public @NotNull Expression visitCall(final @NotNull CallExpression expression) {
+            final Expression function = expression.function().visit(this);
+            final List<Expression> arguments = rewriteList(expression.arguments(), this);
+            if (function == expression.function() && arguments == null) {
+                return expression;
+            }
+            return new CallExpression(function, arguments == null ? expression.arguments() : arguments);
+        }
+
+        @Override
+        public @NotNull Expression visitLoop(final @NotNull LoopExpression expression) {
+            final Expression count = expression.count().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (count == expression.count() && body == expression.body()) {
+                return expression;
+            }
+            return new LoopExpression(count, body);
+        }
+
+        @Override
+        public @NotNull Expression visitForEach(final @NotNull ForEachExpression expression) {
+            final Expression variable = expression.variable().visit(this);
+            final Expression array = expression.array().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (variable == expression.variable()
+                    && array == expression.array()
+                    && body == expression.body()) {
+                return expression;
+            }
+            return new ForEachExpression(variable, array, body);
+        }
+
+        @Override
+        public @NotNull Expression visitStatement(final @NotNull StatementExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visit(final @NotNull Expression expression) {
+            // unknown expression type, keep it as is
+            return expression;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+import team.unnamed.mocha.util.SymbolTable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads and writes parsed expressions in a compact, versioned,
+ * binary format, which is faster to load than lexing and
+ * parsing the original source again.
+ *
+ * <pre>{@code
+ *     byte[] data = ExpressionCodec.toByteArray(MolangParser.parseAll(source));
+ *     // later...
+ *     List<Expression> expressions = ExpressionCodec.fromByteArray(data);
+ * }</pre>
+ *
+ * <p>The format is a serialized {@link FlatProgram}, after a header
+ * with a magic number and the format version. Data written by a
+ * newer, incompatible, version is rejected.</p>
+ *
+ * @since 3.0.0
+ */
+public final class ExpressionCodec {
+    /**
+     * The magic number at the start of the data, "MOCH"
+     * in ASCII.
+     *
+     * @since 3.0.0
+     */
+    public static final int MAGIC = 0x4D4F4348;
+
+    /**
+     * The format version written by this codec. Must be
+     * increased every time the format changes, including
+     * changes to the order of node kinds or operators.
+     *
+     * @since 3.0.0
+     */
+    public static final int VERSION = 2;
+
+    private static final FlatProgram.Kind[] KINDS = FlatProgram.Kind.values();
+    private static final int BINARY_OP_COUNT = BinaryExpression.Op.values().length;
+    private static final int UNARY_OP_COUNT = UnaryExpression.Op.values().length;
+    private static final int STATEMENT_OP_COUNT = StatementExpression.Op.values().length;
+
+    private ExpressionCodec() {
+    }
+
+    /**
+     * Encodes the given expressions to a new byte array.
+     *
+     * @param expressions The expressions.
+     * @return The encoded expressions
+     * @throws IllegalArgumentException If an expression type is not supported
+     * @since 3.0.0
+     */
+    public static byte @NotNull [] toByteArray(final @NotNull List<Expression> expressions) {
+        return toByteArray(FlatProgram.of(expressions));
+    }
+
+    /**
+     * Encodes the given program to a new byte array.
+     *
+     * @param program The program.
+     * @return The encoded program
+     * @since 3.0.0
+     */
+    public static byte @NotNull [] toByteArray(final @NotNull FlatProgram program) {
+        requireNonNull(program, "program");
+        final int nodeCount = program.kinds.length;
+        final Sink sink = new Sink(64 + nodeCount * 4);
+        sink.writeInt(MAGIC);
+        sink.writeVarInt(VERSION);
+
+        // constant pools first, so that they can be checked while reading nodes
+        sink.writeVarInt(program.floats.length);
+        for (final float value : program.floats) {
+            sink.writeInt(Float.floatToRawIntBits(value));
+        }
+        // strings used as identifier names are flagged, so that they can
+        // be resolved to symbols while reading, without creating them
+        final boolean[] symbols = new boolean[program.strings.length];
+        for (int node = 0; node < nodeCount; node++) {
+            final FlatProgram.Kind kind = KINDS[program.kinds[node]];
+            if (kind == FlatProgram.Kind.IDENTIFIER || kind == FlatProgram.Kind.ACCESS) {
+                symbols[program.operands[program.starts[node]]] = true;
+            }
+        }
+        sink.writeVarInt(program.strings.length);
+        for (int i = 0; i < symbols.length; i++) {
+            final byte[] bytes = program.strings[i].getBytes(StandardCharsets.UTF_8);
+            sink.writeVarInt(bytes.length << 1 | (symbols[i] ? 1 : 0));
+            sink.writeBytes(bytes);
+        }
+
+        sink.writeVarInt(nodeCount);
+        sink.writeVarInt(program.operands.length);
+        for (int node = 0; node < nodeCount; node++) {
+            final FlatProgram.Kind kind = KINDS[program.kinds[node]];
+            sink.writeByte(kind.ordinal());
+            if (hasOp(kind)) {
+                sink.writeByte(program.ops[node]);
+            }
+            final int start = program.starts[node];
+            final int end = program.starts[node + 1];
+            if (arity(kind) == -1) {
+                sink.writeVarInt(end - start);
+            }
+            int i = start;
+            if (kind.hasValue()) {
+                sink.writeVarInt(program.operands[i++]);
+            }
+            // children are always stored before their parents, so they are
+            // written as the (small) distance to their parent, 0 for null
+            for (; i < end; i++) {
+                final int child = program.operands[i];
+                sink.writeVarInt(child == -1 ? 0 : node - child);
+            }
+        }
+
+        sink.writeVarInt(program.roots.length);
+        for (final int root : program.roots) {
+            sink.writeVarInt(root + 1);
+        }
+        return sink.toByteArray();
+    }
+
+    /**
+     * Encodes the given expressions and writes them to the
+     * given output stream, which is not closed.
+     *
+     * @param expressions The expressions.
+     * @param output      The output stream.
+     * @throws IOException If writing fails
+     * @throws IllegalArgumentException If an expression type is not supported
+     * @since 3.0.0
+     */
+    public static void write(final @NotNull List<Expression> expressions, final @NotNull OutputStream output) throws IOException {
+        requireNonNull(output, "output");
+        output.write(toByteArray(expressions));
+    }
+
+    /**
+     * Decodes the expressions in the given byte array.
+     *
+     * @param data The encoded expressions.
+     * @return The decoded expressions, in a new mutable list
+     * @throws IOException If the data is malformed or its version is not supported
+     * @since 3.0.0
+     */
+    public static @NotNull List<Expression> fromByteArray(final byte @NotNull [] data) throws IOException {
+        return decode(data).toExpressions();
+    }
+
+    /**
+     * Decodes the program in the given byte array, without
+     * converting it to expressions.
+     *
+     * @param data The encoded program.
+     * @return The decoded program
+     * @throws IOException If the data is malformed or its version is not supported
+     * @since 3.0.0
+     */
+    public static @NotNull FlatProgram decode(final byte @NotNull [] data) throws IOException {
+        requireNonNull(data, "data");
+        try {
+            return decode(new Source(data));
+        } catch (final ArrayIndexOutOfBoundsException e) {
+            // single bytes are read without checking the remaining
+            // data, every other array access is checked
+            throw new IOException("Malformed encoded Molang program, unexpected end of data", e);
+        }
+    }
+
+    private static @NotNull FlatProgram decode(final @NotNull Source source) throws IOException {
+        if (source.readInt() != MAGIC) {
+            throw new IOException("Not an encoded Molang program, invalid magic number");
+        }
+        final int version = source.readVarInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported encoded Molang program version: " + version + " (supported: " + VERSION + ")");
+        }
+
+        final float[] floats = new float[source.readLength()];
+        for (int i = 0; i < floats.length; i++) {
+            floats[i] = Float.intBitsToFloat(source.readInt());
+        }
+        final String[] strings = new String[source.readLength()];
+        for (int i = 0; i < strings.length; i++) {
+            final int header = source.readVarInt();
+            strings[i] = source.readString(header >>> 1, (header & 1) != 0);
+        }
+
+        final int nodeCount = source.readLength();
+        final byte[] kinds = new byte[nodeCount];
+        final byte[] ops = new byte[nodeCount];
+        final int[] starts = new int[nodeCount + 1];
+        final int[] operands = new int[source.readLength()];
+        int operandCount = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            final int kindOrdinal = source.readByte();
+            if (kindOrdinal >= KINDS.length) {
+                throw malformed(node, "unknown kind " + kindOrdinal);
+            }
+            final FlatProgram.Kind kind = KINDS[kindOrdinal];
+            kinds[node] = (byte) kindOrdinal;
+            if (hasOp(kind)) {
+                final int op = source.readByte();
+                if (op >= opCount(kind)) {
+                    throw malformed(node, "invalid operator " + op);
+                }
+                ops[node] = (byte) op;
+            }
+
+            int count = arity(kind);
+            if (count == -1) {
+                count = source.readVarInt();
+                if (count < (kind == FlatProgram.Kind.CALL ? 1 : 0)) {
+                    throw malformed(node, "invalid operand count " + count);
+                }
+            }
+            if (count > operands.length - operandCount) {
+                throw malformed(node, "too many operands");
+            }
+
+            int remaining = count;
+            if (kind.hasValue()) {
+                final int value = source.readVarInt();
+                if (value < 0 || value >= (kind == FlatProgram.Kind.FLOAT ? floats.length : strings.length)) {
+                    throw malformed(node, "invalid constant " + value);
+                }
+                operands[operandCount++] = value;
+                remaining--;
+            }
+            // only call arguments and scope expressions may be null
+            final boolean nullable = kind == FlatProgram.Kind.EXECUTION_SCOPE;
+            for (; remaining > 0; remaining--) {
+                final int distance = source.readVarInt();
+                if (distance == 0 && (nullable || (kind == FlatProgram.Kind.CALL && remaining != count))) {
+                    operands[operandCount++] = -1;
+                } else if (distance <= 0 || distance > node) {
+                    throw malformed(node, "invalid child distance " + distance);
+                } else {
+                    operands[operandCount++] = node - distance;
+                }
+            }
+            starts[node + 1] = operandCount;
+        }
+        if (operandCount != operands.length) {
+            throw new IOException("Malformed encoded Molang program, expected " + operands.length + " operands, found " + operandCount);
+        }
+
+        final int[] roots = new int[source.readLength()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = source.readVarInt() - 1;
+            if (roots[i] < -1 || roots[i] >= nodeCount) {
+                throw new IOException("Malformed encoded Molang program, invalid root node: " + roots[i]);
+            }
+        }
+        if (source.remaining() != 0) {
+            throw new IOException("Malformed encoded Molang program, " + source.remaining() + " trailing bytes");
+        }
+
+        return new FlatProgram(kinds, ops, starts, operands, floats, strings, roots);
+    }
+
+    /**
+     * Reads all the remaining bytes of the given input stream, which
+     * is not closed, and decodes the expressions in them.
+     *
+     * @param input The input stream.
+     * @return The decoded expressions, in a new mutable list
+     * @throws IOException If reading fails, the data is malformed or its version is not supported
+     * @since 3.0.0
+     */
+    public static @NotNull List<Expression> read(final @NotNull InputStream input) throws IOException {
+        requireNonNull(input, "input");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return fromByteArray(bytes.toByteArray());
+    }
+
+    private static boolean hasOp(final @NotNull FlatProgram.Kind kind) {
+        return kind == FlatProgram.Kind.BINARY || kind == FlatProgram.Kind.UNARY || kind == FlatProgram.Kind.STATEMENT;
+    }
+
+    private static int opCount(final @NotNull FlatProgram.Kind kind) {
+        switch (kind) {
+            case BINARY:
+                return BINARY_OP_COUNT;
+            case UNARY:
+                return UNARY_OP_COUNT;
+            case STATEMENT:
+                return STATEMENT_OP_COUNT;
+            default:
+                return 0;
+        }
+    }
+
+    // the amount of operands (including the constant pool index),
+    // or -1 if it is variable, and written before the operands
+    private static int arity(final @NotNull FlatProgram.Kind kind) {
+        switch (kind) {
+            case FLOAT:
+            case STRING:
+            case IDENTIFIER:
+            case UNARY:
+                return 1;
+            case ACCESS:
+            case ARRAY_ACCESS:
+            case BINARY:
+            case LOOP:
+                return 2;
+            case TERNARY_CONDITIONAL:
+            case FOR_EACH:
+                return 3;
+            case STATEMENT:
+                return 0;
+            default:
+                return -1;
+        }
+    }
+
+    private static @NotNull IOException malformed(final int node, final @NotNull String reason) {
+        return new IOException("Malformed encoded Molang program, node " + node + " has " + reason);
+    }
+
+    private static final class Sink {
+        private byte[] buffer;
+        private int length;
+
+        Sink(final int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void ensure(final int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        void writeByte(final int value) {
+            ensure(1);
+            buffer[length++] = (byte) value;
+        }
+
+        void writeInt(final int value) {
+            ensure(4);
+            buffer[length++] = (byte) (value >>> 24);
+            buffer[length++] = (byte) (value >>> 16);
+            buffer[length++] = (byte) (value >>> 8);
+            buffer[length++] = (byte) value;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        void writeBytes(final byte @NotNull [] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        byte @NotNull [] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+
+    private static final class Source {
+        private final byte[] data;
+        private final ByteWindow window;
+        private int position;
+
+        Source(final byte @NotNull [] data) {
+            this.data = data;
+            this.window = new ByteWindow(ByteBuffer.wrap(data));
+        }
+
+        int remaining() {
+            return data.length - position;
+        }
+
+        private void require(final int count) throws IOException {
+            if (count > remaining()) {
+                throw new IOException("Malformed encoded Molang program, unexpected end of data");
+            }
+        }
+
+        int readInt() throws IOException {
+            require(4);
+            return (data[position++] & 0xFF) << 24
+                    | (data[position++] & 0xFF) << 16
+                    | (data[position++] & 0xFF) << 8
+                    | (data[position++] & 0xFF);
+        }
+
+        int readByte() {
+            return data[position++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                final byte b = data[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed encoded Molang program, variable-length integer is too long");
+        }
+
+        // reads a non-negative length, which can't be greater than
+        // the remaining bytes, so that it is safe to allocate
+        int readLength() throws IOException {
+            final int length = readVarInt();
+            if (length < 0 || length > remaining()) {
+                throw new IOException("Malformed encoded Molang program, invalid length: " + length);
+            }
+            return length;
+        }
+
+        @NotNull String readString(final int length, final boolean symbol) throws IOException {
+            if (length < 0) {
+                throw new IOException("Malformed encoded Molang program, invalid length: " + length);
+            }
+            require(length);
+            final String string;
+            if (symbol) {
+                // existing symbols are found without creating a string
+                window.set(position, position + length);
+                string = SymbolTable.symbol(window, 0, length);
+            } else {
+                string = new String(data, position, length, StandardCharsets.UTF_8);
+            }
+            position += length;
+            return string;
+        }
+    }
+}
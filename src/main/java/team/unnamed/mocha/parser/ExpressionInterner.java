@@ -0,0 +1,280 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.AccessExpression;
+import team.unnamed.mocha.parser.ast.ArrayAccessExpression;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+import team.unnamed.mocha.parser.ast.ForEachExpression;
+import team.unnamed.mocha.parser.ast.IdentifierExpression;
+import team.unnamed.mocha.parser.ast.LoopExpression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.StringExpression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hash-conses expressions: structurally equal expressions
+ * are replaced by a single canonical instance, so that equal
+ * sub-trees are shared by identity between all the interned
+ * expressions.
+ *
+ * <p>Canonical instances are weakly held, they are discarded
+ * once no interned expression references them.</p>
+ *
+ * <p>Statement expressions are never interned, since they
+ * are compared by identity.</p>
+ *
+ * <p>Lazy execution scopes that were not parsed yet are not
+ * parsed to be interned, they stay lazy and are compared by
+ * identity, so the expressions containing them are never
+ * shared.</p>
+ *
+ * <p>See {@link team.unnamed.mocha.MochaEngine#internExpressions}
+ * to intern every parsed expression.</p>
+ *
+ * @since 3.0.0
+ */
+public final class ExpressionInterner {
+    // guarded by "TABLE"
+    private static final Map<Expression, WeakReference<Expression>> TABLE = new WeakHashMap<>();
+    private static final Canonicalizer CANONICALIZER = new Canonicalizer();
+
+    private ExpressionInterner() {
+    }
+
+    /**
+     * Returns the canonical instance of the given expression,
+     * all of its sub-expressions are canonical too.
+     *
+     * <p>The given expression is not modified, but it may be
+     * returned if it becomes the canonical instance.</p>
+     *
+     * @param expression The expression to intern.
+     * @return The canonical expression, equal to the given one.
+     * @since 3.0.0
+     */
+    public static @NotNull Expression intern(final @NotNull Expression expression) {
+        requireNonNull(expression, "expression");
+        return expression.visit(CANONICALIZER);
+    }
+
+    /**
+     * Interns all the given expressions, see {@link #intern(Expression)}.
+     *
+     * @param expressions The expressions to intern.
+     * @return A new list with the canonical expressions.
+     * @since 3.0.0
+     */
+    public static @NotNull List<Expression> internAll(final @NotNull List<Expression> expressions) {
+        requireNonNull(expressions, "expressions");
+        final List<Expression> interned = new ArrayList<>(expressions.size());
+        for (final Expression expression : expressions) {
+            interned.add(intern(expression));
+        }
+        return interned;
+    }
+
+    /**
+     * Returns the amount of canonical expressions that are
+     * currently alive.
+     *
+     * @return The canonical expression count
+     * @since 3.0.0
+     */
+    public static int size() {
+        synchronized (TABLE) {
+            return TABLE.size();
+        }
+    }
+
+    private static @NotNull Expression canonical(final @NotNull Expression expression) {
+        synchronized (TABLE) {
+            final WeakReference<Expression> ref = TABLE.get(expression);
+            if (ref != null) {
+                final Expression existing = ref.get();
+                if (existing != null) {
+                    return existing;
+                }
+            }
+            TABLE.put(expression, new WeakReference<>(expression));
+            return expression;
+        }
+    }
+
+    private static @Nullable List<Expression> canonicalList(final @NotNull List<Expression> expressions, final @NotNull Canonicalizer canonicalizer) {
+        // returns null if all the expressions are already canonical
+        List<Expression> result = null;
+        for (int i = 0, size = expressions.size(); i < size; i++) {
+            final Expression expression = expressions.get(i);
+            // call arguments may be null
+            final Expression interned = expression == null ? null : expression.visit(canonicalizer);
+            if (result == null && interned != expression) {
+                result = new ArrayList<>(expressions.subList(0, i));
+            }
+            if (result != null) {
+                result.add(interned);
+            }
+        }
+        return result;
+    }
+
+    private static final class Canonicalizer implements ExpressionVisitor<Expression> {
+        @Override
+        public @NotNull Expression visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
+            final Expression array = expression.array().visit(this);
+            final Expression index = expression.index().visit(this);
+            if (array == expression.array() && index == expression.index()) {
+                return canonical(expression);
+            }
+            return canonical(new ArrayAccessExpression(array, index));
+        }
+
+        @Override
+        public @NotNull Expression visitFloat(final @NotNull FloatExpression expression) {
+            return canonical(expression);
+        }
+
+        @Override
+        public @NotNull Expression visitString(final @NotNull StringExpression expression) {
+            return canonical(expression);
+        }
+
+        @Override
+        public @NotNull Expression visitIdentifier(final @NotNull IdentifierExpression expression) {
+            return canonical(expression);
+        }
+
+        @Override
+        public @NotNull Expression visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            final Expression condition = expression.condition().visit(this);
+            final Expression trueExpression = expression.trueExpression().visit(this);
+            final Expression falseExpression = expression.falseExpression().visit(this);
+            if (condition == expression.condition()
+                    && trueExpression == expression.trueExpression()
+                    && falseExpression == expression.falseExpression()) {
+                return canonical(expression);
+            }
+            return canonical(new TernaryConditionalExpression(condition, trueExpression, falseExpression));
+        }
+
+        @Override
+        public @NotNull Expression visitUnary(final @NotNull UnaryExpression expression) {
+            final Expression operand = expression.expression().visit(this);
+            if (operand == expression.expression()) {
+                return canonical(expression);
+            }
+            return canonical(new UnaryExpression(expression.op(), operand));
+        }
+
+        @Override
+        public @NotNull Expression visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            if (!expression.resolved()) {
+                // keep it lazy, its expressions are interned when
+                // they are requested for the first time
+                return expression.lazyTransform(ExpressionInterner::internAll);
+            }
+            final List<Expression> expressions = canonicalList(expression.expressions(), this);
+            if (expressions == null) {
+                return canonical(expression);
+            }
+            return canonical(new ExecutionScopeExpression(expressions));
+        }
+
+        @Override
+        public @NotNull Expression visitBinary(final @NotNull BinaryExpression expression) {
+            // long "a + b + c + ..." chains are interned without recursion
+            return LeftChains.rewrite(expression, this, ExpressionInterner::canonical);
+        }
+
+        @Override
+        public @NotNull Expression visitAccess(final @NotNull AccessExpression expression) {
+            final Expression object = expression.object().visit(this);
+            if (object == expression.object()) {
+                return canonical(expression);
+            }
+            return canonical(new AccessExpression(object, expression.property()));
+        }
+
+        @Override
+        public @NotNull Expression visitCall(final @NotNull CallExpression expression) {
+            final Expression function = expression.function().visit(this);
+            final List<Expression> arguments = canonicalList(expression.arguments(), this);
+            if (function == expression.function() && arguments == null) {
+                return canonical(expression);
+            }
+            return canonical(new CallExpression(function, arguments == null ? expression.arguments() : arguments));
+        }
+
+        @Override
+        public @NotNull Expression visitLoop(final @NotNull LoopExpression expression) {
+            final Expression count = expression.count().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (count == expression.count() && body == expression.body()) {
+                return canonical(expression);
+            }
+            return canonical(new LoopExpression(count, body));
+        }
+
+        @Override
+        public @NotNull Expression visitForEach(final @NotNull ForEachExpression expression) {
+            final Expression variable = expression.variable().visit(this);
+            final Expression array = expression.array().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (variable == expression.variable()
+                    && array == expression.array()
+                    && body == expression.body()) {
+                return canonical(expression);
+            }
+            return canonical(new ForEachExpression(variable, array, body));
+        }
+
+        @Override
+        public @NotNull Expression visitStatement(final @NotNull StatementExpression expression) {
+            // compared by identity, interning would be useless
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visit(final @NotNull Expression expression) {
+            // unknown expression type, keep it as is
+            return expression;
+        }
+    }
+}
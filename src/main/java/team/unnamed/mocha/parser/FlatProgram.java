@@ -0,0 +1,829 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.AccessExpression;
+import team.unnamed.mocha.parser.ast.ArrayAccessExpression;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+import team.unnamed.mocha.parser.ast.ForEachExpression;
+import team.unnamed.mocha.parser.ast.IdentifierExpression;
+import team.unnamed.mocha.parser.ast.LoopExpression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.StringExpression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A compact, immutable, representation of a list of expressions,
+ * stored as primitive arrays instead of {@link Expression} trees.
+ *
+ * <p>Every node is identified by its index, children are always
+ * stored before their parents. Float values and strings are kept
+ * in constant pools shared by all the nodes, so every node only
+ * takes a few bytes.</p>
+ *
+ * <p>Programs are evaluated directly, without converting them back
+ * to expression trees, by {@link team.unnamed.mocha.MochaEngine#eval(FlatProgram)},
+ * so they can be retained instead of the trees. They can also be
+ * walked using {@link #kind(int)}, {@link #operand(int, int)} and
+ * the value accessors, or converted back to expression trees using
+ * {@link #toExpressions()}.</p>
+ *
+ * <pre>{@code
+ *     FlatProgram program = FlatProgram.of(MolangParser.parseAll("q.anim_time * 20"));
+ *     int root = program.root(0);
+ *     program.kind(root); // BINARY
+ *     program.binaryOp(root); // MUL
+ *     program.kind(program.operand(root, 1)); // FLOAT
+ * }</pre>
+ *
+ * @since 3.0.0
+ */
+public final class FlatProgram {
+    private static final Kind[] KINDS = Kind.values();
+    private static final BinaryExpression.Op[] BINARY_OPS = BinaryExpression.Op.values();
+    private static final UnaryExpression.Op[] UNARY_OPS = UnaryExpression.Op.values();
+    private static final StatementExpression.Op[] STATEMENT_OPS = StatementExpression.Op.values();
+
+    // package-private, read and written by ExpressionCodec
+
+    // node kind ordinals
+    final byte[] kinds;
+
+    // operator ordinals, for binary, unary and statement nodes
+    final byte[] ops;
+
+    // the operands of the node i are in the range [starts[i], starts[i + 1]),
+    // for nodes with a value, the first operand is the index in the float or
+    // string pool, the rest of operands are child node indexes (-1 for null)
+    final int[] starts;
+    final int[] operands;
+
+    final float[] floats;
+    final String[] strings;
+
+    final int[] roots;
+
+    FlatProgram(
+            final byte @NotNull [] kinds,
+            final byte @NotNull [] ops,
+            final int @NotNull [] starts,
+            final int @NotNull [] operands,
+            final float @NotNull [] floats,
+            final @NotNull String @NotNull [] strings,
+            final int @NotNull [] roots
+    ) {
+        this.kinds = kinds;
+        this.ops = ops;
+        this.starts = starts;
+        this.operands = operands;
+        this.floats = floats;
+        this.strings = strings;
+        this.roots = roots;
+    }
+
+    /**
+     * Converts the given expressions to a flat program.
+     *
+     * @param expressions The expressions to convert, may contain
+     *                    nulls, as returned by some parser methods.
+     * @return The flat program
+     * @throws IllegalArgumentException If an expression type is not supported
+     * @since 3.0.0
+     */
+    public static @NotNull FlatProgram of(final @NotNull List<Expression> expressions) {
+        requireNonNull(expressions, "expressions");
+        final Encoder encoder = new Encoder();
+        final int[] roots = new int[expressions.size()];
+        for (int i = 0; i < roots.length; i++) {
+            roots[i] = encoder.encode(expressions.get(i));
+        }
+        return encoder.build(roots);
+    }
+
+    /**
+     * Converts this program back to expression trees, which
+     * are equal to the expressions it was created from.
+     *
+     * @return The expressions, in a new mutable list
+     * @since 3.0.0
+     */
+    public @NotNull List<Expression> toExpressions() {
+        // children are always stored before their parents, so a
+        // single forward pass can build every node
+        final Expression[] built = new Expression[kinds.length];
+        for (int node = 0; node < kinds.length; node++) {
+            built[node] = build(node, built);
+        }
+        final List<Expression> expressions = new ArrayList<>(roots.length);
+        for (final int root : roots) {
+            expressions.add(root == -1 ? null : built[root]);
+        }
+        return expressions;
+    }
+
+    /**
+     * Converts the given node and its children back to
+     * an expression tree.
+     *
+     * @param node The node index
+     * @return The expression
+     * @since 3.0.0
+     */
+    public @NotNull Expression toExpression(final int node) {
+        checkNode(node);
+        final Expression[] built = new Expression[node + 1];
+        for (int i = 0; i <= node; i++) {
+            built[i] = build(i, built);
+        }
+        return built[node];
+    }
+
+    private @NotNull Expression build(final int node, final @Nullable Expression @NotNull [] built) {
+        final int start = starts[node];
+        switch (KINDS[kinds[node]]) {
+            case FLOAT:
+                return FloatExpression.of(floats[operands[start]]);
+            case STRING:
+                return new StringExpression(strings[operands[start]]);
+            case IDENTIFIER:
+                return new IdentifierExpression(strings[operands[start]]);
+            case ACCESS:
+                return new AccessExpression(built[operands[start + 1]], strings[operands[start]]);
+            case ARRAY_ACCESS:
+                return new ArrayAccessExpression(built[operands[start]], built[operands[start + 1]]);
+            case BINARY:
+                return new BinaryExpression(BINARY_OPS[ops[node]], built[operands[start]], built[operands[start + 1]]);
+            case UNARY:
+                return new UnaryExpression(UNARY_OPS[ops[node]], built[operands[start]]);
+            case TERNARY_CONDITIONAL:
+                return new TernaryConditionalExpression(built[operands[start]], built[operands[start + 1]], built[operands[start + 2]]);
+            case CALL:
+                return new CallExpression(built[operands[start]], children(start + 1, starts[node + 1], built));
+            case EXECUTION_SCOPE:
+                return new ExecutionScopeExpression(children(start, starts[node + 1], built));
+            case STATEMENT:
+                return new StatementExpression(STATEMENT_OPS[ops[node]]);
+            case LOOP:
+                return new LoopExpression(built[operands[start]], built[operands[start + 1]]);
+            case FOR_EACH:
+                return new ForEachExpression(built[operands[start]], built[operands[start + 1]], built[operands[start + 2]]);
+            default:
+                throw new IllegalStateException("Unknown node kind: " + kinds[node]);
+        }
+    }
+
+    private @NotNull List<Expression> children(final int from, final int to, final @Nullable Expression @NotNull [] built) {
+        final List<Expression> children = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            final int child = operands[i];
+            children.add(child == -1 ? null : built[child]);
+        }
+        return children;
+    }
+
+    /**
+     * Gets the amount of nodes in this program.
+     *
+     * @return The node count
+     * @since 3.0.0
+     */
+    public int nodeCount() {
+        return kinds.length;
+    }
+
+    /**
+     * Gets the amount of top-level expressions in this program.
+     *
+     * @return The root count
+     * @since 3.0.0
+     */
+    public int rootCount() {
+        return roots.length;
+    }
+
+    /**
+     * Gets the node index of the top-level expression at
+     * the given index.
+     *
+     * @param index The top-level expression index
+     * @return The node index, or -1 if the expression was null
+     * @since 3.0.0
+     */
+    public int root(final int index) {
+        if (index < 0 || index >= roots.length) {
+            throw new IndexOutOfBoundsException("Root index out of range: " + index);
+        }
+        return roots[index];
+    }
+
+    /**
+     * Gets the kind of the given node.
+     *
+     * @param node The node index
+     * @return The node kind
+     * @since 3.0.0
+     */
+    public @NotNull Kind kind(final int node) {
+        return KINDS[kinds[checkNode(node)]];
+    }
+
+    /**
+     * Gets the amount of child nodes of the given node.
+     *
+     * <p>Child nodes are, in order:</p>
+     * <ul>
+     *     <li>{@link Kind#ACCESS}: the object.</li>
+     *     <li>{@link Kind#ARRAY_ACCESS}: the array and the index.</li>
+     *     <li>{@link Kind#BINARY}: the left and right operands.</li>
+     *     <li>{@link Kind#UNARY}: the operand.</li>
+     *     <li>{@link Kind#TERNARY_CONDITIONAL}: the condition, the true
+     *     expression and the false expression.</li>
+     *     <li>{@link Kind#CALL}: the function and its arguments.</li>
+     *     <li>{@link Kind#EXECUTION_SCOPE}: the scope expressions.</li>
+     *     <li>{@link Kind#LOOP}: the count and the body.</li>
+     *     <li>{@link Kind#FOR_EACH}: the variable, the array and the body.</li>
+     *     <li>Any other kind doesn't have child nodes.</li>
+     * </ul>
+     *
+     * @param node The node index
+     * @return The amount of child nodes
+     * @since 3.0.0
+     */
+    public int operandCount(final int node) {
+        final int count = starts[node + 1] - starts[checkNode(node)];
+        return KINDS[kinds[node]].hasValue() ? count - 1 : count;
+    }
+
+    /**
+     * Gets the child node at the given index of the given
+     * node, see {@link #operandCount(int)}.
+     *
+     * @param node  The node index
+     * @param index The child index
+     * @return The child node index, or -1 for null call arguments
+     * @since 3.0.0
+     */
+    public int operand(final int node, final int index) {
+        if (index < 0 || index >= operandCount(node)) {
+            throw new IndexOutOfBoundsException("Operand index out of range: " + index);
+        }
+        final int start = starts[node];
+        return operands[KINDS[kinds[node]].hasValue() ? start + 1 + index : start + index];
+    }
+
+    /**
+     * Gets the value of the given {@link Kind#FLOAT} node.
+     *
+     * @param node The node index
+     * @return The float value
+     * @throws IllegalArgumentException If the node is not a float node
+     * @since 3.0.0
+     */
+    public float number(final int node) {
+        checkKind(node, Kind.FLOAT);
+        return floats[operands[starts[node]]];
+    }
+
+    /**
+     * Gets the string value of the given {@link Kind#STRING} node, the
+     * name of the given {@link Kind#IDENTIFIER} node, or the property
+     * name of the given {@link Kind#ACCESS} node.
+     *
+     * @param node The node index
+     * @return The string value
+     * @throws IllegalArgumentException If the node doesn't have a string value
+     * @since 3.0.0
+     */
+    public @NotNull String string(final int node) {
+        final Kind kind = kind(node);
+        if (kind != Kind.STRING && kind != Kind.IDENTIFIER && kind != Kind.ACCESS) {
+            throw new IllegalArgumentException("Node " + node + " doesn't have a string value, it is " + kind);
+        }
+        return strings[operands[starts[node]]];
+    }
+
+    /**
+     * Gets the operator of the given {@link Kind#BINARY} node.
+     *
+     * @param node The node index
+     * @return The binary operator
+     * @throws IllegalArgumentException If the node is not a binary node
+     * @since 3.0.0
+     */
+    public @NotNull BinaryExpression.Op binaryOp(final int node) {
+        checkKind(node, Kind.BINARY);
+        return BINARY_OPS[ops[node]];
+    }
+
+    /**
+     * Gets the operator of the given {@link Kind#UNARY} node.
+     *
+     * @param node The node index
+     * @return The unary operator
+     * @throws IllegalArgumentException If the node is not a unary node
+     * @since 3.0.0
+     */
+    public @NotNull UnaryExpression.Op unaryOp(final int node) {
+        checkKind(node, Kind.UNARY);
+        return UNARY_OPS[ops[node]];
+    }
+
+    /**
+     * Gets the operator of the given {@link Kind#STATEMENT} node.
+     *
+     * @param node The node index
+     * @return The statement operator
+     * @throws IllegalArgumentException If the node is not a statement node
+     * @since 3.0.0
+     */
+    public @NotNull StatementExpression.Op statementOp(final int node) {
+        checkKind(node, Kind.STATEMENT);
+        return STATEMENT_OPS[ops[node]];
+    }
+
+    private int checkNode(final int node) {
+        if (node < 0 || node >= kinds.length) {
+            throw new IndexOutOfBoundsException("Node index out of range: " + node);
+        }
+        return node;
+    }
+
+    private void checkKind(final int node, final @NotNull Kind expected) {
+        final Kind kind = kind(node);
+        if (kind != expected) {
+            throw new IllegalArgumentException("Node " + node + " is " + kind + ", not " + expected);
+        }
+    }
+
+    /**
+     * Enum of all the node kinds of a {@link FlatProgram}, one
+     * for every {@link Expression} implementation.
+     *
+     * @since 3.0.0
+     */
+    public enum Kind {
+        /**
+         * A {@link FloatExpression}
+         *
+         * @since 3.0.0
+         */
+        FLOAT(true),
+
+        /**
+         * A {@link StringExpression}
+         *
+         * @since 3.0.0
+         */
+        STRING(true),
+
+        /**
+         * An {@link IdentifierExpression}
+         *
+         * @since 3.0.0
+         */
+        IDENTIFIER(true),
+
+        /**
+         * An {@link AccessExpression}
+         *
+         * @since 3.0.0
+         */
+        ACCESS(true),
+
+        /**
+         * An {@link ArrayAccessExpression}
+         *
+         * @since 3.0.0
+         */
+        ARRAY_ACCESS(false),
+
+        /**
+         * A {@link BinaryExpression}
+         *
+         * @since 3.0.0
+         */
+        BINARY(false),
+
+        /**
+         * A {@link UnaryExpression}
+         *
+         * @since 3.0.0
+         */
+        UNARY(false),
+
+        /**
+         * A {@link TernaryConditionalExpression}
+         *
+         * @since 3.0.0
+         */
+        TERNARY_CONDITIONAL(false),
+
+        /**
+         * A {@link CallExpression}
+         *
+         * @since 3.0.0
+         */
+        CALL(false),
+
+        /**
+         * An {@link ExecutionScopeExpression}
+         *
+         * @since 3.0.0
+         */
+        EXECUTION_SCOPE(false),
+
+        /**
+         * A {@link StatementExpression}
+         *
+         * @since 3.0.0
+         */
+        STATEMENT(false),
+
+        /**
+         * A {@link LoopExpression}
+         *
+         * @since 3.0.0
+         */
+        LOOP(false),
+
+        /**
+         * A {@link ForEachExpression}
+         *
+         * @since 3.0.0
+         */
+        FOR_EACH(false);
+
+        private final boolean hasValue;
+
+        Kind(final boolean hasValue) {
+            this.hasValue = hasValue;
+        }
+
+        // whether the first operand is an index in a constant pool
+        boolean hasValue() {
+            return hasValue;
+        }
+    }
+
+    // gets the child expressions of an expression, in the same
+    // order they are stored as operands, nulls are kept
+    private static final class Children implements ExpressionVisitor<Expression[]> {
+        private static final Children INSTANCE = new Children();
+        private static final Expression[] NONE = new Expression[0];
+
+        @Override
+        public @Nullable Expression @NotNull [] visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
+            return new Expression[]{expression.array(), expression.index()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitFloat(final @NotNull FloatExpression expression) {
+            return NONE;
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitString(final @NotNull StringExpression expression) {
+            return NONE;
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitIdentifier(final @NotNull IdentifierExpression expression) {
+            return NONE;
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            return new Expression[]{expression.condition(), expression.trueExpression(), expression.falseExpression()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitUnary(final @NotNull UnaryExpression expression) {
+            return new Expression[]{expression.expression()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            return expression.expressions().toArray(NONE);
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitBinary(final @NotNull BinaryExpression expression) {
+            return new Expression[]{expression.left(), expression.right()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitAccess(final @NotNull AccessExpression expression) {
+            return new Expression[]{expression.object()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitCall(final @NotNull CallExpression expression) {
+            final List<Expression> arguments = expression.arguments();
+            final Expression[] children = new Expression[arguments.size() + 1];
+            children[0] = expression.function();
+            for (int i = 0; i < arguments.size(); i++) {
+                children[i + 1] = arguments.get(i);
+            }
+            return children;
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitLoop(final @NotNull LoopExpression expression) {
+            return new Expression[]{expression.count(), expression.body()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitForEach(final @NotNull ForEachExpression expression) {
+            return new Expression[]{expression.variable(), expression.array(), expression.body()};
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visitStatement(final @NotNull StatementExpression expression) {
+            return NONE;
+        }
+
+        @Override
+        public @Nullable Expression @NotNull [] visit(final @NotNull Expression expression) {
+            throw new IllegalArgumentException("Unsupported expression type: " + expression.getClass().getName());
+        }
+    }
+
+    //
+    // Expressions are encoded in post-order, using an explicit stack instead
+    // of recursion, since the parser accepts trees deeper than what the thread
+    // stack can recurse into, like long "a + b + c + ..." chains
+    //
+    private static final class Encoder implements ExpressionVisitor<Integer> {
+        private final Map<Integer, Integer> floatIndexes = new HashMap<>();
+        private final Map<String, Integer> stringIndexes = new HashMap<>();
+
+        private byte[] kinds = new byte[64];
+        private byte[] ops = new byte[64];
+        private int[] starts = new int[65];
+        private int[] operands = new int[128];
+        private float[] floats = new float[16];
+        private String[] strings = new String[16];
+
+        private int nodeCount;
+        private int operandCount;
+        private int floatCount;
+        private int stringCount;
+
+        // the pending expressions, their children and the index of
+        // the next child to encode
+        private Expression[] pending = new Expression[16];
+        private Expression[][] pendingChildren = new Expression[16][];
+        private int[] nextChild = new int[16];
+        private int pendingCount;
+
+        // the node indexes of the encoded children of the pending expressions
+        private int[] encoded = new int[16];
+        private int encodedCount;
+
+        // the index in "encoded" of the first child of the node being
+        // added, and its amount of children
+        private int childrenStart;
+        private int childCount;
+
+        int encode(final @Nullable Expression expression) {
+            if (expression == null) {
+                return -1;
+            }
+            push(expression);
+            while (pendingCount > 0) {
+                final int top = pendingCount - 1;
+                final Expression[] children = pendingChildren[top];
+                if (nextChild[top] < children.length) {
+                    final Expression child = children[nextChild[top]++];
+                    if (child == null) {
+                        // call arguments may be null
+                        encoded(-1);
+                    } else {
+                        push(child);
+                    }
+                } else {
+                    // all the children are encoded, add the node
+                    final Expression current = pending[top];
+                    pending[top] = null;
+                    pendingChildren[top] = null;
+                    pendingCount--;
+                    childCount = children.length;
+                    childrenStart = encodedCount - childCount;
+                    final int node = current.visit(this);
+                    encodedCount = childrenStart;
+                    encoded(node);
+                }
+            }
+            return encoded[--encodedCount];
+        }
+
+        private void push(final @NotNull Expression expression) {
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+                pendingChildren = Arrays.copyOf(pendingChildren, pendingCount * 2);
+                nextChild = Arrays.copyOf(nextChild, pendingCount * 2);
+            }
+            pending[pendingCount] = expression;
+            pendingChildren[pendingCount] = expression.visit(Children.INSTANCE);
+            nextChild[pendingCount] = 0;
+            pendingCount++;
+        }
+
+        private void encoded(final int node) {
+            if (encodedCount == encoded.length) {
+                encoded = Arrays.copyOf(encoded, encodedCount * 2);
+            }
+            encoded[encodedCount++] = node;
+        }
+
+        // the node index of the child at the given index of the node being added
+        private int child(final int index) {
+            return encoded[childrenStart + index];
+        }
+
+        @NotNull FlatProgram build(final int @NotNull [] roots) {
+            return new FlatProgram(
+                    Arrays.copyOf(kinds, nodeCount),
+                    Arrays.copyOf(ops, nodeCount),
+                    Arrays.copyOf(starts, nodeCount + 1),
+                    Arrays.copyOf(operands, operandCount),
+                    Arrays.copyOf(floats, floatCount),
+                    Arrays.copyOf(strings, stringCount),
+                    roots
+            );
+        }
+
+        // adds a node, its operands must be added right before
+        private int node(final @NotNull Kind kind, final int op, final int operandStart) {
+            if (nodeCount == kinds.length) {
+                kinds = Arrays.copyOf(kinds, nodeCount * 2);
+                ops = Arrays.copyOf(ops, nodeCount * 2);
+                starts = Arrays.copyOf(starts, nodeCount * 2 + 1);
+            }
+            kinds[nodeCount] = (byte) kind.ordinal();
+            ops[nodeCount] = (byte) op;
+            starts[nodeCount] = operandStart;
+            starts[nodeCount + 1] = operandCount;
+            return nodeCount++;
+        }
+
+        private void operand(final int operand) {
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, operandCount * 2);
+            }
+            operands[operandCount++] = operand;
+        }
+
+        private int floatIndex(final float value) {
+            final Integer index = floatIndexes.get(Float.floatToIntBits(value));
+            if (index != null) {
+                return index;
+            }
+            if (floatCount == floats.length) {
+                floats = Arrays.copyOf(floats, floatCount * 2);
+            }
+            floatIndexes.put(Float.floatToIntBits(value), floatCount);
+            floats[floatCount] = value;
+            return floatCount++;
+        }
+
+        private int stringIndex(final @NotNull String value) {
+            final Integer index = stringIndexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            if (stringCount == strings.length) {
+                strings = Arrays.copyOf(strings, stringCount * 2);
+            }
+            stringIndexes.put(value, stringCount);
+            strings[stringCount] = value;
+            return stringCount++;
+        }
+
+        // adds the children of the node being added as operands,
+        // so that they are contiguous, returns the start
+        private int children() {
+            final int start = operandCount;
+            for (int i = 0; i < childCount; i++) {
+                operand(child(i));
+            }
+            return start;
+        }
+
+        @Override
+        public @NotNull Integer visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
+            return node(Kind.ARRAY_ACCESS, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitFloat(final @NotNull FloatExpression expression) {
+            final int start = operandCount;
+            operand(floatIndex(expression.value()));
+            return node(Kind.FLOAT, 0, start);
+        }
+
+        @Override
+        public @NotNull Integer visitString(final @NotNull StringExpression expression) {
+            final int start = operandCount;
+            operand(stringIndex(expression.value()));
+            return node(Kind.STRING, 0, start);
+        }
+
+        @Override
+        public @NotNull Integer visitIdentifier(final @NotNull IdentifierExpression expression) {
+            final int start = operandCount;
+            operand(stringIndex(expression.name()));
+            return node(Kind.IDENTIFIER, 0, start);
+        }
+
+        @Override
+        public @NotNull Integer visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            return node(Kind.TERNARY_CONDITIONAL, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitUnary(final @NotNull UnaryExpression expression) {
+            return node(Kind.UNARY, expression.op().ordinal(), children());
+        }
+
+        @Override
+        public @NotNull Integer visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            return node(Kind.EXECUTION_SCOPE, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitBinary(final @NotNull BinaryExpression expression) {
+            return node(Kind.BINARY, expression.op().ordinal(), children());
+        }
+
+        @Override
+        public @NotNull Integer visitAccess(final @NotNull AccessExpression expression) {
+            final int start = operandCount;
+            operand(stringIndex(expression.property()));
+            operand(child(0));
+            return node(Kind.ACCESS, 0, start);
+        }
+
+        @Override
+        public @NotNull Integer visitCall(final @NotNull CallExpression expression) {
+            return node(Kind.CALL, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitLoop(final @NotNull LoopExpression expression) {
+            return node(Kind.LOOP, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitForEach(final @NotNull ForEachExpression expression) {
+            return node(Kind.FOR_EACH, 0, children());
+        }
+
+        @Override
+        public @NotNull Integer visitStatement(final @NotNull StatementExpression expression) {
+            return node(Kind.STATEMENT, expression.op().ordinal(), operandCount);
+        }
+
+        @Override
+        public @NotNull Integer visit(final @NotNull Expression expression) {
+            throw new IllegalArgumentException("Unsupported expression type: " + expression.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.lexer.MolangLexer;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streaming scanner for Molang expressions embedded in JSON
+ * documents, such as animation and entity files.
+ *
+ * <p>The JSON document is scanned from a byte stream, without
+ * creating an intermediate object model. String values are decoded
+ * to a reusable character buffer and lexed and parsed from it, and
+ * number values are directly converted to float expressions, without
+ * going through the lexer and parser.</p>
+ *
+ * <p>Every value is reported with its path, as a JSON pointer
+ * (RFC 6901), e.g. {@code /animations/animation.walk/bones/head/rotation/0}.
+ * Booleans and nulls are not reported.</p>
+ *
+ * <pre>{@code
+ *     JsonExpressionScanner.scan(input, new JsonExpressionScanner.Listener() {
+ *         @Override
+ *         public void expressions(String path, List<Expression> expressions) {
+ *             animations.put(path, expressions);
+ *         }
+ *     });
+ * }</pre>
+ *
+ * @since 3.0.0
+ */
+public final class JsonExpressionScanner {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+    private final Listener listener;
+
+    // the read bytes, and the range of bytes that weren't consumed yet
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    // amount of bytes read before the current buffer, for error messages
+    private long offset;
+
+    // the decoded characters of the last string, reused for every string
+    private char[] chars = new char[64];
+    private int length;
+
+    // the stack of containers, objects have a key, arrays an index
+    private boolean[] arrays = new boolean[8];
+    private String[] keys = new String[8];
+    private int[] indexes = new int[8];
+    private int depth;
+
+    private JsonExpressionScanner(final @NotNull InputStream input, final @NotNull Listener listener) {
+        this.input = input;
+        this.listener = listener;
+    }
+
+    /**
+     * Scans the JSON document from the given stream, reporting
+     * every string and number value to the given listener.
+     *
+     * <p>String values are only parsed if the listener accepts
+     * their path, see {@link Listener#molang(String)}. The stream
+     * is read until the end of the document, and it is not closed.</p>
+     *
+     * @param input    The UTF-8 encoded JSON document
+     * @param listener The listener
+     * @throws IOException If reading fails or the document is not valid JSON
+     * @since 3.0.0
+     */
+    public static void scan(final @NotNull InputStream input, final @NotNull Listener listener) throws IOException {
+        requireNonNull(input, "input");
+        requireNonNull(listener, "listener");
+        new JsonExpressionScanner(input, listener).scanDocument();
+    }
+
+    private void scanDocument() throws IOException {
+        // containers are tracked in the stack instead of recursing,
+        // so that deeply nested documents can't overflow the stack
+        boolean expectValue = true;
+        while (true) {
+            if (expectValue) {
+                final int c = nextNonWhitespace();
+                switch (c) {
+                    case '{':
+                        push(false);
+                        if (unreadUnless('}')) {
+                            readKey();
+                            continue;
+                        }
+                        depth--;
+                        break;
+                    case '[':
+                        push(true);
+                        if (unreadUnless(']')) {
+                            continue;
+                        }
+                        depth--;
+                        break;
+                    case '"':
+                        readString();
+                        reportString();
+                        break;
+                    case 't':
+                        expectLiteral("rue");
+                        break;
+                    case 'f':
+                        expectLiteral("alse");
+                        break;
+                    case 'n':
+                        expectLiteral("ull");
+                        break;
+                    default:
+                        if (c == '-' || (c >= '0' && c <= '9')) {
+                            position--;
+                            reportNumber(readNumber());
+                            break;
+                        }
+                        throw malformed(c, "a value");
+                }
+                expectValue = false;
+            }
+
+            // after a value
+            if (depth == 0) {
+                final int c = nextNonWhitespace();
+                if (c != -1) {
+                    throw malformed(c, "the end of the document");
+                }
+                return;
+            }
+            final int c = nextNonWhitespace();
+            final int top = depth - 1;
+            if (c == ',') {
+                if (arrays[top]) {
+                    indexes[top]++;
+                } else {
+                    readKey();
+                }
+                expectValue = true;
+            } else if (c == (arrays[top] ? ']' : '}')) {
+                depth--;
+            } else {
+                throw malformed(c, arrays[top] ? "',' or ']'" : "',' or '}'");
+            }
+        }
+    }
+
+    // reads the next non-whitespace byte and unreads it, unless
+    // it is the given closing byte, returns true if it was unread
+    private boolean unreadUnless(final char closing) throws IOException {
+        final int c = nextNonWhitespace();
+        if (c == closing) {
+            return false;
+        }
+        if (c != -1) {
+            position--;
+        }
+        return true;
+    }
+
+    private void push(final boolean array) {
+        if (depth == arrays.length) {
+            final int capacity = depth * 2;
+            arrays = Arrays.copyOf(arrays, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            indexes = Arrays.copyOf(indexes, capacity);
+        }
+        arrays[depth] = array;
+        keys[depth] = null;
+        indexes[depth] = 0;
+        depth++;
+    }
+
+    // reads an object key and its colon, the key is set to the current container
+    private void readKey() throws IOException {
+        int c = nextNonWhitespace();
+        if (c != '"') {
+            throw malformed(c, "a key");
+        }
+        readString();
+        keys[depth - 1] = new String(chars, 0, length);
+        c = nextNonWhitespace();
+        if (c != ':') {
+            throw malformed(c, "':'");
+        }
+    }
+
+    private void reportString() {
+        final String path = path();
+        if (!listener.molang(path)) {
+            return;
+        }
+        final List<Expression> expressions;
+        try {
+            // the parser doesn't keep references to the
+            // source, so the character buffer can be reused
+            expressions = MolangParser.parser(MolangLexer.lexer(chars, 0, length)).parseAll();
+        } catch (final ParseException e) {
+            listener.error(path, e);
+            return;
+        } catch (final IOException e) {
+            throw new IllegalStateException("Reading from a character array failed", e);
+        }
+        listener.expressions(path, expressions);
+    }
+
+    private void reportNumber(final float value) {
+        listener.expressions(path(), Collections.singletonList(FloatExpression.of(value)));
+    }
+
+    // the JSON pointer of the current value
+    private @NotNull String path() {
+        final StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            path.append('/');
+            if (arrays[i]) {
+                path.append(indexes[i]);
+            } else {
+                final String key = keys[i];
+                for (int j = 0; j < key.length(); j++) {
+                    final char c = key.charAt(j);
+                    if (c == '~') {
+                        path.append("~0");
+                    } else if (c == '/') {
+                        path.append("~1");
+                    } else {
+                        path.append(c);
+                    }
+                }
+            }
+        }
+        return path.toString();
+    }
+
+    // reads a string, after its opening quote, to the character buffer
+    private void readString() throws IOException {
+        length = 0;
+        while (true) {
+            final int b = read();
+            if (b == '"') {
+                return;
+            } else if (b == '\\') {
+                readEscape();
+            } else if (b == -1) {
+                throw malformed(b, "the end of the string");
+            } else if (b < 0x20) {
+                throw malformed(b, "a string character");
+            } else if (b < 0x80) {
+                append((char) b);
+            } else {
+                readMultiByte(b);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        final int b = read();
+        switch (b) {
+            case '"':
+            case '\\':
+            case '/':
+                append((char) b);
+                break;
+            case 'b':
+                append('\b');
+                break;
+            case 'f':
+                append('\f');
+                break;
+            case 'n':
+                append('\n');
+                break;
+            case 'r':
+                append('\r');
+                break;
+            case 't':
+                append('\t');
+                break;
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int hex = read();
+                    final int digit = Character.digit(hex, 16);
+                    if (digit == -1) {
+                        throw malformed(hex, "a hexadecimal digit");
+                    }
+                    value = value << 4 | digit;
+                }
+                append((char) value);
+                break;
+            }
+            default:
+                throw malformed(b, "an escape sequence");
+        }
+    }
+
+    // decodes a UTF-8 sequence, given its first byte
+    private void readMultiByte(final int first) throws IOException {
+        final int count;
+        int codePoint;
+        if ((first & 0xE0) == 0xC0) {
+            count = 1;
+            codePoint = first & 0x1F;
+        } else if ((first & 0xF0) == 0xE0) {
+            count = 2;
+            codePoint = first & 0x0F;
+        } else if ((first & 0xF8) == 0xF0) {
+            count = 3;
+            codePoint = first & 0x07;
+        } else {
+            throw malformed(first, "a UTF-8 sequence");
+        }
+        for (int i = 0; i < count; i++) {
+            final int b = read();
+            if ((b & 0xC0) != 0x80) {
+                throw malformed(b, "a UTF-8 continuation byte");
+            }
+            codePoint = codePoint << 6 | (b & 0x3F);
+        }
+        if (Character.isBmpCodePoint(codePoint)) {
+            append((char) codePoint);
+        } else {
+            append(Character.highSurrogate(codePoint));
+            append(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private void append(final char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    // reads a number, validating the RFC 8259 grammar:
+    // [ "-" ] ( "0" / [1-9] *DIGIT ) [ "." 1*DIGIT ] [ ( "e" / "E" ) [ "-" / "+" ] 1*DIGIT ]
+    private float readNumber() throws IOException {
+        length = 0;
+        if (peek() == '-') {
+            append((char) read());
+        }
+        final int first = read();
+        if (first == '0') {
+            // no leading zeros, "01" is two values
+            append('0');
+        } else if (first >= '1' && first <= '9') {
+            append((char) first);
+            readDigits();
+        } else {
+            throw malformed(first, "a digit");
+        }
+        if (peek() == '.') {
+            append((char) read());
+            readDigit();
+            readDigits();
+        }
+        int b = peek();
+        if (b == 'e' || b == 'E') {
+            append((char) read());
+            b = peek();
+            if (b == '-' || b == '+') {
+                append((char) read());
+            }
+            readDigit();
+            readDigits();
+        }
+        return Float.parseFloat(new String(chars, 0, length));
+    }
+
+    private void readDigit() throws IOException {
+        final int b = read();
+        if (b < '0' || b > '9') {
+            throw malformed(b, "a digit");
+        }
+        append((char) b);
+    }
+
+    private void readDigits() throws IOException {
+        int b;
+        while ((b = peek()) >= '0' && b <= '9') {
+            append((char) b);
+            position++;
+        }
+    }
+
+    private void expectLiteral(final @NotNull String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            final int b = read();
+            if (b != rest.charAt(i)) {
+                throw malformed(b, "'" + rest.charAt(i) + "'");
+            }
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            final int b = read();
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b;
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        // keep the last byte, so that it can be unread
+        // by decrementing the position
+        int kept = 0;
+        if (limit > 0) {
+            buffer[0] = buffer[limit - 1];
+            kept = 1;
+        }
+        offset += limit - kept;
+        final int read = input.read(buffer, kept, buffer.length - kept);
+        position = kept;
+        limit = kept + Math.max(read, 0);
+        return read > 0;
+    }
+
+    private @NotNull IOException malformed(final int found, final @NotNull String expected) {
+        final String description = found == -1 ? "the end of the document" : "'" + (char) found + "'";
+        return new IOException("Malformed JSON, expected " + expected + " but found " + description + " at byte " + (offset + position - 1));
+    }
+
+    /**
+     * Listener for the values found by a {@link JsonExpressionScanner}.
+     *
+     * @since 3.0.0
+     */
+    public interface Listener {
+        /**
+         * Determines whether the string value at the given path is a
+         * Molang source and must be parsed. By default, all of them are.
+         *
+         * @param path The value path, as a JSON pointer
+         * @return True to parse the value
+         * @since 3.0.0
+         */
+        default boolean molang(final @NotNull String path) {
+            return true;
+        }
+
+        /**
+         * Called for every parsed string value, and for every number
+         * value, as a single {@link FloatExpression}.
+         *
+         * @param path        The value path, as a JSON pointer
+         * @param expressions The parsed expressions
+         * @since 3.0.0
+         */
+        void expressions(final @NotNull String path, final @NotNull List<Expression> expressions);
+
+        /**
+         * Called for every string value that failed to parse. By
+         * default, errors are ignored.
+         *
+         * @param path      The value path, as a JSON pointer
+         * @param exception The parse exception
+         * @since 3.0.0
+         */
+        default void error(final @NotNull String path, final @NotNull ParseException exception) {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Rewrites left-leaning chains of binary expressions, like
+ * {@code a + b + c + ...}, iteratively, since the parser accepts
+ * chains deeper than what the thread stack can recurse into.
+ */
+final class LeftChains {
+    private LeftChains() {
+    }
+
+    /**
+     * Rewrites the given binary expression and the binary expressions
+     * at its left, from the innermost to the outermost one. Operands
+     * are rewritten using the given visitor, and binary expressions
+     * whose operands didn't change are reused.
+     *
+     * @param expression The outermost binary expression
+     * @param rewriter   The visitor used to rewrite the operands
+     * @param finisher   The function applied to every rewritten, or
+     *                   reused, binary expression of the chain
+     * @return The rewritten expression
+     */
+    static @NotNull Expression rewrite(
+            final @NotNull BinaryExpression expression,
+            final @NotNull ExpressionVisitor<Expression> rewriter,
+            final @NotNull UnaryOperator<Expression> finisher
+    ) {
+        // collect the chain, from the outermost to the innermost operator
+        BinaryExpression[] chain = new BinaryExpression[16];
+        int length = 0;
+        Expression left = expression;
+        while (left instanceof BinaryExpression) {
+            if (length == chain.length) {
+                chain = Arrays.copyOf(chain, length * 2);
+            }
+            chain[length++] = (BinaryExpression) left;
+            left = ((BinaryExpression) left).left();
+        }
+
+        // then rewrite it from the innermost operator, left to right
+        Expression rewritten = left.visit(rewriter);
+        for (int i = length - 1; i >= 0; i--) {
+            final BinaryExpression binary = chain[i];
+            final Expression right = binary.right().visit(rewriter);
+            rewritten = finisher.apply(rewritten == binary.left() && right == binary.right()
+                    ? binary
+                    : new BinaryExpression(binary.op(), rewritten, right));
+        }
+        return rewritten;
+    }
+}
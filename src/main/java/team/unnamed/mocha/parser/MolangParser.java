@@ -23,16 +23,19 @@
  */
 package team.unnamed.mocha.parser;
 
+import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.mocha.lexer.Cursor;
 import team.unnamed.mocha.lexer.MolangLexer;
 import team.unnamed.mocha.lexer.TokenKind;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
 import team.unnamed.mocha.parser.ast.Expression;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -71,6 +74,24 @@ public /* sealed */ interface MolangParser /* permits MolangParserImpl */ extend
         return lexer().cursor();
     }
 
+    /**
+     * Sets whether this parser should throw lightweight parse
+     * exceptions, see {@link ParseException#lightweight(String, int)}.
+     *
+     * <p>Lightweight exceptions have no stack trace and no
+     * {@link Cursor}, only the message and the error offset, making
+     * failures much cheaper, useful when loading many sources that
+     * may contain errors.</p>
+     *
+     * <p>By default this is false.</p>
+     *
+     * @param lightweightErrors Whether to throw lightweight exceptions
+     * @return This parser
+     * @since 3.0.0
+     */
+    @Contract("_ -> this")
+    @NotNull MolangParser lightweightErrors(final boolean lightweightErrors);
+
     /**
      * Returns the last emitted expression (the last expression value
      * returned when calling {@link MolangParser#next()})
@@ -165,6 +186,27 @@ public /* sealed */ interface MolangParser /* permits MolangParserImpl */ extend
         return parser(MolangLexer.lexer(string));
     }
 
+    /**
+     * Creates a new parser that will read the tokens from the
+     * given source, parsing the bodies of execution scopes lazily.
+     *
+     * <p>The bodies of execution scopes are only brace-matched when
+     * they are found, and they are parsed the first time their
+     * expressions are requested, see {@link ExecutionScopeExpression#lazy}.
+     * Syntax errors inside them are thrown at that moment, as
+     * {@link UncheckedIOException}s caused by {@link ParseException}s.</p>
+     *
+     * <p>The source is retained by the parsed expressions, it must
+     * not be modified after parsing.</p>
+     *
+     * @param source The source
+     * @return The created parser
+     * @since 3.0.0
+     */
+    static @NotNull MolangParser lazyParser(final @NotNull CharSequence source) {
+        return new MolangParserImpl(MolangLexer.lexer(source), source);
+    }
+
     /**
      * Parses all the expressions from the given reader.
      *
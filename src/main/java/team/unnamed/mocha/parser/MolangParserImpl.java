@@ -26,12 +26,13 @@ package team.unnamed.mocha.parser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.mocha.lexer.MolangLexer;
-import team.unnamed.mocha.lexer.Token;
 import team.unnamed.mocha.lexer.TokenKind;
 import team.unnamed.mocha.parser.ast.*;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -42,267 +43,624 @@ final class MolangParserImpl implements MolangParser {
 
     private final MolangLexer lexer;
 
+    // the source being lexed, only set if the bodies of
+    // execution scopes must be parsed lazily
+    private final @Nullable CharSequence source;
+
+    // whether to throw lightweight (stackless) parse exceptions
+    private boolean lightweightErrors;
+
     // the last parsed expression, returned by next()
     // we have to use Object and a flag since null is a valid value too
     private @Nullable Object current = UNSET_FLAG;
 
     MolangParserImpl(final @NotNull MolangLexer lexer) {
+        this(lexer, null);
+    }
+
+    MolangParserImpl(final @NotNull MolangLexer lexer, final @Nullable CharSequence source) {
         this.lexer = requireNonNull(lexer, "lexer");
+        this.source = source;
+    }
+
+    //
+    // Parsing is done by a state machine with an explicit stack
+    // instead of recursive calls, so that deeply nested inputs
+    // (long ternary chains, parentheses, unary operators...) can
+    // not overflow the thread stack.
+    //
+    // The machine implements three mutually recursive "functions":
+    //
+    // - "single": parses an expression that doesn't require a
+    //   left-hand expression, e.g. literals, statements, identifiers,
+    //   wrapped expressions and execution scopes
+    //
+    // - "compound expression": parses a single expression and then
+    //   keeps extending it with compound expressions while their
+    //   precedence is greater than the given one
+    //
+    // - "compound": extends a left-hand expression with a binary
+    //   operator, a ternary, a call or an array access
+    //
+    // A "call" pushes a frame with the state to resume at when the
+    // called function returns its value, calls that return without
+    // pushing any frame (e.g. literals) are resumed immediately.
+    //
+
+    // function entry points
+    private static final int ENTER_SINGLE = 0;
+    private static final int ENTER_COMPOUND_EXPRESSION = 1;
+    private static final int ENTER_COMPOUND = 2;
+    private static final int RETURN = 3;
+
+    // resume states, stored in frames
+    private static final int AFTER_PAREN = 0;
+    private static final int AFTER_SCOPE_ITEM = 1;
+    private static final int AFTER_NEGATE = 2;
+    private static final int AFTER_NOT = 3;
+    private static final int AFTER_RETURN = 4;
+    private static final int AFTER_COMPOUND = 5;
+    private static final int AFTER_INDEX = 6;
+    private static final int AFTER_ARGUMENT = 7;
+    private static final int AFTER_TRUE = 8;
+    private static final int AFTER_FALSE = 9;
+    private static final int AFTER_RIGHT = 10;
+
+    private static final BinaryExpression.Op[] BINARY_OPS = BinaryExpression.Op.values();
+
+    private static final int STATE_BITS = 4;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+
+    // the frame stack, as parallel arrays, reused by every parsed expression,
+    // the resume state and an int argument (a precedence or an operator)
+    // of a frame are packed in a single int
+    private int[] frameStates = new int[8];
+    private Expression[] frameExpressions = new Expression[8];
+    private Object[] frameObjects = new Object[8];
+    private int depth;
+    private int maxDepth;
+
+    // the "registers" of the machine
+    private int mode;
+    private int precedence;
+    private @Nullable Expression left;
+    private @Nullable Expression value;
+
+    private void push(final int state, final int argument, final @Nullable Expression expression, final @Nullable Object object) {
+        if (depth == frameStates.length) {
+            final int capacity = depth * 2;
+            frameStates = Arrays.copyOf(frameStates, capacity);
+            frameExpressions = Arrays.copyOf(frameExpressions, capacity);
+            frameObjects = Arrays.copyOf(frameObjects, capacity);
+        }
+        frameStates[depth] = argument << STATE_BITS | state;
+        frameExpressions[depth] = expression;
+        frameObjects[depth] = object;
+        if (++depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    //
+    // Parses an expression until it finds a token that can't
+    // continue it, stops at binary operators with a precedence
+    // lower than or equal to the given one
+    //
+    private @Nullable Expression parseCompoundExpression(final int lastPrecedence) throws IOException {
+        mode = ENTER_COMPOUND_EXPRESSION;
+        precedence = lastPrecedence;
+        try {
+            while (true) {
+                switch (mode) {
+                    case ENTER_COMPOUND_EXPRESSION:
+                        compoundExpression(precedence);
+                        break;
+                    case ENTER_SINGLE:
+                        single(0);
+                        break;
+                    case ENTER_COMPOUND:
+                        compound();
+                        break;
+                    case RETURN:
+                        if (depth == 0) {
+                            return value;
+                        }
+                        resume();
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown parser mode: " + mode);
+                }
+            }
+        } finally {
+            // popped frames aren't cleared, clear them here so that
+            // we don't keep references to the parsed expressions
+            Arrays.fill(frameExpressions, 0, maxDepth, null);
+            Arrays.fill(frameObjects, 0, maxDepth, null);
+            left = null;
+            value = null;
+            depth = 0;
+            maxDepth = 0;
+        }
     }
 
     //
-    // Parses a single expression.
-    // Single expressions don't require a left-hand expression
-    // to be parsed, e.g. literals, statements, identifiers,
-    // wrapped expressions and execution scopes
+    // Parses a single expression, "then" is zero if it is parsed as
+    // the operand of a unary operator, or the precedence of the compound
+    // expression that continues it plus one, it is stored in the pushed
+    // frame so that it continues after resuming it (see endSingle)
     //
-    static @Nullable Expression parseSingle(final @NotNull MolangLexer lexer) throws IOException {
-        Token token = lexer.current();
-        switch (token.kind()) {
-            case FLOAT:
-                lexer.next();
-                String tokenValue = token.value();
-                if (tokenValue == null) return null;
-                return FloatExpression.of(Float.parseFloat(tokenValue));
-            case STRING:
-                lexer.next();
-                String tvalue = token.value();
-                if (tvalue == null) return null;
-                return new StringExpression(tvalue);
+    private void single(final int then) throws IOException {
+        mode = RETURN;
+        TokenKind kind = lexer.currentKind();
+        switch (kind) {
+            case FLOAT: {
+                final float number = lexer.currentNumber();
+                lexer.advance();
+                value = FloatExpression.of(number);
+                break;
+            }
+            case STRING: {
+                final String string = lexer.currentValue();
+                lexer.advance();
+                value = string == null ? null : new StringExpression(string);
+                break;
+            }
             case TRUE:
-                lexer.next();
-                return FloatExpression.ONE;
+                lexer.advance();
+                value = FloatExpression.ONE;
+                break;
             case FALSE:
-                lexer.next();
-                return FloatExpression.ZERO;
+                lexer.advance();
+                value = FloatExpression.ZERO;
+                break;
             case LPAREN:
-                lexer.next();
                 // wrapped expression: (expression)
-                Expression expression = MolangParserImpl.parseCompoundExpression(lexer, 0);
-                token = lexer.current();
-                if (token.kind() != TokenKind.RPAREN) {
-                    throw new ParseException("Non closed expression", lexer.cursor());
-                }
-                lexer.next();
-                return expression;
+                lexer.advance();
+                push(AFTER_PAREN, then, null, null);
+                precedence = 0;
+                mode = ENTER_COMPOUND_EXPRESSION;
+                break;
             case LBRACE:
-                lexer.next();
-                List<Expression> expressions = new ArrayList<>();
-                while (true) {
-                    Expression compoundExpression = MolangParserImpl.parseCompoundExpression(lexer, 0);
-                    if (compoundExpression != null) expressions.add(compoundExpression);
-                    token = lexer.current();
-                    if (token.kind() == TokenKind.RBRACE) {
-                        lexer.next();
-                        break;
-                    } else if (token.kind() == TokenKind.EOF) {
-                        // end reached but not closed yet, huh?
-                        throw new ParseException("Found the end before the execution scope closing token", lexer.cursor());
-                    } else if (token.kind() == TokenKind.ERROR) {
-                        throw new ParseException("Found an invalid token (error): " + token.value(), lexer.cursor());
-                    } else {
-                        if (token.kind() != TokenKind.SEMICOLON) {
-                            throw new ParseException("Missing semicolon", lexer.cursor());
-                        }
-                        lexer.next();
-                    }
+                if (source != null) {
+                    value = lazyExecutionScope(source);
+                    break;
                 }
-                return new ExecutionScopeExpression(expressions);
+                lexer.advance();
+                push(AFTER_SCOPE_ITEM, then, null, new ArrayList<Expression>());
+                precedence = 0;
+                mode = ENTER_COMPOUND_EXPRESSION;
+                break;
             case BREAK:
-                lexer.next();
-                return new StatementExpression(StatementExpression.Op.BREAK);
+                lexer.advance();
+                value = new StatementExpression(StatementExpression.Op.BREAK);
+                break;
             case CONTINUE:
-                lexer.next();
-                return new StatementExpression(StatementExpression.Op.CONTINUE);
-            case IDENTIFIER:
-                String tovalue = token.value();
-                if (tovalue == null) return null;
-                Expression expr = new IdentifierExpression(tovalue);
-                token = lexer.next();
-                while (token.kind() == TokenKind.DOT) {
-                    token = lexer.next();
-
-                    if (token.kind() != TokenKind.IDENTIFIER) {
-                        throw new ParseException("Unexpected token, expected a valid field token", lexer.cursor());
+                lexer.advance();
+                value = new StatementExpression(StatementExpression.Op.CONTINUE);
+                break;
+            case IDENTIFIER: {
+                final String name = lexer.currentValue();
+                if (name == null) {
+                    value = null;
+                    break;
+                }
+                Expression expr = new IdentifierExpression(name);
+                kind = lexer.advance();
+                while (kind == TokenKind.DOT) {
+                    kind = lexer.advance();
+
+                    if (kind != TokenKind.IDENTIFIER) {
+                        throw error("Unexpected token, expected a valid field token");
                     }
 
-                    String tokvalue = token.value();
-                    if (tokvalue != null) {
-                        expr = new AccessExpression(expr, tokvalue);
+                    final String property = lexer.currentValue();
+                    if (property != null) {
+                        expr = new AccessExpression(expr, property);
                     }
-                    token = lexer.next();
+                    kind = lexer.advance();
                 }
-                return expr;
+                value = expr;
+                break;
+            }
             case SUB:
-                lexer.next();
-                final Expression operatedExpression = parseSingle(lexer);
-                if (operatedExpression instanceof FloatExpression) {
-                    // NEGATE(A) is just parsed as (-A)
-                    return FloatExpression.of(-((FloatExpression) operatedExpression).value());
-                } else if (operatedExpression != null) {
-                    return new UnaryExpression(UnaryExpression.Op.ARITHMETICAL_NEGATION, operatedExpression);
-                }
+                lexer.advance();
+                push(AFTER_NEGATE, then, null, null);
+                mode = ENTER_SINGLE;
+                break;
             case BANG:
-                lexer.next();
-                Expression unaryExpr = parseSingle(lexer);
-                if (unaryExpr == null) return null;
-                return new UnaryExpression(UnaryExpression.Op.LOGICAL_NEGATION, unaryExpr);
+                lexer.advance();
+                push(AFTER_NOT, then, null, null);
+                mode = ENTER_SINGLE;
+                break;
             case RETURN:
-                lexer.next();
-                Expression compoundExpression = MolangParserImpl.parseCompoundExpression(lexer, 0);
-                if (compoundExpression == null) return null;
-                return new UnaryExpression(UnaryExpression.Op.RETURN, compoundExpression);
+                lexer.advance();
+                push(AFTER_RETURN, then, null, null);
+                precedence = 0;
+                mode = ENTER_COMPOUND_EXPRESSION;
+                break;
+            default:
+                value = null;
+                break;
         }
-
-        return null;
     }
 
-    static @Nullable Expression parseCompoundExpression(
-            final @NotNull MolangLexer lexer,
-            final int lastPrecedence
-    ) throws IOException {
-        Expression expr = parseSingle(lexer);
-        if (expr == null) return null;
-        while (true) {
-            final Expression compoundExpr = parseCompound(lexer, expr, lastPrecedence);
-
-            // current token
-            final Token current = lexer.current();
-            if (current.kind() == TokenKind.EOF || current.kind() == TokenKind.SEMICOLON) {
-                // found eof, stop parsing, return expr
-                return compoundExpr;
-            } else if (compoundExpr == expr) {
-                return expr;
+    //
+    // Skips an execution scope, only matching its braces, and returns
+    // a lazy execution scope that parses it when its expressions are
+    // requested for the first time
+    //
+    private @NotNull Expression lazyExecutionScope(final @NotNull CharSequence source) throws IOException {
+        // index of the opening brace
+        final int start = lexer.currentEnd() - 1;
+        int braces = 1;
+        while (braces > 0) {
+            switch (lexer.advance()) {
+                case LBRACE:
+                    braces++;
+                    break;
+                case RBRACE:
+                    braces--;
+                    break;
+                case EOF:
+                    throw error("Found the end before the execution scope closing token");
+                case ERROR:
+                    throw error("Found an invalid token (error): " + lexer.currentValue());
+                default:
+                    break;
             }
-
-            expr = compoundExpr;
         }
+        // index after the closing brace
+        final int end = lexer.currentEnd();
+        lexer.advance();
+        final boolean lightweightErrors = this.lightweightErrors;
+        return ExecutionScopeExpression.lazy(source, start, end, () -> parseExecutionScope(source, start, end, lightweightErrors));
     }
 
-    static @Nullable Expression parseCompound(
-            final @NotNull MolangLexer lexer,
-            final @Nullable Expression left,
-            final int lastPrecedence
-    ) throws IOException {
-        Token current = lexer.current();
+    private static @NotNull List<Expression> parseExecutionScope(final @NotNull CharSequence source, final int start, final int end, final boolean lightweightErrors) {
+        // nested execution scopes are lazy too
+        final MolangParserImpl parser = new MolangParserImpl(MolangLexer.lexer(source, start, end - start), source);
+        parser.lightweightErrors = lightweightErrors;
+        try {
+            // skip the opening brace, and then parse the scope
+            // items as if it was found by single()
+            parser.lexer.advance();
+            parser.lexer.advance();
+            parser.push(AFTER_SCOPE_ITEM, 0, null, new ArrayList<Expression>());
+            final Expression scope = parser.parseCompoundExpression(0);
+            //noinspection DataFlowIssue
+            return ((ExecutionScopeExpression) scope).expressions();
+        } catch (final IOException e) {
+            // can only be a parse exception, the source is already in memory
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        switch (current.kind()) {
+    private void compound() throws IOException {
+        // the frame of the compound expression that called
+        // this is below, "precedence" is its precedence
+        mode = RETURN;
+        TokenKind current = lexer.currentKind();
+        switch (current) {
             case RPAREN:
             case EOF:
-                return left;
+                value = left;
+                break;
             case LBRACKET: { // ARRAY ACCESS EXPRESSION: "left["
-                current = lexer.next();
-                if (current.kind() == TokenKind.RBRACKET) {
-                    throw new ParseException("Expected a expression, got RBRACKET", lexer.cursor());
-                } else if (current.kind() == TokenKind.EOF) {
-                    throw new ParseException("Found EOF before closing RBRACKET", lexer.cursor());
+                current = lexer.advance();
+                if (current == TokenKind.RBRACKET) {
+                    throw error("Expected a expression, got RBRACKET");
+                } else if (current == TokenKind.EOF) {
+                    throw error("Found EOF before closing RBRACKET");
                 }
-
-                final Expression index = parseCompoundExpression(lexer, 0);
-
-                current = lexer.current();
-                if (current.kind() == TokenKind.EOF) {
-                    throw new ParseException("Found EOF before closing RBRACKET", lexer.cursor());
-                } else if (current.kind() != TokenKind.RBRACKET) {
-                    throw new ParseException("Expected a closing RBRACKET, found " + current, lexer.cursor());
-                }
-
-                lexer.next();
-                if (index == null || left == null) return null;
-                return new ArrayAccessExpression(left, index);
+                call(AFTER_INDEX, 0, left, null, 0);
+                break;
             }
             case LPAREN: { // CALL EXPRESSION: "left("
-                current = lexer.next();
+                current = lexer.advance();
                 final List<Expression> arguments = new ArrayList<>();
 
                 // start reading the arguments
-                if (current.kind() == TokenKind.EOF) {
-                    throw new ParseException("Found EOF before closing RPAREN", lexer.cursor());
-                } else if (current.kind() == TokenKind.RPAREN) {
+                if (current == TokenKind.EOF) {
+                    throw error("Found EOF before closing RPAREN");
+                } else if (current == TokenKind.RPAREN) {
                     // immediately closed
-                    lexer.next();
+                    lexer.advance();
+                    value = left == null ? null : callExpression(left, arguments);
                 } else {
-                    while (true) {
-                        arguments.add(MolangParserImpl.parseCompoundExpression(lexer, 0));
-                        // update current character
-                        current = lexer.current();
-                        if (current.kind() == TokenKind.EOF) {
-                            throw new ParseException("Found EOF before closing RPAREN", lexer.cursor());
-                        } else if (current.kind() == TokenKind.RPAREN) {
-                            lexer.next();
-                            break;
-                        } else {
-                            if (current.kind() == TokenKind.ERROR) {
-                                throw new ParseException("Found error token: " + current.value(), lexer.cursor());
-                            } else if (current.kind() != TokenKind.COMMA) {
-                                throw new ParseException("Expected a comma, got " + current.kind(), lexer.cursor());
-                            }
-                            lexer.next();
-                        }
-                    }
+                    call(AFTER_ARGUMENT, 0, left, arguments, 0);
                 }
-
-                if (left == null) return null;
-                return new CallExpression(left, arguments);
+                break;
             }
             case QUES: {
                 // ternary precedence is the same as the conditional operator
-                final int ternaryPrecedence = BinaryExpression.Op.CONDITIONAL.precedence();
-                if (lastPrecedence >= ternaryPrecedence) {
-                    return left;
+                if (precedence >= BinaryExpression.Op.CONDITIONAL.precedence()) {
+                    value = left;
+                    break;
                 }
+                lexer.advance();
+                call(AFTER_TRUE, 0, left, null, 0);
+                break;
+            }
+            default: {
+                // check for binary expressions
+                final BinaryExpression.Op op = binaryOp(current);
+                if (op == null || precedence >= op.precedence()) {
+                    value = left;
+                    break;
+                }
+                lexer.advance();
+                final Expression leftOperand = left;
+                push(AFTER_RIGHT, op.ordinal(), leftOperand, null);
+                compoundExpression(op.precedence());
+                if (mode == RETURN) {
+                    // same as resuming AFTER_RIGHT, but faster for
+                    // the most common case
+                    depth--;
+                    value = value == null || leftOperand == null ? null : new BinaryExpression(op, leftOperand, value);
+                }
+                break;
+            }
+        }
+    }
 
-                lexer.next();
-                final Expression trueValue = MolangParserImpl.parseCompoundExpression(lexer, 0);
-
-                if (lexer.current().kind() == TokenKind.COLON) {
+    @SuppressWarnings("unchecked")
+    private void resume() throws IOException {
+        final int top = --depth;
+        final int state = frameStates[top] & STATE_MASK;
+        final int argument = frameStates[top] >>> STATE_BITS;
+        final Expression first = frameExpressions[top];
+        final Object object = frameObjects[top];
+
+        switch (state) {
+            case AFTER_PAREN:
+                if (lexer.currentKind() != TokenKind.RPAREN) {
+                    throw error("Non closed expression");
+                }
+                lexer.advance();
+                endSingle(argument);
+                break;
+            case AFTER_SCOPE_ITEM: {
+                final List<Expression> expressions = (List<Expression>) object;
+                if (value != null) expressions.add(value);
+                final TokenKind kind = lexer.currentKind();
+                if (kind == TokenKind.RBRACE) {
+                    lexer.advance();
+                    value = new ExecutionScopeExpression(expressions);
+                    endSingle(argument);
+                } else if (kind == TokenKind.EOF) {
+                    // end reached but not closed yet, huh?
+                    throw error("Found the end before the execution scope closing token");
+                } else if (kind == TokenKind.ERROR) {
+                    throw error("Found an invalid token (error): " + lexer.currentValue());
+                } else {
+                    if (kind != TokenKind.SEMICOLON) {
+                        throw error("Missing semicolon");
+                    }
+                    lexer.advance();
+                    push(AFTER_SCOPE_ITEM, argument, null, expressions);
+                    precedence = 0;
+                    mode = ENTER_COMPOUND_EXPRESSION;
+                }
+                break;
+            }
+            case AFTER_NEGATE:
+                if (value instanceof FloatExpression) {
+                    // NEGATE(A) is just parsed as (-A)
+                    value = FloatExpression.of(-((FloatExpression) value).value());
+                } else if (value != null) {
+                    value = new UnaryExpression(UnaryExpression.Op.ARITHMETICAL_NEGATION, value);
+                }
+                if (value != null) {
+                    endSingle(argument);
+                } else {
+                    // no operand, continues like a logical negation
+                    lexer.advance();
+                    push(AFTER_NOT, argument, null, null);
+                    mode = ENTER_SINGLE;
+                }
+                break;
+            case AFTER_NOT:
+                if (value != null) {
+                    value = new UnaryExpression(UnaryExpression.Op.LOGICAL_NEGATION, value);
+                }
+                endSingle(argument);
+                break;
+            case AFTER_RETURN:
+                if (value != null) {
+                    value = new UnaryExpression(UnaryExpression.Op.RETURN, value);
+                }
+                endSingle(argument);
+                break;
+            case AFTER_COMPOUND: {
+                final Expression expr = first;
+                final TokenKind current = lexer.currentKind();
+                if (current == TokenKind.EOF || current == TokenKind.SEMICOLON) {
+                    // found eof, stop parsing, return the compound expression
+                    break;
+                } else if (value == expr || !extensible(argument)) {
+                    break;
+                }
+                // keep extending the compound expression, reusing the frame
+                frameExpressions[top] = value;
+                depth++;
+                left = value;
+                precedence = argument;
+                mode = ENTER_COMPOUND;
+                break;
+            }
+            case AFTER_INDEX: {
+                final TokenKind current = lexer.currentKind();
+                if (current == TokenKind.EOF) {
+                    throw error("Found EOF before closing RBRACKET");
+                } else if (current != TokenKind.RBRACKET) {
+                    throw error("Expected a closing RBRACKET, found " + lexer.current());
+                }
+                lexer.advance();
+                value = value == null || first == null ? null : new ArrayAccessExpression(first, value);
+                break;
+            }
+            case AFTER_ARGUMENT: {
+                final List<Expression> arguments = (List<Expression>) object;
+                arguments.add(value);
+                // update current character
+                final TokenKind current = lexer.currentKind();
+                if (current == TokenKind.EOF) {
+                    throw error("Found EOF before closing RPAREN");
+                } else if (current == TokenKind.RPAREN) {
+                    lexer.advance();
+                    value = first == null ? null : callExpression(first, arguments);
+                } else {
+                    if (current == TokenKind.ERROR) {
+                        throw error("Found error token: " + lexer.currentValue());
+                    } else if (current != TokenKind.COMMA) {
+                        throw error("Expected a comma, got " + current);
+                    }
+                    lexer.advance();
+                    push(AFTER_ARGUMENT, 0, first, arguments);
+                    precedence = 0;
+                    mode = ENTER_COMPOUND_EXPRESSION;
+                }
+                break;
+            }
+            case AFTER_TRUE:
+                if (lexer.currentKind() == TokenKind.COLON) {
                     // then it's a ternary expression, since there is a ':', indicating the next expression
-                    lexer.next();
-                    if (trueValue == null) return null;
-                    Expression compoundExpression = MolangParserImpl.parseCompoundExpression(lexer, ternaryPrecedence);
-                    if (compoundExpression == null || left == null) return null;
-                    return new TernaryConditionalExpression(left, trueValue, compoundExpression);
+                    lexer.advance();
+                    if (value != null) {
+                        push(AFTER_FALSE, 0, first, value);
+                        precedence = BinaryExpression.Op.CONDITIONAL.precedence();
+                        mode = ENTER_COMPOUND_EXPRESSION;
+                    }
                 } else {
-                    if (trueValue == null || left == null) return null;
-                    return new BinaryExpression(BinaryExpression.Op.CONDITIONAL, left, trueValue);
+                    value = value == null || first == null ? null : new BinaryExpression(BinaryExpression.Op.CONDITIONAL, first, value);
                 }
+                break;
+            case AFTER_FALSE:
+                value = value == null || first == null ? null : new TernaryConditionalExpression(first, (Expression) object, value);
+                break;
+            case AFTER_RIGHT:
+                value = value == null || first == null ? null : new BinaryExpression(BINARY_OPS[argument], first, value);
+                break;
+            default:
+                throw new IllegalStateException("Unknown parser state: " + state);
+        }
+    }
+
+    private void compoundExpression(final int lastPrecedence) throws IOException {
+        single(lastPrecedence + 1);
+        if (mode == RETURN) {
+            // parsed without pushing frames
+            afterSingle(lastPrecedence);
+        }
+    }
+
+    //
+    // Calls "compound expression" with the given resume frame, if it
+    // returns without pushing any frame, the frame is resumed immediately
+    // instead of returning to the main loop. Must not be used when
+    // resuming, since that would nest resume calls
+    //
+    private void call(
+            final int state,
+            final int argument,
+            final @Nullable Expression expression,
+            final @Nullable Object object,
+            final int lastPrecedence
+    ) throws IOException {
+        push(state, argument, expression, object);
+        compoundExpression(lastPrecedence);
+        if (mode == RETURN) {
+            resume();
+        }
+    }
+
+    private void endSingle(final int then) {
+        if (then != 0) {
+            afterSingle(then - 1);
+        }
+    }
+
+    private void afterSingle(final int lastPrecedence) {
+        if (value != null && extensible(lastPrecedence)) {
+            // extend the single expression
+            push(AFTER_COMPOUND, lastPrecedence, value, null);
+            left = value;
+            precedence = lastPrecedence;
+            mode = ENTER_COMPOUND;
+        }
+    }
+
+    //
+    // Determines whether the current token extends the
+    // expression being parsed, so that frames aren't pushed
+    // for expressions that would be immediately returned
+    //
+    private boolean extensible(final int lastPrecedence) {
+        final TokenKind current = lexer.currentKind();
+        switch (current) {
+            case LBRACKET:
+            case LPAREN:
+                return true;
+            case QUES:
+                return lastPrecedence < BinaryExpression.Op.CONDITIONAL.precedence();
+            default: {
+                final BinaryExpression.Op op = binaryOp(current);
+                return op != null && lastPrecedence < op.precedence();
             }
         }
+    }
 
-        // check for binary expressions
-        final BinaryExpression.Op op;
+    private static @NotNull Expression callExpression(final @NotNull Expression function, final @NotNull List<Expression> arguments) {
+        // built-in functions with their own nodes, so that they are resolved
+        // here and not on every evaluation, calls with an unexpected amount
+        // of arguments are kept as regular calls
+        if (function instanceof IdentifierExpression && !arguments.contains(null)) {
+            final String name = ((IdentifierExpression) function).name();
+            if (arguments.size() == 2 && name.equals("loop")) {
+                return new LoopExpression(arguments.get(0), arguments.get(1));
+            } else if (arguments.size() == 3 && name.equals("for_each")) {
+                return new ForEachExpression(arguments.get(0), arguments.get(1), arguments.get(2));
+            }
+        }
+        return new CallExpression(function, arguments);
+    }
 
+    private static @Nullable BinaryExpression.Op binaryOp(final @NotNull TokenKind kind) {
         // @formatter:off
         // I wish this was java 17
-        switch (current.kind()) {
-            case AMPAMP: op = BinaryExpression.Op.AND; break;
-            case BARBAR: op = BinaryExpression.Op.OR; break;
-            case LT: op = BinaryExpression.Op.LT; break;
-            case LTE: op = BinaryExpression.Op.LTE; break;
-            case GT: op = BinaryExpression.Op.GT; break;
-            case GTE: op = BinaryExpression.Op.GTE; break;
-            case PLUS: op = BinaryExpression.Op.ADD; break;
-            case SUB: op = BinaryExpression.Op.SUB; break;
-            case STAR: op = BinaryExpression.Op.MUL; break;
-            case SLASH: op = BinaryExpression.Op.DIV; break;
-            case QUESQUES: op = BinaryExpression.Op.NULL_COALESCE; break;
-            case EQ: op = BinaryExpression.Op.ASSIGN; break;
-            case EQEQ: op = BinaryExpression.Op.EQ; break;
-            case BANGEQ: op = BinaryExpression.Op.NEQ; break;
-            case ARROW: op = BinaryExpression.Op.ARROW; break;
-            default: return left;
+        switch (kind) {
+            case AMPAMP: return BinaryExpression.Op.AND;
+            case BARBAR: return BinaryExpression.Op.OR;
+            case LT: return BinaryExpression.Op.LT;
+            case LTE: return BinaryExpression.Op.LTE;
+            case GT: return BinaryExpression.Op.GT;
+            case GTE: return BinaryExpression.Op.GTE;
+            case PLUS: return BinaryExpression.Op.ADD;
+            case SUB: return BinaryExpression.Op.SUB;
+            case STAR: return BinaryExpression.Op.MUL;
+            case SLASH: return BinaryExpression.Op.DIV;
+            case QUESQUES: return BinaryExpression.Op.NULL_COALESCE;
+            case EQ: return BinaryExpression.Op.ASSIGN;
+            case EQEQ: return BinaryExpression.Op.EQ;
+            case BANGEQ: return BinaryExpression.Op.NEQ;
+            case ARROW: return BinaryExpression.Op.ARROW;
+            default: return null;
         }
         // @formatter:on
+    }
 
-        final int precedence = op.precedence();
-        if (lastPrecedence >= precedence) {
-            return left;
+    private @NotNull ParseException error(final @NotNull String message) {
+        if (lightweightErrors) {
+            // don't compute the line and column nor the stack trace
+            return ParseException.lightweight(message, lexer.position());
         }
+        return new ParseException(message, lexer.cursor());
+    }
 
-        lexer.next();
-        Expression compoundExpression = MolangParserImpl.parseCompoundExpression(lexer, precedence);
-        if (compoundExpression == null || left == null) return null;
-        return new BinaryExpression(op, left, compoundExpression);
+    @Override
+    public @NotNull MolangParser lightweightErrors(final boolean lightweightErrors) {
+        this.lightweightErrors = lightweightErrors;
+        return this;
     }
 
     @Override
@@ -330,24 +688,24 @@ final class MolangParserImpl implements MolangParser {
     // a semicolon, or an end-of-file token.
     //
     private @Nullable Expression next0() throws IOException {
-        Token token = lexer.next();
+        TokenKind kind = lexer.advance();
 
-        if (token.kind() == TokenKind.EOF) {
+        if (kind == TokenKind.EOF) {
             // reached end-of-file!
             return null;
         }
 
-        if (token.kind() == TokenKind.ERROR) {
+        if (kind == TokenKind.ERROR) {
             // tokenization error!
-            throw new ParseException("Found an invalid token (error): " + token.value(), cursor());
+            throw error("Found an invalid token (error): " + lexer.currentValue());
         }
 
-        final Expression expression = parseCompoundExpression(lexer, 0);
+        final Expression expression = parseCompoundExpression(0);
 
         // check current token, should be a semicolon or an eof
-        token = lexer.current();
-        if (token.kind() != TokenKind.EOF && token.kind() != TokenKind.SEMICOLON) {
-            throw new ParseException("Expected a semicolon, but was " + token, lexer.cursor());
+        kind = lexer.currentKind();
+        if (kind != TokenKind.EOF && kind != TokenKind.SEMICOLON) {
+            throw error("Expected a semicolon, but was " + lexer.current());
         }
 
         return expression;
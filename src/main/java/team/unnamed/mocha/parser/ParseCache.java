@@ -0,0 +1,344 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded, least-recently-used, cache of parsed
+ * expressions, keyed by their source.
+ *
+ * <p>Useful when the same sources are parsed and evaluated
+ * many times, see {@link team.unnamed.mocha.MochaEngine#parseCache}.
+ * A single cache can be safely shared by many engines, since
+ * cached expression lists are unmodifiable and they are cached
+ * by the {@link Option options} they were parsed with.</p>
+ *
+ * <p>Sources that fail to parse are not cached.</p>
+ *
+ * @since 3.0.0
+ */
+public final class ParseCache {
+    // the amount of variants that can be cached for every
+    // source, one for every combination of options
+    private static final int VARIANT_COUNT = 1 << Option.values().length;
+
+    // the options that change how the source is parsed
+    private static final int PARSE_OPTIONS = Option.LAZY_EXECUTION_SCOPES.bit() | Option.LIGHTWEIGHT_ERRORS.bit();
+
+    private final int maximumSize;
+    private final Map<String, Entry> entries;
+
+    // guarded by "this"
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private ParseCache(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        // access-ordered, so that the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                if (size() > ParseCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a new parse cache with the given maximum
+     * amount of entries.
+     *
+     * @param maximumSize The maximum amount of cached sources
+     * @return The created cache
+     * @throws IllegalArgumentException If the maximum size is not positive
+     * @since 3.0.0
+     */
+    public static @NotNull ParseCache create(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive, got " + maximumSize);
+        }
+        return new ParseCache(maximumSize);
+    }
+
+    /**
+     * Gets the cached expressions for the given source, or parses
+     * and caches them if they aren't cached yet.
+     *
+     * @param source The source to parse
+     * @return The parsed expressions, unmodifiable
+     * @throws ParseException If parsing fails
+     * @since 3.0.0
+     */
+    public @NotNull List<Expression> parse(final @NotNull String source) throws ParseException {
+        return parse(source, Collections.emptySet());
+    }
+
+    /**
+     * Gets the cached expressions for the given source, parsed and
+     * processed with the given options, or parses, processes and
+     * caches them if they aren't cached yet.
+     *
+     * <p>Every combination of options is cached separately, but the
+     * parsed expressions are shared by the ones that only differ in
+     * their processing, so every source is only parsed once.</p>
+     *
+     * @param source  The source to parse
+     * @param options The parse and processing options
+     * @return The parsed expressions, unmodifiable
+     * @throws ParseException If parsing fails
+     * @since 3.0.0
+     */
+    public @NotNull List<Expression> parse(final @NotNull String source, final @NotNull Set<Option> options) throws ParseException {
+        requireNonNull(source, "source");
+        requireNonNull(options, "options");
+        final int variant = variant(options);
+        final Entry cached;
+        synchronized (this) {
+            cached = entries.get(source);
+            if (cached != null) {
+                final List<Expression> expressions = cached.variants.get(variant);
+                if (expressions != null) {
+                    hits++;
+                    return expressions;
+                }
+            }
+            misses++;
+        }
+
+        // parse and process without holding the lock, so other sources
+        // can be looked up meanwhile, the source may be parsed twice if
+        // it is requested concurrently, which is fine
+        final int parsedVariant = variant & PARSE_OPTIONS;
+        List<Expression> parsed = cached == null ? null : parsed(cached, parsedVariant);
+        if (parsed == null) {
+            parsed = Collections.unmodifiableList(parseSource(source, options));
+        }
+        List<Expression> processed = parsed;
+        if (options.contains(Option.CANONICALIZE_ALIASES)) {
+            processed = ExpressionCanonicalizer.canonicalizeAll(processed);
+        }
+        if (options.contains(Option.INTERN_EXPRESSIONS)) {
+            processed = ExpressionInterner.internAll(processed);
+        }
+        if (processed != parsed) {
+            processed = Collections.unmodifiableList(processed);
+        }
+
+        synchronized (this) {
+            Entry entry = entries.get(source);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(source, entry);
+            }
+            entry.variants.set(parsedVariant, parsed);
+            entry.variants.set(variant, processed);
+        }
+        return processed;
+    }
+
+    private static @Nullable List<Expression> parsed(final @NotNull Entry entry, final int parsedVariant) {
+        // lightweight errors don't change the parsed expressions,
+        // so the ones parsed with the other error kind are reused
+        final List<Expression> parsed = entry.variants.get(parsedVariant);
+        return parsed != null ? parsed : entry.variants.get(parsedVariant ^ Option.LIGHTWEIGHT_ERRORS.bit());
+    }
+
+    private static @NotNull List<Expression> parseSource(final @NotNull String source, final @NotNull Set<Option> options) throws ParseException {
+        try {
+            final MolangParser parser = options.contains(Option.LAZY_EXECUTION_SCOPES)
+                    ? MolangParser.lazyParser(source)
+                    : MolangParser.parser(source);
+            return parser.lightweightErrors(options.contains(Option.LIGHTWEIGHT_ERRORS)).parseAll();
+        } catch (final ParseException e) {
+            throw e;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error occurred reading the source code: '" + source + "'", e);
+        }
+    }
+
+    private static int variant(final @NotNull Set<Option> options) {
+        int variant = 0;
+        for (final Option option : options) {
+            variant |= option.bit();
+        }
+        return variant;
+    }
+
+    /**
+     * Gets the cached expressions for the given source, parsed
+     * without any option, without parsing them if they aren't
+     * cached. Doesn't count as a hit nor a miss.
+     *
+     * @param source The source
+     * @return The cached expressions, or null if not cached
+     * @since 3.0.0
+     */
+    public synchronized @Nullable List<Expression> getIfPresent(final @NotNull String source) {
+        requireNonNull(source, "source");
+        final Entry entry = entries.get(source);
+        return entry == null ? null : entry.variants.get(0);
+    }
+
+    /**
+     * Removes all the cached entries. Doesn't reset the
+     * statistics.
+     *
+     * @since 3.0.0
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Gets the maximum amount of cached sources.
+     *
+     * @return The maximum size
+     * @since 3.0.0
+     */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the current amount of cached sources.
+     *
+     * @return The current size
+     * @since 3.0.0
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the amount of times a source was found in the cache.
+     *
+     * @return The hit count
+     * @since 3.0.0
+     */
+    public synchronized long hits() {
+        return hits;
+    }
+
+    /**
+     * Gets the amount of times a source wasn't found in the
+     * cache and had to be parsed.
+     *
+     * @return The miss count
+     * @since 3.0.0
+     */
+    public synchronized long misses() {
+        return misses;
+    }
+
+    /**
+     * Gets the amount of entries removed to keep the
+     * cache under its maximum size.
+     *
+     * @return The eviction count
+     * @since 3.0.0
+     */
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ParseCache{" +
+                "size=" + entries.size() +
+                ", maximumSize=" + maximumSize +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+
+    /**
+     * An option used when parsing or processing cached expressions,
+     * matching the options of the same name in
+     * {@link team.unnamed.mocha.MochaEngine}.
+     *
+     * @since 3.0.0
+     */
+    public enum Option {
+        /**
+         * Parse the bodies of execution scopes lazily, see
+         * {@link MolangParser#lazyParser(CharSequence)}.
+         *
+         * @since 3.0.0
+         */
+        LAZY_EXECUTION_SCOPES,
+
+        /**
+         * Report parse errors as lightweight exceptions, see
+         * {@link MolangParser#lightweightErrors(boolean)}.
+         *
+         * @since 3.0.0
+         */
+        LIGHTWEIGHT_ERRORS,
+
+        /**
+         * Canonicalize the parsed expressions, see
+         * {@link ExpressionCanonicalizer}.
+         *
+         * @since 3.0.0
+         */
+        CANONICALIZE_ALIASES,
+
+        /**
+         * Intern the parsed expressions, see
+         * {@link ExpressionInterner}.
+         *
+         * @since 3.0.0
+         */
+        INTERN_EXPRESSIONS;
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private static final class Entry {
+        // the expressions for every variant, the variant of the
+        // given options is the combination of their bits
+        private final AtomicReferenceArray<List<Expression>> variants = new AtomicReferenceArray<>(VARIANT_COUNT);
+    }
+}
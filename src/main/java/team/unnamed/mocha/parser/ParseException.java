@@ -31,35 +31,89 @@ import java.io.IOException;
  * Exception that can be thrown during the
  * parsing phase
  *
+ * <p>Parse exceptions can also be lightweight (see
+ * {@link #lightweight(String, int)}), which don't have a stack
+ * trace nor a cursor, and are cheap to create.</p>
+ *
  * @since 3.0.0
  */
 public class ParseException extends IOException {
 
     private final Cursor cursor;
+    private final int offset;
 
     public ParseException(Cursor cursor) {
         this.cursor = cursor;
+        this.offset = offsetOf(cursor);
     }
 
     public ParseException(String message, Cursor cursor) {
         super(appendCursor(message, cursor));
         this.cursor = cursor;
+        this.offset = offsetOf(cursor);
     }
 
     public ParseException(Throwable cause, Cursor cursor) {
         super(cause);
         this.cursor = cursor;
+        this.offset = offsetOf(cursor);
     }
 
     public ParseException(String message, Throwable cause, Cursor cursor) {
         super(appendCursor(message, cursor), cause);
         this.cursor = cursor;
+        this.offset = offsetOf(cursor);
+    }
+
+    private ParseException(String message, int offset) {
+        super(message);
+        this.cursor = null;
+        this.offset = offset;
     }
 
+    /**
+     * Creates a lightweight parse exception, which doesn't
+     * have a stack trace nor a cursor, only the message and
+     * the index of the character where the error was found.
+     *
+     * <p>Useful when many sources are expected to fail, and
+     * the errors are only counted or logged.</p>
+     *
+     * @param message The error message
+     * @param offset  The index where the error was found
+     * @return The created exception
+     * @since 3.0.0
+     */
+    public static ParseException lightweight(String message, int offset) {
+        return new Lightweight(message, offset);
+    }
+
+    /**
+     * Gets the cursor where the error was found, null
+     * for lightweight exceptions.
+     *
+     * @return The cursor
+     * @since 3.0.0
+     */
     public Cursor cursor() {
         return cursor;
     }
 
+    /**
+     * Gets the index of the character where the error
+     * was found, or -1 if it is unknown.
+     *
+     * @return The error offset
+     * @since 3.0.0
+     */
+    public int offset() {
+        return offset;
+    }
+
+    private static int offsetOf(Cursor cursor) {
+        return cursor == null ? -1 : cursor.index();
+    }
+
     private static String appendCursor(String message, Cursor cursor) {
         if (cursor == null) return message; // todo
         // default format for exception messages, i.e.
@@ -68,4 +122,18 @@ public class ParseException extends IOException {
         return message + "\n\tat " + cursor.toString();
     }
 
+    private static final class Lightweight extends ParseException {
+        private static final long serialVersionUID = 1L;
+
+        Lightweight(String message, int offset) {
+            super(message, offset);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            // no stack trace, that's the expensive part
+            return this;
+        }
+    }
+
 }
@@ -0,0 +1,280 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.lexer.MolangLexer;
+import team.unnamed.mocha.lexer.TokenKind;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A parsed Molang source, keeps the source, the parsed
+ * top-level expressions and where each of them ends, so
+ * that it can be incrementally re-parsed after an edit.
+ *
+ * <p>When editing, only the top-level statements affected
+ * by the edit are re-lexed and re-parsed, the rest of the
+ * {@link Expression} instances are reused, which is useful
+ * for live-editing large sources.</p>
+ *
+ * <pre>{@code
+ *     ParsedSource parsed = ParsedSource.parse("v.x = 1; v.y = 2;");
+ *     // replace "1" with "3"
+ *     parsed = parsed.edit(6, 1, "3");
+ *     List<Expression> expressions = parsed.expressions();
+ * }</pre>
+ *
+ * <p>The parsed expressions are always the same as the ones
+ * returned by {@link MolangParser#parseAll()} for the same
+ * source, and so are the thrown exceptions.</p>
+ *
+ * @since 3.0.0
+ */
+public final class ParsedSource {
+    // results of parseStatements() other than a resync index
+    private static final int REACHED_END = -1;
+    private static final int STOPPED = -2;
+
+    private final String source;
+    private final List<Expression> expressions;
+
+    // the end index (exclusive) of every top-level statement,
+    // including its terminating semicolon, if any
+    private final int[] ends;
+
+    // true if the source was parsed until the end, false if parsing
+    // stopped before, like MolangParser#parseAll() does on empty
+    // statements
+    private final boolean complete;
+
+    private ParsedSource(
+            final @NotNull String source,
+            final @NotNull List<Expression> expressions,
+            final int @NotNull [] ends,
+            final boolean complete
+    ) {
+        this.source = source;
+        this.expressions = Collections.unmodifiableList(expressions);
+        this.ends = ends;
+        this.complete = complete;
+    }
+
+    /**
+     * Parses the given source.
+     *
+     * @param source The source to parse
+     * @return The parsed source
+     * @throws ParseException If parsing fails
+     * @since 3.0.0
+     */
+    public static @NotNull ParsedSource parse(final @NotNull String source) throws ParseException {
+        requireNonNull(source, "source");
+        final List<Expression> expressions = new ArrayList<>();
+        final Ends ends = new Ends(8);
+        final int result = parseStatements(source, 0, expressions, ends, null, 0, 0);
+        return new ParsedSource(source, expressions, ends.toArray(), result == REACHED_END);
+    }
+
+    /**
+     * Gets the parsed source.
+     *
+     * @return The source
+     * @since 3.0.0
+     */
+    public @NotNull String source() {
+        return source;
+    }
+
+    /**
+     * Gets the parsed top-level expressions, same as the
+     * ones returned by {@link MolangParser#parseAll()}.
+     *
+     * @return The parsed expressions, unmodifiable
+     * @since 3.0.0
+     */
+    public @NotNull List<Expression> expressions() {
+        return expressions;
+    }
+
+    /**
+     * Applies a text edit to the source and returns the new parsed
+     * source. This instance is not modified.
+     *
+     * <p>Only the top-level statements affected by the edit are
+     * re-parsed, the expressions of unaffected statements are
+     * reused.</p>
+     *
+     * @param offset        The index where the edit starts
+     * @param removedLength The amount of characters removed at the offset
+     * @param insertedText  The text inserted at the offset
+     * @return The new parsed source
+     * @throws ParseException            If parsing the new source fails
+     * @throws IndexOutOfBoundsException If the removed region is out of the source bounds
+     * @since 3.0.0
+     */
+    public @NotNull ParsedSource edit(final int offset, final int removedLength, final @NotNull String insertedText) throws ParseException {
+        requireNonNull(insertedText, "insertedText");
+        if (offset < 0 || removedLength < 0 || offset + removedLength > source.length()) {
+            throw new IndexOutOfBoundsException("Invalid edit region: offset " + offset
+                    + ", removed length " + removedLength + ", source length " + source.length());
+        }
+
+        final String newSource = source.substring(0, offset) + insertedText + source.substring(offset + removedLength);
+        final int delta = insertedText.length() - removedLength;
+
+        // find the first affected statement, a statement ending at the offset is
+        // also affected if it isn't closed by a semicolon, since the inserted text
+        // may continue it
+        int first = 0;
+        while (first < ends.length && (ends[first] < offset || (ends[first] == offset && source.charAt(offset - 1) == ';'))) {
+            first++;
+        }
+
+        // reuse the statements before the first affected one
+        final List<Expression> newExpressions = new ArrayList<>(expressions.size() + 1);
+        newExpressions.addAll(expressions.subList(0, first));
+        final Ends newEnds = new Ends(ends.length + 1);
+        newEnds.addAll(ends, 0, first, 0);
+
+        final int result;
+        try {
+            result = parseStatements(
+                    newSource,
+                    first == 0 ? 0 : ends[first - 1],
+                    newExpressions,
+                    newEnds,
+                    this,
+                    delta,
+                    offset + insertedText.length()
+            );
+        } catch (final ParseException e) {
+            // parse from the start, so that the exception is exactly the same
+            // as the one thrown when parsing the whole source (e.g. the cursor)
+            return parse(newSource);
+        }
+
+        final boolean newComplete;
+        if (result >= 0) {
+            // resynchronized, reuse the rest of the statements
+            newExpressions.addAll(expressions.subList(result, expressions.size()));
+            newEnds.addAll(ends, result, ends.length, delta);
+            newComplete = complete;
+        } else {
+            newComplete = result == REACHED_END;
+        }
+        return new ParsedSource(newSource, newExpressions, newEnds.toArray(), newComplete);
+    }
+
+    //
+    // Parses the top-level statements in the given source, starting at the given
+    // index (must be a statement start), and adds them to the given lists. When
+    // an "old" parsed source is given, parsing stops when a statement ends after
+    // "minEnd" at the same place as one of the old statements (shifted by "delta"),
+    // and the index of the next old statement is returned, so that it and the
+    // ones after it can be reused.
+    //
+    private static int parseStatements(
+            final @NotNull String source,
+            final int from,
+            final @NotNull List<Expression> expressions,
+            final @NotNull Ends ends,
+            final @Nullable ParsedSource old,
+            final int delta,
+            final int minEnd
+    ) throws ParseException {
+        final MolangLexer lexer = MolangLexer.lexer(CharBuffer.wrap(source, from, source.length()));
+        try {
+            final MolangParser parser = MolangParser.parser(lexer);
+            while (true) {
+                final Expression expression = parser.next();
+                if (expression == null) {
+                    // same as MolangParser#parseAll(), stop at the first null expression
+                    return lexer.currentKind() == TokenKind.EOF ? REACHED_END : STOPPED;
+                }
+
+                final int end = lexer.currentKind() == TokenKind.EOF
+                        ? source.length()
+                        : from + lexer.currentEnd();
+                expressions.add(expression);
+                ends.add(end);
+
+                if (lexer.currentKind() == TokenKind.EOF) {
+                    return REACHED_END;
+                }
+
+                if (old != null && end >= minEnd) {
+                    // the rest of the source is the same, check if the old source
+                    // had a statement ending here too
+                    final int index = Arrays.binarySearch(old.ends, end - delta);
+                    if (index >= 0) {
+                        return index + 1;
+                    }
+                }
+            }
+        } catch (final ParseException e) {
+            throw e;
+        } catch (final IOException e) {
+            // never thrown when reading from a character sequence
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // growable int array
+    private static final class Ends {
+        private int[] values;
+        private int size;
+
+        Ends(final int capacity) {
+            this.values = new int[Math.max(capacity, 4)];
+        }
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(final int @NotNull [] source, final int from, final int to, final int delta) {
+            for (int i = from; i < to; i++) {
+                add(source[i] + delta);
+            }
+        }
+
+        int @NotNull [] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
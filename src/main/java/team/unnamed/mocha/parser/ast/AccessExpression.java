@@ -24,6 +24,7 @@
 package team.unnamed.mocha.parser.ast;
 
 import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.util.SymbolTable;
 
 import static java.util.Objects.requireNonNull;
 
@@ -34,16 +35,24 @@ import static java.util.Objects.requireNonNull;
  * <p>Example property accessing expressions: {@code v.x},
  * {@code v.location.x}, {@code 'str'.length}, {@code query.print}</p>
  *
+ * <p>Note that, property names in Molang are always
+ * <b>case-insensitive</b></p>
+ *
  * @since 3.0.0
  */
 public final class AccessExpression implements Expression {
 
     private final String property;
-    private Expression object;
+    private final Expression object;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public AccessExpression(final @NotNull Expression object, final @NotNull String property) {
         this.object = requireNonNull(object, "object");
-        this.property = requireNonNull(property, "property");
+        this.property = SymbolTable.symbol(requireNonNull(property, "property")); // case-insensitive
+        this.hash = 31 * object.hashCode() + this.property.hashCode();
     }
 
     /**
@@ -58,18 +67,8 @@ public final class AccessExpression implements Expression {
     }
 
     /**
-     * Sets the "object" expression, the property is
-     * evaluated on this expression's result.
-     *
-     * @param object The object expression.
-     * @since 3.0.0
-     */
-    public void object(final @NotNull Expression object) {
-        this.object = requireNonNull(object, "object");
-    }
-
-    /**
-     * Gets the accessed property name.
+     * Gets the accessed property name, always
+     * lower-cased, since properties are case-insensitive.
      *
      * @return The property name.
      * @since 3.0.0
@@ -93,15 +92,14 @@ public final class AccessExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AccessExpression that = (AccessExpression) o;
+        if (hash != that.hash) return false;
         if (!object.equals(that.object)) return false;
         return property.equals(that.property);
     }
 
     @Override
     public int hashCode() {
-        int result = object.hashCode();
-        result = 31 * result + property.hashCode();
-        return result;
+        return hash;
     }
 
 }
\ No newline at end of file
@@ -38,12 +38,17 @@ import static java.util.Objects.requireNonNull;
  * @since 3.0.0
  */
 public final class ArrayAccessExpression implements Expression {
-    private Expression array;
-    private Expression index;
+    private final Expression array;
+    private final Expression index;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public ArrayAccessExpression(final @NotNull Expression array, final @NotNull Expression index) {
         this.array = requireNonNull(array, "array");
         this.index = requireNonNull(index, "index");
+        this.hash = 31 * array.hashCode() + index.hashCode();
     }
 
     /**
@@ -57,17 +62,6 @@ public final class ArrayAccessExpression implements Expression {
         return array;
     }
 
-    /**
-     * Sets the 'array' expression, the index is evaluated on this
-     * expression's result.
-     *
-     * @param array The new array expression.
-     * @since 3.0.0
-     */
-    public void array(final @NotNull Expression array) {
-        this.array = requireNonNull(array, "array");
-    }
-
     /**
      * Gets the 'index' expression, the index is evaluated on this
      * expression's result.
@@ -79,17 +73,6 @@ public final class ArrayAccessExpression implements Expression {
         return index;
     }
 
-    /**
-     * Sets the 'index' expression, the index is evaluated on this
-     * expression's result.
-     *
-     * @param index The new index expression.
-     * @since 3.0.0
-     */
-    public void index(final @NotNull Expression index) {
-        this.index = requireNonNull(index, "index");
-    }
-
     @Override
     public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
         return visitor.visitArrayAccess(this);
@@ -105,14 +88,13 @@ public final class ArrayAccessExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         final ArrayAccessExpression that = (ArrayAccessExpression) o;
+        if (hash != that.hash) return false;
         if (!array.equals(that.array)) return false;
         return index.equals(that.index);
     }
 
     @Override
     public int hashCode() {
-        int result = array.hashCode();
-        result = 31 * result + index.hashCode();
-        return result;
+        return hash;
     }
 }
@@ -39,13 +39,18 @@ import static java.util.Objects.requireNonNull;
  */
 public final class BinaryExpression implements Expression {
     private final Op op;
-    private Expression left;
-    private Expression right;
+    private final Expression left;
+    private final Expression right;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public BinaryExpression(final @NotNull Op op, final @NotNull Expression left, final @NotNull Expression right) {
         this.op = requireNonNull(op, "op");
         this.left = requireNonNull(left, "left");
         this.right = requireNonNull(right, "right");
+        this.hash = 31 * (31 * op.hashCode() + left.hashCode()) + right.hashCode();
     }
 
     /**
@@ -69,17 +74,6 @@ public final class BinaryExpression implements Expression {
         return left;
     }
 
-    /**
-     * Sets the left-hand expression for this
-     * binary expression.
-     *
-     * @param left The left-hand expression
-     * @since 3.0.0
-     */
-    public void left(final @NotNull Expression left) {
-        this.left = requireNonNull(left, "left");
-    }
-
     /**
      * Gets the right-hand expression for this
      * binary expression.
@@ -91,43 +85,62 @@ public final class BinaryExpression implements Expression {
         return right;
     }
 
-    /**
-     * Sets the right-hand expression for this
-     * binary expression.
-     *
-     * @param right The right-hand expression
-     * @since 3.0.0
-     */
-    public void right(final @NotNull Expression right) {
-        this.right = requireNonNull(right, "right");
-    }
-
     @Override
     public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
         return visitor.visitBinary(this);
     }
 
+    //
+    // The following methods walk the left-hand side iteratively,
+    // so that long chains like "a + b + c + ..." don't overflow
+    // the thread stack
+    //
+
     @Override
     public String toString() {
-        return String.format("%s%s%s", this.left, this.op.toString(), this.right);
+        int length = 0;
+        Expression left = this;
+        while (left instanceof BinaryExpression) {
+            left = ((BinaryExpression) left).left;
+            length++;
+        }
+
+        final BinaryExpression[] chain = new BinaryExpression[length];
+        left = this;
+        for (int i = length - 1; i >= 0; i--) {
+            chain[i] = (BinaryExpression) left;
+            left = chain[i].left;
+        }
+
+        final StringBuilder builder = new StringBuilder().append(left);
+        for (final BinaryExpression binary : chain) {
+            builder.append(binary.op).append(binary.right);
+        }
+        return builder.toString();
     }
 
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        BinaryExpression that = (BinaryExpression) o;
-        if (op != that.op) return false;
-        if (!left.equals(that.left)) return false;
-        return right.equals(that.right);
+        BinaryExpression a = this;
+        BinaryExpression b = (BinaryExpression) o;
+        while (true) {
+            if (a.hash != b.hash) return false;
+            if (a.op != b.op) return false;
+            if (!a.right.equals(b.right)) return false;
+            if (a.left == b.left) return true;
+            if (!(a.left instanceof BinaryExpression) || !(b.left instanceof BinaryExpression)) {
+                return a.left.equals(b.left);
+            }
+            a = (BinaryExpression) a.left;
+            b = (BinaryExpression) b.left;
+        }
     }
 
     @Override
     public int hashCode() {
-        int result = op.hashCode();
-        result = 31 * result + left.hashCode();
-        result = 31 * result + right.hashCode();
-        return result;
+        return hash;
     }
 
     public enum Op {
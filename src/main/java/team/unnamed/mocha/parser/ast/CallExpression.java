@@ -41,11 +41,16 @@ import static java.util.Objects.requireNonNull;
  */
 public final class CallExpression implements Expression {
     private final List<Expression> arguments;
-    private Expression function;
+    private final Expression function;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public CallExpression(final @NotNull Expression function, final @NotNull List<Expression> arguments) {
         this.function = requireNonNull(function, "function");
         this.arguments = requireNonNull(arguments, "arguments");
+        this.hash = 31 * function.hashCode() + arguments.hashCode();
     }
 
     /**
@@ -57,15 +62,6 @@ public final class CallExpression implements Expression {
         return function;
     }
 
-    /**
-     * Sets the function expression.
-     *
-     * @since 3.0.0
-     */
-    public void function(final @NotNull Expression function) {
-        this.function = requireNonNull(function, "function");
-    }
-
     /**
      * Gets the list of arguments to pass to
      * the function.
@@ -91,15 +87,14 @@ public final class CallExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         CallExpression that = (CallExpression) o;
+        if (hash != that.hash) return false;
         if (!function.equals(that.function)) return false;
         return arguments.equals(that.arguments);
     }
 
     @Override
     public int hashCode() {
-        int result = function.hashCode();
-        result = 31 * result + arguments.hashCode();
-        return result;
+        return hash;
     }
 
 }
\ No newline at end of file
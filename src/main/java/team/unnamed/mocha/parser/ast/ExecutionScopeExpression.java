@@ -24,10 +24,13 @@
 package team.unnamed.mocha.parser.ast;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import team.unnamed.mocha.util.ExpressionListUtils;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 /**
  * Execution scope expression implementation. Execution
@@ -37,14 +40,130 @@ import java.util.Objects;
  * <p>Execution scope expression examples: {@code { print('a'); print('b'); }},
  * {@code { doThisFirst(); thenDoThis(); }}, {@code { v.x = v.x + 1; }}</p>
  *
+ * <p>Execution scopes can also be lazy (see {@link #lazy(Supplier)}),
+ * their expressions are only created the first time they are
+ * requested. Lazy execution scopes are never parsed to be printed,
+ * hashed or compared: the ones created by the parser keep their
+ * source and are compared by it, the rest are compared by identity.</p>
+ *
  * @since 3.0.0
  */
 public final class ExecutionScopeExpression implements Expression {
 
-    private final List<Expression> expressions;
+    private volatile List<Expression> expressions;
+
+    // creates the expressions of a lazy execution scope,
+    // null if they were already created
+    private @Nullable Supplier<List<Expression>> body;
+
+    // the source of a lazy execution scope, from its opening
+    // brace to its closing brace, null if it doesn't have one
+    private final @Nullable CharSequence source;
+    private final int start;
+    private final int end;
+
+    // whether this is a lazy execution scope compared by identity
+    private final boolean identity;
+
+    // structural hash, or the hash of the source for lazy
+    // scopes, unused for the ones compared by identity
+    private final int hash;
 
     public ExecutionScopeExpression(final @NotNull List<Expression> expressions) {
         this.expressions = Objects.requireNonNull(expressions, "expressions");
+        this.source = null;
+        this.start = 0;
+        this.end = 0;
+        this.identity = false;
+        this.hash = Objects.hash(expressions);
+    }
+
+    private ExecutionScopeExpression(
+            final @NotNull Supplier<List<Expression>> body,
+            final @Nullable CharSequence source,
+            final int start,
+            final int end,
+            final boolean identity
+    ) {
+        this.body = Objects.requireNonNull(body, "body");
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        this.identity = identity;
+        this.hash = source == null ? 0 : sourceHash(source, start, end);
+    }
+
+    private static int sourceHash(final @NotNull CharSequence source, final int start, final int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    /**
+     * Creates a lazy execution scope, whose expressions are
+     * created by the given supplier the first time they are
+     * requested.
+     *
+     * <p>The supplier is called at most once, even if the
+     * expressions are requested from multiple threads.
+     * Exceptions thrown by it are propagated to the caller
+     * and the supplier will be called again next time.</p>
+     *
+     * <p>The returned scope is compared by identity.</p>
+     *
+     * @param body The supplier of the scope expressions
+     * @return The lazy execution scope
+     * @since 3.0.0
+     */
+    public static @NotNull ExecutionScopeExpression lazy(final @NotNull Supplier<List<Expression>> body) {
+        return new ExecutionScopeExpression(body, null, 0, 0, true);
+    }
+
+    /**
+     * Creates a lazy execution scope parsed from the given
+     * source range, see {@link #lazy(Supplier)}.
+     *
+     * <p>The returned scope is printed using its source until
+     * its expressions are created, and it is equal to the lazy
+     * execution scopes with the same source.</p>
+     *
+     * @param source The source, must not be modified
+     * @param start The index of the opening brace
+     * @param end The index after the closing brace
+     * @param body The supplier of the scope expressions
+     * @return The lazy execution scope
+     * @since 3.0.0
+     */
+    public static @NotNull ExecutionScopeExpression lazy(
+            final @NotNull CharSequence source,
+            final int start,
+            final int end,
+            final @NotNull Supplier<List<Expression>> body
+    ) {
+        Objects.requireNonNull(source, "source");
+        if (start < 0 || end < start || end > source.length()) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + source.length());
+        }
+        return new ExecutionScopeExpression(body, source, start, end, false);
+    }
+
+    /**
+     * Creates a lazy execution scope whose expressions are the
+     * expressions of this scope, transformed by the given function
+     * the first time they are requested.
+     *
+     * <p>The returned scope keeps the source of this scope to be
+     * printed, but it is compared by identity.</p>
+     *
+     * @param transform The function that transforms the expressions
+     * @return The lazy execution scope
+     * @since 3.0.0
+     */
+    public @NotNull ExecutionScopeExpression lazyTransform(final @NotNull UnaryOperator<List<Expression>> transform) {
+        Objects.requireNonNull(transform, "transform");
+        return new ExecutionScopeExpression(() -> transform.apply(expressions()), source, start, end, true);
     }
 
     /**
@@ -52,9 +171,33 @@ public final class ExecutionScopeExpression implements Expression {
      * execution scope, never null
      */
     public @NotNull List<Expression> expressions() {
+        List<Expression> expressions = this.expressions;
+        if (expressions == null) {
+            synchronized (this) {
+                expressions = this.expressions;
+                if (expressions == null) {
+                    //noinspection DataFlowIssue
+                    expressions = Objects.requireNonNull(body.get(), "expressions");
+                    this.expressions = expressions;
+                    body = null;
+                }
+            }
+        }
         return expressions;
     }
 
+    /**
+     * Determines whether the expressions of this execution
+     * scope were already created. Always true for non-lazy
+     * execution scopes.
+     *
+     * @return True if the expressions are already created
+     * @since 3.0.0
+     */
+    public boolean resolved() {
+        return expressions != null;
+    }
+
     @Override
     public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
         return visitor.visitExecutionScope(this);
@@ -62,7 +205,14 @@ public final class ExecutionScopeExpression implements Expression {
 
     @Override
     public String toString() {
-        return String.format("{%s}", ExpressionListUtils.toString(this.expressions));
+        final List<Expression> expressions = this.expressions;
+        if (expressions != null) {
+            return String.format("{%s}", ExpressionListUtils.toString(expressions));
+        } else if (source != null) {
+            return source.subSequence(start, end).toString();
+        } else {
+            return "{...}";
+        }
     }
 
     @Override
@@ -70,12 +220,36 @@ public final class ExecutionScopeExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ExecutionScopeExpression that = (ExecutionScopeExpression) o;
-        return expressions.equals(that.expressions);
+        if (identity || that.identity) {
+            return false;
+        }
+        if (hash != that.hash) return false;
+        if (source != null || that.source != null) {
+            return source != null && that.source != null && sourceEquals(that);
+        }
+        return expressions().equals(that.expressions());
+    }
+
+    private boolean sourceEquals(final @NotNull ExecutionScopeExpression that) {
+        final int length = end - start;
+        if (length != that.end - that.start) {
+            return false;
+        }
+        //noinspection DataFlowIssue
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(start + i) != that.source.charAt(that.start + i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(expressions);
+        if (identity) {
+            return System.identityHashCode(this);
+        }
+        return hash;
     }
 
-}
\ No newline at end of file
+}
@@ -36,6 +36,13 @@ import org.jetbrains.annotations.NotNull;
  * <p>In Molang, almost every expression evaluates to a numerical
  * value</p>
  *
+ * <p>Expressions are immutable and compared structurally.
+ * Expressions with sub-expressions compute their hash code when
+ * they are created, from the stored hash codes of their
+ * sub-expressions, so that hashing them is cheap and {@code equals}
+ * can return early when the hash codes differ. This makes them
+ * safe to share and to use as map keys.</p>
+ *
  * @since 3.0.0
  */
 @ApiStatus.NonExtendable
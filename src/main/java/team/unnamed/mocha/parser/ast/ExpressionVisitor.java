@@ -164,6 +164,28 @@ public interface ExpressionVisitor<R> {
         return visit(expression);
     }
 
+    /**
+     * Evaluate for loop expression.
+     *
+     * @param expression The expression.
+     * @return The result.
+     * @since 3.0.0
+     */
+    default R visitLoop(final @NotNull LoopExpression expression) {
+        return visit(expression);
+    }
+
+    /**
+     * Evaluate for for-each expression.
+     *
+     * @param expression The expression.
+     * @return The result.
+     * @since 3.0.0
+     */
+    default R visitForEach(final @NotNull ForEachExpression expression) {
+        return visit(expression);
+    }
+
     /**
      * Evaluate for statement expression.
      *
@@ -0,0 +1,115 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser.ast;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * For-each expression implementation, a call to the
+ * {@code for_each} built-in function, resolved at parse time.
+ *
+ * <p>The {@code body} expression is evaluated once for every
+ * element of {@code array}, after assigning the element to
+ * the {@code variable} expression.</p>
+ *
+ * <p>Example for-each expressions: {@code for_each(t.pig, q.pigs, { v.count = v.count + 1; })},
+ * {@code for_each(v.x, q.values, { v.sum = v.sum + v.x; })}</p>
+ *
+ * @since 3.0.0
+ */
+public final class ForEachExpression implements Expression {
+    private final Expression variable;
+    private final Expression array;
+    private final Expression body;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
+
+    public ForEachExpression(final @NotNull Expression variable, final @NotNull Expression array, final @NotNull Expression body) {
+        this.variable = requireNonNull(variable, "variable");
+        this.array = requireNonNull(array, "array");
+        this.body = requireNonNull(body, "body");
+        this.hash = Objects.hash(variable, array, body);
+    }
+
+    /**
+     * Gets the variable expression, where every element
+     * is assigned to. Usually an {@link AccessExpression}.
+     *
+     * @since 3.0.0
+     */
+    public @NotNull Expression variable() {
+        return variable;
+    }
+
+    /**
+     * Gets the iterated array expression.
+     *
+     * @since 3.0.0
+     */
+    public @NotNull Expression array() {
+        return array;
+    }
+
+    /**
+     * Gets the looped expression.
+     *
+     * @since 3.0.0
+     */
+    public @NotNull Expression body() {
+        return body;
+    }
+
+    @Override
+    public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
+        return visitor.visitForEach(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("for_each(%s,%s,%s)", variable, array, body);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ForEachExpression that = (ForEachExpression) o;
+        if (hash != that.hash) return false;
+        return variable.equals(that.variable)
+                && array.equals(that.array)
+                && body.equals(that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
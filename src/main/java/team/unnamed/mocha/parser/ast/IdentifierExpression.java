@@ -24,6 +24,7 @@
 package team.unnamed.mocha.parser.ast;
 
 import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.util.SymbolTable;
 
 import java.util.Objects;
 
@@ -45,7 +46,7 @@ public final class IdentifierExpression implements Expression {
     public IdentifierExpression(final @NotNull String name) {
         Objects.requireNonNull(name, "name");
 
-        this.name = name.toLowerCase(); // case-insensitive
+        this.name = SymbolTable.symbol(name); // case-insensitive
     }
 
     /**
@@ -0,0 +1,99 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser.ast;
+
+import org.jetbrains.annotations.NotNull;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loop expression implementation, a call to the {@code loop}
+ * built-in function, resolved at parse time.
+ *
+ * <p>The {@code body} expression is evaluated {@code count}
+ * times, or until a {@code break} statement is executed.</p>
+ *
+ * <p>Example loop expressions: {@code loop(10, { v.x = v.x + 1; })},
+ * {@code loop(v.n, { v.i = v.i + 1; (v.i > 5) ? break; })}</p>
+ *
+ * @since 3.0.0
+ */
+public final class LoopExpression implements Expression {
+    private final Expression count;
+    private final Expression body;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
+
+    public LoopExpression(final @NotNull Expression count, final @NotNull Expression body) {
+        this.count = requireNonNull(count, "count");
+        this.body = requireNonNull(body, "body");
+        this.hash = 31 * count.hashCode() + body.hashCode();
+    }
+
+    /**
+     * Gets the expression that determines how many
+     * times the body is evaluated.
+     *
+     * @since 3.0.0
+     */
+    public @NotNull Expression count() {
+        return count;
+    }
+
+    /**
+     * Gets the looped expression.
+     *
+     * @since 3.0.0
+     */
+    public @NotNull Expression body() {
+        return body;
+    }
+
+    @Override
+    public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
+        return visitor.visitLoop(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("loop(%s,%s)", count, body);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LoopExpression that = (LoopExpression) o;
+        if (hash != that.hash) return false;
+        return count.equals(that.count) && body.equals(that.body);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
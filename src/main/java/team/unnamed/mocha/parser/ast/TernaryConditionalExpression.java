@@ -43,14 +43,19 @@ import static java.util.Objects.requireNonNull;
  * @since 3.0.0
  */
 public final class TernaryConditionalExpression implements Expression {
-    private Expression conditional;
-    private Expression trueExpression;
-    private Expression falseExpression;
+    private final Expression conditional;
+    private final Expression trueExpression;
+    private final Expression falseExpression;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public TernaryConditionalExpression(final @NotNull Expression conditional, final @NotNull Expression trueExpression, final @NotNull Expression falseExpression) {
         this.conditional = requireNonNull(conditional, "conditional");
         this.trueExpression = requireNonNull(trueExpression, "trueExpression");
         this.falseExpression = requireNonNull(falseExpression, "falseExpression");
+        this.hash = Objects.hash(conditional, trueExpression, falseExpression);
     }
 
     /**
@@ -62,16 +67,6 @@ public final class TernaryConditionalExpression implements Expression {
         return conditional;
     }
 
-    /**
-     * Sets the expression condition.
-     *
-     * @param condition The condition
-     * @since 3.0.0
-     */
-    public void condition(final @NotNull Expression condition) {
-        this.conditional = requireNonNull(condition, "condition");
-    }
-
     /**
      * Gets the expression that should be used when
      * condition is evaluated as a truthy value.
@@ -82,17 +77,6 @@ public final class TernaryConditionalExpression implements Expression {
         return trueExpression;
     }
 
-    /**
-     * Sets the expression that should be used when
-     * condition is evaluated as a truthy value.
-     *
-     * @param trueExpression The true expression
-     * @since 3.0.0
-     */
-    public void trueExpression(final @NotNull Expression trueExpression) {
-        this.trueExpression = requireNonNull(trueExpression, "trueExpression");
-    }
-
     /**
      * Gets the expression that should be used when
      * condition is evaluated as a falsy value.
@@ -103,17 +87,6 @@ public final class TernaryConditionalExpression implements Expression {
         return falseExpression;
     }
 
-    /**
-     * Sets the expression that should be used when
-     * condition is evaluated as a falsy value.
-     *
-     * @param falseExpression The false expression
-     * @since 3.0.0
-     */
-    public void falseExpression(final @NotNull Expression falseExpression) {
-        this.falseExpression = requireNonNull(falseExpression, "falseExpression");
-    }
-
     @Override
     public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
         return visitor.visitTernaryConditional(this);
@@ -129,6 +102,7 @@ public final class TernaryConditionalExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TernaryConditionalExpression that = (TernaryConditionalExpression) o;
+        if (hash != that.hash) return false;
         return conditional.equals(that.conditional)
                 && trueExpression.equals(that.trueExpression)
                 && falseExpression.equals(that.falseExpression);
@@ -136,7 +110,7 @@ public final class TernaryConditionalExpression implements Expression {
 
     @Override
     public int hashCode() {
-        return Objects.hash(conditional, trueExpression, falseExpression);
+        return hash;
     }
 
 }
\ No newline at end of file
@@ -40,11 +40,16 @@ import static java.util.Objects.requireNonNull;
  */
 public final class UnaryExpression implements Expression {
     private final Op op;
-    private Expression expression;
+    private final Expression expression;
+
+    // structural hash, computed from the stored
+    // hashes of the sub-expressions
+    private final int hash;
 
     public UnaryExpression(final @NotNull Op op, final @NotNull Expression expression) {
         this.op = requireNonNull(op, "op");
         this.expression = requireNonNull(expression, "expression");
+        this.hash = 31 * op.hashCode() + expression.hashCode();
     }
 
     /**
@@ -67,16 +72,6 @@ public final class UnaryExpression implements Expression {
         return expression;
     }
 
-    /**
-     * Sets the operated expression.
-     *
-     * @param expression The operated expression.
-     * @since 3.0.0
-     */
-    public void expression(final @NotNull Expression expression) {
-        this.expression = requireNonNull(expression, "expression");
-    }
-
     @Override
     public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
         return visitor.visitUnary(this);
@@ -92,15 +87,14 @@ public final class UnaryExpression implements Expression {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         UnaryExpression that = (UnaryExpression) o;
+        if (hash != that.hash) return false;
         if (op != that.op) return false;
         return expression.equals(that.expression);
     }
 
     @Override
     public int hashCode() {
-        int result = op.hashCode();
-        result = 31 * result + expression.hashCode();
-        return result;
+        return hash;
     }
 
     public enum Op {
@@ -0,0 +1,137 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.util.Arrays;
+
+/**
+ * Utility for long left-leaning chains of eager binary
+ * operators, like {@code a + b + c + ...}.
+ *
+ * <p>Visiting these chains recursively needs a stack frame
+ * per operator and can overflow the thread stack, so the
+ * interpreter, the tree builder and the resolver handle
+ * them iteratively once they reach {@link #THRESHOLD}
+ * operators.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class EagerChains {
+    /**
+     * The amount of nested eager binary expressions at which
+     * a chain is handled iteratively.
+     *
+     * @since 3.0.0
+     */
+    public static final int THRESHOLD = 32;
+
+    private EagerChains() {
+    }
+
+    /**
+     * Determines whether the given operator always evaluates
+     * both of its operands as numbers.
+     *
+     * @param op The operator.
+     * @return True if the operator is eager.
+     * @since 3.0.0
+     */
+    public static boolean isEager(final @NotNull BinaryExpression.Op op) {
+        switch (op) {
+            case LT:
+            case LTE:
+            case GT:
+            case GTE:
+            case ADD:
+            case SUB:
+            case MUL:
+            case DIV:
+            case EQ:
+            case NEQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Determines whether the given expression is a chain of at
+     * least {@link #THRESHOLD} nested eager binary expressions
+     * on its left side.
+     *
+     * @param expression The expression.
+     * @return True if the chain should be handled iteratively.
+     * @since 3.0.0
+     */
+    public static boolean isLong(final @NotNull BinaryExpression expression) {
+        Expression left = expression.left();
+        for (int length = 0; length < THRESHOLD; length++) {
+            if (!(left instanceof BinaryExpression) || !isEager(((BinaryExpression) left).op())) {
+                return false;
+            }
+            left = ((BinaryExpression) left).left();
+        }
+        return true;
+    }
+
+    /**
+     * Collects the eager binary expressions of the chain started
+     * by the given expression, from the innermost operator to the
+     * outermost one, i.e. in evaluation order.
+     *
+     * <p>The left operand of the first returned expression is the
+     * first operand of the chain, the right operands of all of them
+     * are the remaining operands.</p>
+     *
+     * @param expression The outermost expression of the chain.
+     * @return The expressions of the chain, innermost first.
+     * @since 3.0.0
+     */
+    public static @NotNull BinaryExpression @NotNull [] collect(final @NotNull BinaryExpression expression) {
+        // collect the chain, from the outermost to the innermost operator
+        BinaryExpression[] chain = new BinaryExpression[THRESHOLD * 2];
+        int length = 0;
+        Expression left = expression;
+        while (left instanceof BinaryExpression && isEager(((BinaryExpression) left).op())) {
+            if (length == chain.length) {
+                chain = Arrays.copyOf(chain, length * 2);
+            }
+            chain[length++] = (BinaryExpression) left;
+            left = ((BinaryExpression) left).left();
+        }
+
+        // then reverse it, so it goes from the innermost operator
+        final BinaryExpression[] ordered = new BinaryExpression[length];
+        for (int i = 0; i < length; i++) {
+            ordered[i] = chain[length - 1 - i];
+        }
+        return ordered;
+    }
+}
@@ -29,6 +29,8 @@ import team.unnamed.mocha.parser.ast.CallExpression;
 import team.unnamed.mocha.parser.ast.FloatExpression;
 import team.unnamed.mocha.parser.ast.Expression;
 import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.ForEachExpression;
+import team.unnamed.mocha.parser.ast.LoopExpression;
 import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
 
 import static java.util.Objects.requireNonNull;
@@ -76,6 +78,24 @@ final class ExpressionInliner implements ExpressionVisitor<@NotNull Expression>
         return expression;
     }
 
+    @Override
+    public @NotNull Expression visitLoop(final @NotNull LoopExpression expression) {
+        if (IsConstantExpression.test(expression, scope)) {
+            // can be evaluated in compile-time
+            return FloatExpression.of(expression.visit(interpreter).getAsNumber());
+        }
+        return expression;
+    }
+
+    @Override
+    public @NotNull Expression visitForEach(final @NotNull ForEachExpression expression) {
+        if (IsConstantExpression.test(expression, scope)) {
+            // can be evaluated in compile-time
+            return FloatExpression.of(expression.visit(interpreter).getAsNumber());
+        }
+        return expression;
+    }
+
     @Override
     public @NotNull Expression visit(final @NotNull Expression expression) {
         return expression;
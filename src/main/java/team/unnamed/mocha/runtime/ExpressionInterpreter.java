@@ -27,7 +27,6 @@ import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import team.unnamed.mocha.parser.ast.*;
-import team.unnamed.mocha.runtime.binding.JavaFunction;
 import team.unnamed.mocha.runtime.value.*;
 
 import java.util.Arrays;
@@ -37,83 +36,6 @@ import static java.util.Objects.requireNonNull;
 
 @ApiStatus.Internal
 public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>, ExecutionContext<T> {
-    private static final List<Evaluator> BINARY_EVALUATORS = Arrays.asList(
-            bool((a, b) -> a.eval() && b.eval()),
-            bool((a, b) -> a.eval() || b.eval()),
-            compare((a, b) -> a.eval() < b.eval()),
-            compare((a, b) -> a.eval() <= b.eval()),
-            compare((a, b) -> a.eval() > b.eval()),
-            compare((a, b) -> a.eval() >= b.eval()),
-            (evaluator, a, b) -> {
-                final Value aVal = a.visit(evaluator);
-                final Value bVal = b.visit(evaluator);
-                // string concatenation is not supported in molang
-                // if (aVal.isString() || bVal.isString()) {
-                //     return StringValue.of(aVal.getAsString() + bVal.getAsString());
-                // } else {
-                return NumberValue.of(aVal.getAsNumber() + bVal.getAsNumber());
-                // }
-            },
-            arithmetic((a, b) -> a.eval() - b.eval()),
-            arithmetic((a, b) -> a.eval() * b.eval()),
-            arithmetic((a, b) -> {
-                // Molang allows division by zero,
-                // which is always equal to 0
-                final float dividend = a.eval();
-                final float divisor = b.eval();
-                if (divisor == 0) return 0;
-                else return dividend / divisor;
-            }),
-            (evaluator, a, b) -> { // arrow
-                final Value val = a.visit(evaluator);
-                if (!(val instanceof JavaValue)) {
-                    return NumberValue.zero();
-                } else {
-                    return b.visit(evaluator.createChild(((JavaValue) val).value()));
-                }
-            },
-            (evaluator, a, b) -> { // null coalesce
-                final Value val = a.visit(evaluator);
-                if (val.getAsBoolean()) {
-                    return val;
-                } else {
-                    return b.visit(evaluator);
-                }
-            },
-            (evaluator, a, b) -> { // assignation
-                final Value val = b.visit(evaluator);
-                // we can only assign to values that are accessed
-                // like:
-                //      temp.x = 1
-                //      t.location.world = 'world'
-                // but not:
-                //      x = 1
-                //      i = 2
-                if (a instanceof AccessExpression) {
-                    final AccessExpression access = (AccessExpression) a;
-                    final Value objectValue = access.object().visit(evaluator);
-                    if (objectValue instanceof MutableObjectBinding) {
-                        ((MutableObjectBinding) objectValue).set(access.property(), val);
-                    }
-                }
-                return val;
-            },
-            (evaluator, a, b) -> { // conditional
-                final Value conditionValue = a.visit(evaluator);
-                if (conditionValue.getAsBoolean()) {
-                    final Value predicateVal = b.visit(evaluator);
-                    if (predicateVal instanceof Function) {
-                        return Value.of(((Function) predicateVal).evaluate(evaluator));
-                    } else {
-                        return predicateVal;
-                    }
-                }
-                return NumberValue.zero();
-            },
-            arithmetic((a, b) -> ((a.eval() == b.eval()) ? 1.0F : 0.0F)), // eq
-            arithmetic((a, b) -> ((a.eval() != b.eval()) ? 1.0F : 0.0F))  // neq
-    );
-
     private final T entity;
     private final Scope scope;
     private @Nullable Object flag;
@@ -126,31 +48,14 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
         this.scope = requireNonNull(scope, "scope");
     }
 
-    private static Evaluator bool(BooleanOperator op) {
-        return (evaluator, a, b) -> Value.of(op.operate(
-                () -> a.visit(evaluator).getAsBoolean(),
-                () -> b.visit(evaluator).getAsBoolean()
-        ));
-    }
-
-    private static Evaluator compare(Comparator comp) {
-        return (evaluator, a, b) -> Value.of(comp.compare(
-                () -> a.visit(evaluator).getAsNumber(),
-                () -> b.visit(evaluator).getAsNumber()
-        ));
-    }
-
-    private static Evaluator arithmetic(ArithmeticOperator op) {
-        return (evaluator, a, b) -> NumberValue.of(op.operate(
-                () -> a.visit(evaluator).getAsNumber(),
-                () -> b.visit(evaluator).getAsNumber()
-        ));
-    }
-
     public void warnOnReflectiveFunctionUsage(final boolean warnOnReflectiveFunctionUsage) {
         this.warnOnReflectiveFunctionUsage = warnOnReflectiveFunctionUsage;
     }
 
+    public boolean warnOnReflectiveFunctionUsage() {
+        return warnOnReflectiveFunctionUsage;
+    }
+
     @Override
     public @Nullable Object flag() {
         return flag;
@@ -171,6 +76,106 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
         return expression.visit(this);
     }
 
+    /**
+     * Evaluates the given expression as a number.
+     *
+     * <p>Numeric expressions (literals, arithmetic, comparison and
+     * logical operators, negations and ternaries) are evaluated
+     * without creating intermediate {@link Value} instances, other
+     * expressions are evaluated to a {@link Value} and then
+     * converted, same as {@code eval(expression).getAsNumber()}.</p>
+     *
+     * @param expression The expression to evaluate
+     * @return The evaluated number
+     */
+    public float evalFloat(final @NotNull Expression expression) {
+        if (expression instanceof FloatExpression) {
+            return TierSupport.number(((FloatExpression) expression).value());
+        } else if (expression instanceof BinaryExpression) {
+            final BinaryExpression binary = (BinaryExpression) expression;
+            switch (binary.op()) {
+                case AND:
+                    return evalBoolean(binary.left()) && evalBoolean(binary.right()) ? 1.0F : 0.0F;
+                case OR:
+                    return evalBoolean(binary.left()) || evalBoolean(binary.right()) ? 1.0F : 0.0F;
+                case LT:
+                case LTE:
+                case GT:
+                case GTE:
+                case ADD:
+                case SUB:
+                case MUL:
+                case DIV:
+                case EQ:
+                case NEQ:
+                    if (EagerChains.isLong(binary)) {
+                        return evalChain(binary);
+                    }
+                    return operate(binary.op(), evalFloat(binary.left()), evalFloat(binary.right()));
+                default:
+                    break;
+            }
+        } else if (expression instanceof UnaryExpression) {
+            final UnaryExpression unary = (UnaryExpression) expression;
+            switch (unary.op()) {
+                case LOGICAL_NEGATION:
+                    return evalBoolean(unary.expression()) ? 0.0F : 1.0F;
+                case ARITHMETICAL_NEGATION:
+                    return TierSupport.number(-evalFloat(unary.expression()));
+                default:
+                    break;
+            }
+        } else if (expression instanceof TernaryConditionalExpression) {
+            final TernaryConditionalExpression ternary = (TernaryConditionalExpression) expression;
+            return evalBoolean(ternary.condition())
+                    ? evalFloat(ternary.trueExpression())
+                    : evalFloat(ternary.falseExpression());
+        }
+
+        // not a numeric expression, e.g. accesses, calls, assignations
+        return expression.visit(this).getAsNumber();
+    }
+
+    /**
+     * Evaluates the given expression as a boolean, same
+     * as {@code eval(expression).getAsBoolean()}.
+     *
+     * <p>Numeric expressions are evaluated without creating
+     * intermediate {@link Value} instances, see {@link #evalFloat}.</p>
+     *
+     * @param expression The expression to evaluate
+     * @return The evaluated boolean
+     */
+    public boolean evalBoolean(final @NotNull Expression expression) {
+        if (isNumeric(expression)) {
+            return evalFloat(expression) != 0.0F;
+        }
+        // strings, arrays and objects have their own truthiness
+        return expression.visit(this).getAsBoolean();
+    }
+
+    /**
+     * Determines whether the given expression always evaluates
+     * to a number, so it can be evaluated by {@link #evalFloat}
+     * without creating a {@link Value}.
+     *
+     * @param expression The expression.
+     * @return True if the expression is numeric.
+     * @since 3.0.0
+     */
+    public static boolean isNumeric(final @NotNull Expression expression) {
+        if (expression instanceof FloatExpression) {
+            return true;
+        } else if (expression instanceof BinaryExpression) {
+            final BinaryExpression.Op op = ((BinaryExpression) expression).op();
+            return op == BinaryExpression.Op.AND || op == BinaryExpression.Op.OR || EagerChains.isEager(op);
+        } else if (expression instanceof UnaryExpression) {
+            return ((UnaryExpression) expression).op() != UnaryExpression.Op.RETURN;
+        } else {
+            return false;
+        }
+    }
+
     public <R> @NotNull ExpressionInterpreter<R> createChild(final @Nullable R entity) {
         return new ExpressionInterpreter<>(entity, this.scope);
     }
@@ -185,6 +190,10 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
         return scope;
     }
 
+    public void pushReturnValue(final @Nullable Value value) {
+        this.returnValue = value;
+    }
+
     public @Nullable Value popReturnValue() {
         final Value val = this.returnValue;
         this.returnValue = null;
@@ -194,12 +203,12 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
     @Override
     public @NotNull Value visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
         final Value array = expression.array().visit(this);
-        final Value index = expression.index().visit(this);
+        final float index = evalFloat(expression.index());
         if (!(array instanceof ArrayValue)) {
             return Value.nil();
         } else {
             final Value[] values = ((ArrayValue) array).values();
-            final int validIndex = Math.max(0, (int) index.getAsNumber()) % values.length;
+            final int validIndex = Math.max(0, (int) index) % values.length;
             return values[validIndex];
         }
     }
@@ -215,97 +224,93 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
 
     @Override
     public @NotNull Value visitCall(final @NotNull CallExpression expression) {
-        final List<Expression> argumentsExpressions = expression.arguments();
-        final Function.Argument[] arguments = new Function.Argument[argumentsExpressions.size()];
-        for (int i = 0; i < argumentsExpressions.size(); i++) {
-            arguments[i] = new FunctionArgumentImpl(argumentsExpressions.get(i));
-        }
-        final Function.Arguments args = new FunctionArguments(arguments);
+        final Expression[] argumentsExpressions = expression.arguments().toArray(new Expression[0]);
+        final Function.Arguments args = new TierSupport.IndexedArguments(argumentsExpressions) {
+            @Override
+            protected @Nullable Value eval(final int index) {
+                return argumentsExpressions[index].visit(ExpressionInterpreter.this);
+            }
+        };
 
         final Expression functionExpr = expression.function();
-        if (functionExpr instanceof IdentifierExpression) {
-            final String identifierName = ((IdentifierExpression) functionExpr).name();
-            if ("loop".equals(identifierName)) {
-                // loop built-in function
-                // Parameters:
-                // - float:           How many times should we loop
-                // - CallableBinding:  The looped expressions
-                int n = Math.round(args.next().eval().getAsNumber());
-                Value expr = args.next().eval();
-
-                if (expr instanceof Function) {
-                    final Function<T> callable = (Function<T>) expr;
-                    for (int i = 0; i < n; i++) {
-                        final ExpressionInterpreter<T> evaluatorThisCall = createChild();
-                        callable.evaluate(evaluatorThisCall);
-                        if (evaluatorThisCall.flag() == StatementExpression.Op.BREAK) {
-                            break;
-                        }
-                        // (not necessary, callable already exits when returnValue
-                        //  is set to any non-null value)
-                        // if (value == StatementExpression.Op.CONTINUE) continue;
-                    }
-                }
-                return NumberValue.zero();
-            } else if ("for_each".equals(identifierName)) {
-                // for each built-in function
-                // Parameters:
-                // - any:              Variable
-                // - array:            Any array
-                // - CallableBinding:  The looped expressions
-                final Expression variableExpr = args.next().expression();
-                if (!(variableExpr instanceof AccessExpression)) {
-                    // first argument must be an access expression,
-                    // e.g. 'variable.test', 'v.pig', 't.entity' or
-                    // 't.entity.location.world'
-                    return NumberValue.zero();
-                }
-                final AccessExpression variableAccess = (AccessExpression) variableExpr;
-                final Expression objectExpr = variableAccess.object();
-                final String propertyName = variableAccess.property();
-
-                final Value array = args.next().eval();
-                final Iterable<Value> arrayIterable;
-                if (array instanceof ArrayValue) {
-                    arrayIterable = Arrays.asList(((ArrayValue) array).values());
-                } else {
-                    // second argument must be an array or iterable
-                    return NumberValue.zero();
-                }
+        final Value function = functionExpr.visit(this);
+        if (!(function instanceof Function)) {
+            return Value.nil();
+        }
+        return TierSupport.call(this, (Function<?>) function, args);
+    }
 
-                final Value expr = args.next().eval();
-
-                if (expr instanceof Function) {
-                    final Function callable = (Function) expr;
-                    for (final Value val : arrayIterable) {
-                        // set 'val' as current value
-                        // eval (objectExpr.propertyName = val)
-                        final Value evaluatedObjectValue = this.eval(objectExpr);
-                        if (evaluatedObjectValue instanceof MutableObjectBinding) {
-                            ((MutableObjectBinding) evaluatedObjectValue).set(propertyName, val);
-                        }
-                        final Object returnValue = callable.evaluate(this);
-
-                        if (returnValue == StatementExpression.Op.BREAK) {
-                            break;
-                        }
-                    }
+    @Override
+    public @NotNull Value visitLoop(final @NotNull LoopExpression expression) {
+        // loop built-in function
+        // Parameters:
+        // - float:           How many times should we loop
+        // - CallableBinding:  The looped expressions
+        int n = Math.round(evalFloat(expression.count()));
+        Value expr = expression.body().visit(this);
+
+        if (expr instanceof Function) {
+            final Function<T> callable = (Function<T>) expr;
+            for (int i = 0; i < n; i++) {
+                final ExpressionInterpreter<T> evaluatorThisCall = createChild();
+                callable.evaluate(evaluatorThisCall);
+                if (evaluatorThisCall.flag() == StatementExpression.Op.BREAK) {
+                    break;
                 }
-                return NumberValue.zero();
+                // (not necessary, callable already exits when returnValue
+                //  is set to any non-null value)
+                // if (value == StatementExpression.Op.CONTINUE) continue;
             }
         }
+        return NumberValue.zero();
+    }
 
-        final Value function = functionExpr.visit(this);
-        if (!(function instanceof Function)) {
-            return Value.nil();
+    @Override
+    public @NotNull Value visitForEach(final @NotNull ForEachExpression expression) {
+        // for each built-in function
+        // Parameters:
+        // - any:              Variable
+        // - array:            Any array
+        // - CallableBinding:  The looped expressions
+        final Expression variableExpr = expression.variable();
+        if (!(variableExpr instanceof AccessExpression)) {
+            // first argument must be an access expression,
+            // e.g. 'variable.test', 'v.pig', 't.entity' or
+            // 't.entity.location.world'
+            return NumberValue.zero();
         }
+        final AccessExpression variableAccess = (AccessExpression) variableExpr;
+        final Expression objectExpr = variableAccess.object();
+        final String propertyName = variableAccess.property();
 
-        if (warnOnReflectiveFunctionUsage && function instanceof JavaFunction) {
-            final JavaFunction<?> javaFunction = (JavaFunction<?>) function;
-            System.err.println("Warning: Reflective function usage detected for method: " + javaFunction.method());
+        final Value array = expression.array().visit(this);
+        final Iterable<Value> arrayIterable;
+        if (array instanceof ArrayValue) {
+            arrayIterable = Arrays.asList(((ArrayValue) array).values());
+        } else {
+            // second argument must be an array or iterable
+            return NumberValue.zero();
         }
 
-        return ((Function<T>) function).evaluate(this, args);
+        final Value expr = expression.body().visit(this);
+
+        if (expr instanceof Function) {
+            final Function callable = (Function) expr;
+            for (final Value val : arrayIterable) {
+                // set 'val' as current value
+                // eval (objectExpr.propertyName = val)
+                final Value evaluatedObjectValue = this.eval(objectExpr);
+                if (evaluatedObjectValue instanceof MutableObjectBinding) {
+                    ((MutableObjectBinding) evaluatedObjectValue).set(propertyName, val);
+                }
+                final Object returnValue = callable.evaluate(this);
+
+                if (returnValue == StatementExpression.Op.BREAK) {
+                    break;
+                }
+            }
+        }
+        return NumberValue.zero();
     }
 
     @Override
@@ -337,23 +342,105 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
 
     @Override
     public @NotNull Value visitBinary(@NotNull BinaryExpression expression) {
-        return BINARY_EVALUATORS.get(expression.op().ordinal()).eval(
-                this,
-                expression.left(),
-                expression.right()
-        );
+        switch (expression.op()) {
+            case ARROW:
+                return evalArrow(expression.left(), expression.right());
+            case NULL_COALESCE:
+                return evalNullCoalesce(expression.left(), expression.right());
+            case ASSIGN:
+                return evalAssign(expression.left(), expression.right());
+            case CONDITIONAL:
+                return evalConditional(expression.left(), expression.right());
+            default:
+                // arithmetic, comparison and logical operators
+                return NumberValue.of(evalFloat(expression));
+        }
+    }
+
+    private @NotNull Value evalArrow(final @NotNull Expression a, final @NotNull Expression b) {
+        final Value val = a.visit(this);
+        if (!(val instanceof JavaValue)) {
+            return NumberValue.zero();
+        } else {
+            return b.visit(createChild(((JavaValue) val).value()));
+        }
+    }
+
+    private @NotNull Value evalNullCoalesce(final @NotNull Expression a, final @NotNull Expression b) {
+        final Value val = a.visit(this);
+        if (val.getAsBoolean()) {
+            return val;
+        } else {
+            return b.visit(this);
+        }
+    }
+
+    private @NotNull Value evalAssign(final @NotNull Expression a, final @NotNull Expression b) {
+        final Value val = b.visit(this);
+        // we can only assign to values that are accessed
+        // like:
+        //      temp.x = 1
+        //      t.location.world = 'world'
+        // but not:
+        //      x = 1
+        //      i = 2
+        if (a instanceof AccessExpression) {
+            final AccessExpression access = (AccessExpression) a;
+            final Value objectValue = access.object().visit(this);
+            if (objectValue instanceof MutableObjectBinding) {
+                ((MutableObjectBinding) objectValue).set(access.property(), val);
+            }
+        }
+        return val;
+    }
+
+    private @NotNull Value evalConditional(final @NotNull Expression a, final @NotNull Expression b) {
+        if (evalBoolean(a)) {
+            final Value predicateVal = b.visit(this);
+            if (predicateVal instanceof Function) {
+                return Value.of(((Function) predicateVal).evaluate(this));
+            } else {
+                return predicateVal;
+            }
+        }
+        return NumberValue.zero();
+    }
+
+    static float operate(final @NotNull BinaryExpression.Op op, final float a, final float b) {
+        switch (op) {
+            case LT: return a < b ? 1.0F : 0.0F;
+            case LTE: return a <= b ? 1.0F : 0.0F;
+            case GT: return a > b ? 1.0F : 0.0F;
+            case GTE: return a >= b ? 1.0F : 0.0F;
+            case ADD: return TierSupport.number(a + b);
+            case SUB: return TierSupport.number(a - b);
+            case MUL: return TierSupport.number(a * b);
+            // Molang allows division by zero, which is always equal to 0
+            case DIV: return b == 0 ? 0 : TierSupport.number(a / b);
+            case EQ: return a == b ? 1.0F : 0.0F;
+            case NEQ: return a != b ? 1.0F : 0.0F;
+            default: throw new IllegalStateException("Unknown operation");
+        }
+    }
+
+    private float evalChain(final @NotNull BinaryExpression expression) {
+        // long chains are evaluated iteratively, see EagerChains
+        final BinaryExpression[] chain = EagerChains.collect(expression);
+        float value = evalFloat(chain[0].left());
+        for (final BinaryExpression binary : chain) {
+            value = operate(binary.op(), value, evalFloat(binary.right()));
+        }
+        return value;
     }
 
     @Override
     public @NotNull Value visitUnary(final @NotNull UnaryExpression expression) {
-        final Value value = expression.expression().visit(this);
         switch (expression.op()) {
             case LOGICAL_NEGATION:
-                return Value.of(!value.getAsBoolean());
             case ARITHMETICAL_NEGATION:
-                return NumberValue.of(-value.getAsNumber());
+                return NumberValue.of(evalFloat(expression));
             case RETURN: {
-                this.returnValue = value;
+                pushReturnValue(expression.expression().visit(this));
                 return NumberValue.zero();
             }
             default:
@@ -383,42 +470,20 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
 
     @Override
     public @NotNull Value visitTernaryConditional(@NotNull TernaryConditionalExpression expression) {
-        final Value conditionResult = expression.condition().visit(this);
-        return conditionResult.getAsBoolean()
+        return evalBoolean(expression.condition())
                 ? expression.trueExpression().visit(this)
                 : expression.falseExpression().visit(this);
     }
 
     @Override
     public Value visit(final @NotNull Expression expression) {
+        if (expression instanceof ResolvedExpression) {
+            // binding resolved before evaluating, see ExpressionResolver
+            return ((ResolvedExpression) expression).value();
+        }
         throw new UnsupportedOperationException("Unsupported expression type: " + expression);
     }
 
-    private interface Evaluator {
-        @NotNull Value eval(ExpressionInterpreter<?> evaluator, Expression a, Expression b);
-    }
-
-    private interface BooleanOperator {
-        boolean operate(LazyEvaluableBoolean a, LazyEvaluableBoolean b);
-    }
-
-    interface LazyEvaluableBoolean {
-        boolean eval();
-    }
-
-    interface LazyEvaluableFloat {
-        float eval();
-    }
-
-    private interface Comparator {
-        boolean compare(LazyEvaluableFloat a, LazyEvaluableFloat b);
-
-    }
-
-    private interface ArithmeticOperator {
-        float operate(LazyEvaluableFloat a, LazyEvaluableFloat b);
-    }
-
     public static class FunctionArguments implements Function.Arguments {
         public static final Function.Arguments EMPTY = new FunctionArguments(new Function.Argument[0]);
 
@@ -434,7 +499,7 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
             if (next < arguments.length) {
                 return arguments[next++];
             } else {
-                return EmptyFunctionArgument.EMPTY;
+                return TierSupport.MISSING_ARGUMENT;
             }
         }
 
@@ -443,36 +508,4 @@ public final class ExpressionInterpreter<T> implements ExpressionVisitor<Value>,
             return arguments.length;
         }
     }
-
-    private static class EmptyFunctionArgument implements Function.Argument {
-        static final Function.Argument EMPTY = new EmptyFunctionArgument();
-
-        @Override
-        public @Nullable Expression expression() {
-            return null;
-        }
-
-        @Override
-        public @Nullable Value eval() {
-            return NumberValue.zero();
-        }
-    }
-
-    private class FunctionArgumentImpl implements Function.Argument {
-        private final Expression expression;
-
-        FunctionArgumentImpl(final @NotNull Expression expression) {
-            this.expression = expression;
-        }
-
-        @Override
-        public @NotNull Expression expression() {
-            return expression;
-        }
-
-        @Override
-        public @Nullable Value eval() {
-            return expression.visit(ExpressionInterpreter.this);
-        }
-    }
 }
@@ -0,0 +1,314 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
+import team.unnamed.mocha.parser.ast.AccessExpression;
+import team.unnamed.mocha.parser.ast.ArrayAccessExpression;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+import team.unnamed.mocha.parser.ast.ForEachExpression;
+import team.unnamed.mocha.parser.ast.IdentifierExpression;
+import team.unnamed.mocha.parser.ast.LoopExpression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.StringExpression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+import team.unnamed.mocha.runtime.value.ObjectValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolves the identifiers and accesses of expressions that
+ * refer to bindings of a scope, so that the
+ * {@link ExpressionInterpreter} doesn't look them up by name
+ * in every evaluation.
+ *
+ * <p>Constant bindings (the ones set in the {@link Scope.Builder},
+ * like {@code math} or {@code query}) and constant properties
+ * of their values (like {@code math.sin} or {@code math.pi}) are
+ * replaced by their values, the same ones the bytecode compiler
+ * resolves. Properties of constant {@link MutableObjectBinding}s,
+ * like {@code variable.x}, are bound to their
+ * {@link MutableObjectBinding#property handles}, which are updated
+ * in place when the properties are set. Other bindings, like the
+ * ones set with {@link Scope#set} or the {@code temp} storage, are
+ * replaced every time they are set, so they are still looked up.</p>
+ *
+ * <p>The resolved expressions can only be evaluated by the
+ * interpreter. The given expressions are never modified,
+ * sub-expressions that don't refer to constant bindings
+ * are reused.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class ExpressionResolver {
+    private static final ObjectProperty ZERO = ObjectProperty.property(NumberValue.zero(), true);
+
+    private ExpressionResolver() {
+    }
+
+    /**
+     * Resolves the constant bindings referred by the given
+     * expressions, see {@link ExpressionResolver}.
+     *
+     * @param expressions The expressions to resolve.
+     * @param scope       The scope to resolve constant bindings from.
+     * @return A new list with the resolved expressions.
+     * @since 3.0.0
+     */
+    public static @NotNull List<Expression> resolveAll(final @NotNull List<Expression> expressions, final @NotNull Scope scope) {
+        requireNonNull(expressions, "expressions");
+        requireNonNull(scope, "scope");
+        return resolveAll(expressions, new Rewriter(scope));
+    }
+
+    private static @NotNull List<Expression> resolveAll(final @NotNull List<Expression> expressions, final @NotNull Rewriter rewriter) {
+        final List<Expression> resolved = new ArrayList<>(expressions.size());
+        for (final Expression expression : expressions) {
+            resolved.add(expression.visit(rewriter));
+        }
+        return resolved;
+    }
+
+    private static @Nullable List<Expression> rewriteList(final @NotNull List<Expression> expressions, final @NotNull Rewriter rewriter) {
+        // returns null if none of the expressions changed
+        List<Expression> result = null;
+        for (int i = 0, size = expressions.size(); i < size; i++) {
+            final Expression expression = expressions.get(i);
+            // call arguments may be null
+            final Expression rewritten = expression == null ? null : expression.visit(rewriter);
+            if (result == null && rewritten != expression) {
+                result = new ArrayList<>(expressions.subList(0, i));
+            }
+            if (result != null) {
+                result.add(rewritten);
+            }
+        }
+        return result;
+    }
+
+    private static final class Rewriter implements ExpressionVisitor<Expression> {
+        private final Scope scope;
+
+        Rewriter(final @NotNull Scope scope) {
+            this.scope = scope;
+        }
+
+        @Override
+        public @NotNull Expression visitArrayAccess(final @NotNull ArrayAccessExpression expression) {
+            final Expression array = expression.array().visit(this);
+            final Expression index = expression.index().visit(this);
+            if (array == expression.array() && index == expression.index()) {
+                return expression;
+            }
+            return new ArrayAccessExpression(array, index);
+        }
+
+        @Override
+        public @NotNull Expression visitFloat(final @NotNull FloatExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visitString(final @NotNull StringExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visitIdentifier(final @NotNull IdentifierExpression expression) {
+            final String name = expression.name();
+            if (ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
+                // the temp storage is different for every evaluation
+                return expression;
+            }
+            final ObjectProperty property = scope.getProperty(name);
+            if (property == null || !property.constant()) {
+                return expression;
+            }
+            return new ResolvedExpression(property, expression);
+        }
+
+        @Override
+        public @NotNull Expression visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            final Expression condition = expression.condition().visit(this);
+            final Expression trueExpression = expression.trueExpression().visit(this);
+            final Expression falseExpression = expression.falseExpression().visit(this);
+            if (condition == expression.condition()
+                    && trueExpression == expression.trueExpression()
+                    && falseExpression == expression.falseExpression()) {
+                return expression;
+            }
+            return new TernaryConditionalExpression(condition, trueExpression, falseExpression);
+        }
+
+        @Override
+        public @NotNull Expression visitUnary(final @NotNull UnaryExpression expression) {
+            final Expression operand = expression.expression().visit(this);
+            if (operand == expression.expression()) {
+                return expression;
+            }
+            return new UnaryExpression(expression.op(), operand);
+        }
+
+        @Override
+        public @NotNull Expression visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            if (!expression.resolved()) {
+                // keep it lazy, its expressions are resolved when
+                // they are requested for the first time
+                return expression.lazyTransform(expressions -> resolveAll(expressions, this));
+            }
+            final List<Expression> expressions = rewriteList(expression.expressions(), this);
+            if (expressions == null) {
+                return expression;
+            }
+            return new ExecutionScopeExpression(expressions);
+        }
+
+        @Override
+        public @NotNull Expression visitBinary(final @NotNull BinaryExpression expression) {
+            if (EagerChains.isEager(expression.op()) && EagerChains.isLong(expression)) {
+                return resolveChain(expression);
+            }
+            // assignment targets keep being accesses, only their objects are resolved
+            final Expression left = expression.op() == BinaryExpression.Op.ASSIGN
+                    ? resolveObject(expression.left())
+                    : expression.left().visit(this);
+            final Expression right = expression.right().visit(this);
+            if (left == expression.left() && right == expression.right()) {
+                return expression;
+            }
+            return new BinaryExpression(expression.op(), left, right);
+        }
+
+        private @NotNull Expression resolveChain(final @NotNull BinaryExpression expression) {
+            // long chains are resolved iteratively, see EagerChains
+            final BinaryExpression[] chain = EagerChains.collect(expression);
+            Expression resolved = chain[0].left().visit(this);
+            for (final BinaryExpression binary : chain) {
+                final Expression right = binary.right().visit(this);
+                resolved = resolved == binary.left() && right == binary.right()
+                        ? binary
+                        : new BinaryExpression(binary.op(), resolved, right);
+            }
+            return resolved;
+        }
+
+        @Override
+        public @NotNull Expression visitAccess(final @NotNull AccessExpression expression) {
+            final Expression object = expression.object().visit(this);
+            final Value objectValue = object instanceof ResolvedExpression && ((ResolvedExpression) object).constant()
+                    ? ((ResolvedExpression) object).value()
+                    : null;
+            if (objectValue != null && objectValue.getClass() == MutableObjectBinding.class) {
+                // subclasses may not update the handles when set
+                return new ResolvedExpression(((MutableObjectBinding) objectValue).property(expression.property()), expression);
+            } else if (objectValue instanceof ObjectValue) {
+                final ObjectProperty property = ((ObjectValue) objectValue).getProperty(expression.property());
+                if (property != null && property.constant()) {
+                    return new ResolvedExpression(property, expression);
+                }
+            } else if (objectValue != null) {
+                // accessing a property of something that isn't an object is zero
+                return new ResolvedExpression(ZERO, expression);
+            }
+            if (object == expression.object()) {
+                return expression;
+            }
+            return new AccessExpression(object, expression.property());
+        }
+
+        private @NotNull Expression resolveObject(final @NotNull Expression expression) {
+            if (!(expression instanceof AccessExpression)) {
+                return expression.visit(this);
+            }
+            final AccessExpression access = (AccessExpression) expression;
+            final Expression object = access.object().visit(this);
+            if (object == access.object()) {
+                return expression;
+            }
+            return new AccessExpression(object, access.property());
+        }
+
+        @Override
+        public @NotNull Expression visitCall(final @NotNull CallExpression expression) {
+            final Expression function = expression.function().visit(this);
+            final List<Expression> arguments = rewriteList(expression.arguments(), this);
+            if (function == expression.function() && arguments == null) {
+                return expression;
+            }
+            return new CallExpression(function, arguments == null ? expression.arguments() : arguments);
+        }
+
+        @Override
+        public @NotNull Expression visitLoop(final @NotNull LoopExpression expression) {
+            final Expression count = expression.count().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (count == expression.count() && body == expression.body()) {
+                return expression;
+            }
+            return new LoopExpression(count, body);
+        }
+
+        @Override
+        public @NotNull Expression visitForEach(final @NotNull ForEachExpression expression) {
+            // the variable keeps being an access, only its object is resolved
+            final Expression variable = resolveObject(expression.variable());
+            final Expression array = expression.array().visit(this);
+            final Expression body = expression.body().visit(this);
+            if (variable == expression.variable()
+                    && array == expression.array()
+                    && body == expression.body()) {
+                return expression;
+            }
+            return new ForEachExpression(variable, array, body);
+        }
+
+        @Override
+        public @NotNull Expression visitStatement(final @NotNull StatementExpression expression) {
+            return expression;
+        }
+
+        @Override
+        public @NotNull Expression visit(final @NotNull Expression expression) {
+            // unknown expression type, keep it as is
+            return expression;
+        }
+    }
+}
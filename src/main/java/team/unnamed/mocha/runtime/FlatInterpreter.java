@@ -0,0 +1,448 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.FlatProgram;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.StatementExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+import team.unnamed.mocha.runtime.value.ArrayValue;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.JavaValue;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.ObjectValue;
+import team.unnamed.mocha.runtime.value.StringValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluates a {@link FlatProgram} by walking its nodes, without
+ * converting it back to expression trees, so that programs can be
+ * kept in their compact form and still be evaluated.
+ *
+ * <p>Every node is evaluated the same way the {@link ExpressionInterpreter}
+ * evaluates the equal expression, using the state of the given
+ * interpreter: its bindings, return value and flags.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class FlatInterpreter {
+    private final FlatProgram program;
+    private final ExpressionInterpreter<?> context;
+
+    /**
+     * Creates an interpreter for the given program.
+     *
+     * @param program The program.
+     * @param context The interpreter that holds the evaluation state.
+     * @since 3.0.0
+     */
+    public FlatInterpreter(final @NotNull FlatProgram program, final @NotNull ExpressionInterpreter<?> context) {
+        this.program = requireNonNull(program, "program");
+        this.context = requireNonNull(context, "context");
+    }
+
+    /**
+     * Evaluates every top-level expression of the program, same
+     * as evaluating them one by one with the interpreter.
+     *
+     * @return The result of the last expression, or the returned value
+     * @since 3.0.0
+     */
+    public float eval() {
+        float lastResult = 0F;
+        for (int i = 0, count = program.rootCount(); i < count; i++) {
+            final int root = program.root(i);
+            if (root == -1) {
+                continue;
+            }
+            lastResult = evalFloat(root);
+            final Value returnValue = context.popReturnValue();
+            if (returnValue != null) {
+                return returnValue.getAsNumber();
+            }
+        }
+        return lastResult;
+    }
+
+    /**
+     * Evaluates the given node as a number, see {@link ExpressionInterpreter#evalFloat}.
+     *
+     * @param node The node index.
+     * @return The evaluated number
+     * @since 3.0.0
+     */
+    public float evalFloat(final int node) {
+        switch (program.kind(node)) {
+            case FLOAT:
+                return TierSupport.number(program.number(node));
+            case BINARY: {
+                final BinaryExpression.Op op = program.binaryOp(node);
+                switch (op) {
+                    case AND:
+                        return evalBoolean(program.operand(node, 0)) && evalBoolean(program.operand(node, 1)) ? 1.0F : 0.0F;
+                    case OR:
+                        return evalBoolean(program.operand(node, 0)) || evalBoolean(program.operand(node, 1)) ? 1.0F : 0.0F;
+                    default:
+                        if (EagerChains.isEager(op)) {
+                            if (isLongChain(node)) {
+                                return evalChain(node);
+                            }
+                            return ExpressionInterpreter.operate(op, evalFloat(program.operand(node, 0)), evalFloat(program.operand(node, 1)));
+                        }
+                        break;
+                }
+                break;
+            }
+            case UNARY:
+                switch (program.unaryOp(node)) {
+                    case LOGICAL_NEGATION:
+                        return evalBoolean(program.operand(node, 0)) ? 0.0F : 1.0F;
+                    case ARITHMETICAL_NEGATION:
+                        return TierSupport.number(-evalFloat(program.operand(node, 0)));
+                    default:
+                        break;
+                }
+                break;
+            case TERNARY_CONDITIONAL:
+                return evalBoolean(program.operand(node, 0))
+                        ? evalFloat(program.operand(node, 1))
+                        : evalFloat(program.operand(node, 2));
+            default:
+                break;
+        }
+
+        // not a numeric expression, e.g. accesses, calls, assignations
+        return eval(node).getAsNumber();
+    }
+
+    /**
+     * Evaluates the given node as a boolean, see {@link ExpressionInterpreter#evalBoolean}.
+     *
+     * @param node The node index.
+     * @return The evaluated boolean
+     * @since 3.0.0
+     */
+    public boolean evalBoolean(final int node) {
+        if (isNumeric(node)) {
+            return evalFloat(node) != 0.0F;
+        }
+        // strings, arrays and objects have their own truthiness
+        return eval(node).getAsBoolean();
+    }
+
+    /**
+     * Evaluates the given node, same as visiting the equal
+     * expression with the {@link ExpressionInterpreter}.
+     *
+     * @param node The node index.
+     * @return The evaluated value
+     * @since 3.0.0
+     */
+    public @NotNull Value eval(final int node) {
+        switch (program.kind(node)) {
+            case FLOAT:
+                return NumberValue.of(program.number(node));
+            case STRING:
+                return StringValue.of(program.string(node));
+            case IDENTIFIER:
+                return context.bindings().get(program.string(node));
+            case ACCESS: {
+                final Value object = eval(program.operand(node, 0));
+                if (object instanceof ObjectValue) {
+                    return ((ObjectValue) object).get(program.string(node));
+                }
+                return NumberValue.zero();
+            }
+            case ARRAY_ACCESS: {
+                final Value array = eval(program.operand(node, 0));
+                final float index = evalFloat(program.operand(node, 1));
+                if (!(array instanceof ArrayValue)) {
+                    return Value.nil();
+                }
+                final Value[] values = ((ArrayValue) array).values();
+                return values[Math.max(0, (int) index) % values.length];
+            }
+            case BINARY:
+                return evalBinary(node);
+            case UNARY:
+                if (program.unaryOp(node) == UnaryExpression.Op.RETURN) {
+                    context.pushReturnValue(eval(program.operand(node, 0)));
+                    return NumberValue.zero();
+                }
+                return NumberValue.of(evalFloat(node));
+            case TERNARY_CONDITIONAL:
+                return evalBoolean(program.operand(node, 0))
+                        ? eval(program.operand(node, 1))
+                        : eval(program.operand(node, 2));
+            case CALL:
+                return evalCall(node);
+            case EXECUTION_SCOPE:
+                return new ScopeFunction(program, node);
+            case STATEMENT:
+                context.flag(program.statementOp(node));
+                return NumberValue.zero();
+            case LOOP:
+                return evalLoop(node);
+            case FOR_EACH:
+                return evalForEach(node);
+            default:
+                throw new IllegalStateException("Unknown node kind: " + program.kind(node));
+        }
+    }
+
+    private boolean isNumeric(final int node) {
+        // same as ExpressionInterpreter.isNumeric
+        switch (program.kind(node)) {
+            case FLOAT:
+                return true;
+            case BINARY: {
+                final BinaryExpression.Op op = program.binaryOp(node);
+                return op == BinaryExpression.Op.AND || op == BinaryExpression.Op.OR || EagerChains.isEager(op);
+            }
+            case UNARY:
+                return program.unaryOp(node) != UnaryExpression.Op.RETURN;
+            default:
+                return false;
+        }
+    }
+
+    private @NotNull Value evalBinary(final int node) {
+        final int left = program.operand(node, 0);
+        final int right = program.operand(node, 1);
+        switch (program.binaryOp(node)) {
+            case ARROW: {
+                final Value value = eval(left);
+                if (!(value instanceof JavaValue)) {
+                    return NumberValue.zero();
+                }
+                return new FlatInterpreter(program, context.createChild(((JavaValue) value).value())).eval(right);
+            }
+            case NULL_COALESCE: {
+                final Value value = eval(left);
+                return value.getAsBoolean() ? value : eval(right);
+            }
+            case ASSIGN: {
+                final Value value = eval(right);
+                // we can only assign to accessed values, like "t.x = 1"
+                if (program.kind(left) == FlatProgram.Kind.ACCESS) {
+                    final Value object = eval(program.operand(left, 0));
+                    if (object instanceof MutableObjectBinding) {
+                        ((MutableObjectBinding) object).set(program.string(left), value);
+                    }
+                }
+                return value;
+            }
+            case CONDITIONAL: {
+                if (!evalBoolean(left)) {
+                    return NumberValue.zero();
+                }
+                final Value value = eval(right);
+                if (value instanceof Function) {
+                    return Value.of(TierSupport.evaluate((Function<?>) value, context));
+                }
+                return value;
+            }
+            default:
+                // arithmetic, comparison and logical operators
+                return NumberValue.of(evalFloat(node));
+        }
+    }
+
+    //
+    // Long "a + b + c + ..." chains are evaluated iteratively, same as
+    // the interpreter does, see EagerChains
+    //
+    private boolean isLongChain(final int node) {
+        int left = program.operand(node, 0);
+        for (int length = 0; length < EagerChains.THRESHOLD; length++) {
+            if (!isEagerBinary(left)) {
+                return false;
+            }
+            left = program.operand(left, 0);
+        }
+        return true;
+    }
+
+    private float evalChain(final int node) {
+        int length = 0;
+        int left = node;
+        while (isEagerBinary(left)) {
+            length++;
+            left = program.operand(left, 0);
+        }
+
+        // innermost operator first
+        final int[] chain = new int[length];
+        left = node;
+        for (int i = length - 1; i >= 0; i--) {
+            chain[i] = left;
+            left = program.operand(left, 0);
+        }
+
+        float value = evalFloat(left);
+        for (final int binary : chain) {
+            value = ExpressionInterpreter.operate(program.binaryOp(binary), value, evalFloat(program.operand(binary, 1)));
+        }
+        return value;
+    }
+
+    private boolean isEagerBinary(final int node) {
+        return program.kind(node) == FlatProgram.Kind.BINARY && EagerChains.isEager(program.binaryOp(node));
+    }
+
+    private @NotNull Value evalCall(final int node) {
+        final Function.Arguments arguments = new Arguments(node);
+        final Value function = eval(program.operand(node, 0));
+        if (!(function instanceof Function)) {
+            return Value.nil();
+        }
+        return Value.of(TierSupport.call(context, (Function<?>) function, arguments));
+    }
+
+    private @NotNull Value evalLoop(final int node) {
+        final int count = Math.round(evalFloat(program.operand(node, 0)));
+        final Value body = eval(program.operand(node, 1));
+        if (body instanceof Function) {
+            for (int i = 0; i < count; i++) {
+                final ExpressionInterpreter<?> iteration = context.createChild();
+                TierSupport.evaluate((Function<?>) body, iteration);
+                if (iteration.flag() == StatementExpression.Op.BREAK) {
+                    break;
+                }
+            }
+        }
+        return NumberValue.zero();
+    }
+
+    private @NotNull Value evalForEach(final int node) {
+        final int variable = program.operand(node, 0);
+        if (program.kind(variable) != FlatProgram.Kind.ACCESS) {
+            // the variable must be an access, e.g. "t.item"
+            return NumberValue.zero();
+        }
+        final Value array = eval(program.operand(node, 1));
+        if (!(array instanceof ArrayValue)) {
+            return NumberValue.zero();
+        }
+        final Value body = eval(program.operand(node, 2));
+        if (body instanceof Function) {
+            final int object = program.operand(variable, 0);
+            final String property = program.string(variable);
+            for (final Value element : ((ArrayValue) array).values()) {
+                final Value objectValue = eval(object);
+                if (objectValue instanceof MutableObjectBinding) {
+                    ((MutableObjectBinding) objectValue).set(property, element);
+                }
+                // same as the interpreter, break statements set the flag of
+                // the context, that only stops the current body
+                TierSupport.evaluate((Function<?>) body, context);
+            }
+        }
+        return NumberValue.zero();
+    }
+
+    // the arguments of a call node, their expressions are only
+    // created if a function asks for them
+    private final class Arguments implements Function.Arguments {
+        private final int node;
+        private int next;
+
+        Arguments(final int node) {
+            this.node = node;
+        }
+
+        @Override
+        public @NotNull Function.Argument next() {
+            if (next < length()) {
+                return new Argument(program.operand(node, 1 + next++));
+            }
+            return TierSupport.MISSING_ARGUMENT;
+        }
+
+        @Override
+        public int length() {
+            return program.operandCount(node) - 1;
+        }
+    }
+
+    private final class Argument implements Function.Argument {
+        private final int node;
+
+        Argument(final int node) {
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Expression expression() {
+            return node == -1 ? null : program.toExpression(node);
+        }
+
+        @Override
+        public @Nullable Value eval() {
+            return node == -1 ? Value.nil() : FlatInterpreter.this.eval(node);
+        }
+    }
+
+    // the function an execution scope node evaluates to
+    private static final class ScopeFunction implements Function<Object> {
+        private final FlatProgram program;
+        private final int node;
+
+        ScopeFunction(final @NotNull FlatProgram program, final int node) {
+            this.program = program;
+            this.node = node;
+        }
+
+        @Override
+        public @Nullable Value evaluate(final @NotNull ExecutionContext<Object> context, final @NotNull Function.Arguments arguments) {
+            final FlatInterpreter interpreter = context instanceof ExpressionInterpreter
+                    ? new FlatInterpreter(program, (ExpressionInterpreter<?>) context)
+                    : null;
+            for (int i = 0, count = program.operandCount(node); i < count; i++) {
+                final int child = program.operand(node, i);
+                // eval expression, ignore result
+                if (interpreter != null) {
+                    interpreter.eval(child);
+                } else {
+                    // called by a function binding with its own context
+                    context.eval(program.toExpression(child));
+                }
+
+                // check for break and continue statements
+                if (context.flag() != null) {
+                    break;
+                }
+            }
+            return NumberValue.zero();
+        }
+    }
+}
@@ -151,6 +151,20 @@ public final class IsConstantExpression implements ExpressionVisitor<@NotNull Bo
         return property.constant();
     }
 
+    @Override
+    public @NotNull Boolean visitLoop(final @NotNull LoopExpression expression) {
+        // built-in function, constant if all of its arguments are constant
+        return expression.count().visit(this) && expression.body().visit(this);
+    }
+
+    @Override
+    public @NotNull Boolean visitForEach(final @NotNull ForEachExpression expression) {
+        // built-in function, constant if all of its arguments are constant
+        return expression.variable().visit(this)
+                && expression.array().visit(this)
+                && expression.body().visit(this);
+    }
+
     @Override
     public @NotNull Boolean visitCall(final @NotNull CallExpression expression) {
         for (final Expression argument : expression.arguments()) {
@@ -162,14 +176,6 @@ public final class IsConstantExpression implements ExpressionVisitor<@NotNull Bo
 
         final Expression functionExpr = expression.function();
 
-        // check for built-in functions
-        if (functionExpr instanceof IdentifierExpression) {
-            final String name = ((IdentifierExpression) functionExpr).name();
-            if (name.equalsIgnoreCase("loop") || name.equalsIgnoreCase("for_each")) {
-                return true;
-            }
-        }
-
         if (!functionExpr.visit(this)) {
             // function is not constant (reference to this function may variate,
             //   this doesn't indicate if the function is pure/inlineable)
@@ -30,6 +30,7 @@ import javassist.bytecode.Bytecode;
 import javassist.bytecode.Descriptor;
 import javassist.bytecode.Opcode;
 import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
 import team.unnamed.mocha.parser.ast.*;
 import team.unnamed.mocha.runtime.binding.Entity;
 import team.unnamed.mocha.runtime.binding.JavaFieldBinding;
@@ -121,7 +122,7 @@ final class MolangCompilingVisitor implements ExpressionVisitor<CompileVisitResu
                     final String name = ((IdentifierExpression) objectExpr).name();
                     final String property = ((AccessExpression) left).property();
 
-                    if (name.equals("temp") || name.equals("t")) {
+                    if (ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
                         final CompileVisitResult result = expression.right().visit(this);
                         final int localIndex = localsByName.computeIfAbsent(property, k -> {
                             int index = functionCompileState.maxLocals();
@@ -506,7 +507,7 @@ final class MolangCompilingVisitor implements ExpressionVisitor<CompileVisitResu
 
         if (objectExpr instanceof IdentifierExpression) {
             final String name = ((IdentifierExpression) objectExpr).name();
-            if (name.equals("temp") || name.equals("t")) {
+            if (ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
                 // temps are locals
                 final Integer localIndex = localsByName.get(property);
                 if (localIndex == null) {
@@ -572,6 +573,22 @@ final class MolangCompilingVisitor implements ExpressionVisitor<CompileVisitResu
         return null;
     }
 
+    @Override
+    public CompileVisitResult visitLoop(final @NotNull LoopExpression expression) {
+        // loops are not supported by the compiler yet, they are
+        // compiled as a 0, like calls to unknown functions
+        bytecode.addOpcode(Opcode.FCONST_0);
+        return new CompileVisitResult(CtClass.floatType);
+    }
+
+    @Override
+    public CompileVisitResult visitForEach(final @NotNull ForEachExpression expression) {
+        // for-each loops are not supported by the compiler yet, they
+        // are compiled as a 0, like calls to unknown functions
+        bytecode.addOpcode(Opcode.FCONST_0);
+        return new CompileVisitResult(CtClass.floatType);
+    }
+
     @Override
     public CompileVisitResult visitCall(final @NotNull CallExpression expression) {
         final Scope scope = functionCompileState.scope();
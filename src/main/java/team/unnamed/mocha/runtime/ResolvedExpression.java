@@ -0,0 +1,68 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An identifier or access expression resolved to a property
+ * by {@link ExpressionResolver}, only known by the
+ * {@link ExpressionInterpreter}.
+ *
+ * <p>The property is either constant, or a handle that is
+ * updated in place when the property is set.</p>
+ */
+final class ResolvedExpression implements Expression {
+    private final ObjectProperty property;
+    private final Expression original;
+
+    ResolvedExpression(final @NotNull ObjectProperty property, final @NotNull Expression original) {
+        this.property = requireNonNull(property, "property");
+        this.original = requireNonNull(original, "original");
+    }
+
+    @NotNull Value value() {
+        return property.value();
+    }
+
+    boolean constant() {
+        return property.constant();
+    }
+
+    @Override
+    public <R> R visit(final @NotNull ExpressionVisitor<R> visitor) {
+        return visitor.visit(this);
+    }
+
+    @Override
+    public String toString() {
+        return original.toString();
+    }
+}
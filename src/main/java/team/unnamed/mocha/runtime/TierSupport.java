@@ -0,0 +1,190 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.binding.JavaFunction;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Evaluation helpers shared by the {@link ExpressionInterpreter}
+ * and the tree and virtual machine tiers, so that all of them
+ * compute the same numbers and call functions the same way.
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class TierSupport {
+    /**
+     * The argument given to functions that ask for more arguments
+     * than the ones passed, evaluates to zero.
+     *
+     * @since 3.0.0
+     */
+    public static final Function.Argument MISSING_ARGUMENT = new MissingArgument();
+
+    private TierSupport() {
+    }
+
+    /**
+     * Returns the number a {@link NumberValue} would hold for the
+     * given value, i.e. NaN, infinities and negative zero are zero.
+     *
+     * @param value The value.
+     * @return The number.
+     * @since 3.0.0
+     */
+    public static float number(final float value) {
+        // single branch for finite values, since this runs for
+        // every arithmetic operation
+        return value != 0 && Math.abs(value) <= Float.MAX_VALUE ? value : 0.0F;
+    }
+
+    /**
+     * Calls the given function with the given arguments, in
+     * the given context.
+     *
+     * @param context   The context that evaluates the call.
+     * @param function  The function.
+     * @param arguments The arguments.
+     * @return The function result.
+     * @since 3.0.0
+     */
+    public static @Nullable Value call(final @NotNull ExpressionInterpreter<?> context, final @NotNull Function<?> function, final Function.@NotNull Arguments arguments) {
+        if (context.warnOnReflectiveFunctionUsage() && function instanceof JavaFunction) {
+            final JavaFunction<?> javaFunction = (JavaFunction<?>) function;
+            System.err.println("Warning: Reflective function usage detected for method: " + javaFunction.method());
+        }
+
+        // functions are bound to the same entity type as the context
+        // that evaluates them, the types just can't express it here
+        @SuppressWarnings("unchecked")
+        final Function<Object> typedFunction = (Function<Object>) function;
+        @SuppressWarnings("unchecked")
+        final ExpressionInterpreter<Object> typedContext = (ExpressionInterpreter<Object>) context;
+        return typedFunction.evaluate(typedContext, arguments);
+    }
+
+    /**
+     * Evaluates the given function without arguments in the given
+     * context, like execution scopes are evaluated by loops and the
+     * conditional operator.
+     *
+     * @param function The function.
+     * @param context  The context that evaluates it.
+     * @return The function result.
+     * @since 3.0.0
+     */
+    public static @Nullable Value evaluate(final @NotNull Function<?> function, final @NotNull ExpressionInterpreter<?> context) {
+        // same as call(...), without the reflective usage warning
+        @SuppressWarnings("unchecked")
+        final Function<Object> typedFunction = (Function<Object>) function;
+        @SuppressWarnings("unchecked")
+        final ExpressionInterpreter<Object> typedContext = (ExpressionInterpreter<Object>) context;
+        return typedFunction.evaluate(typedContext);
+    }
+
+    /**
+     * The arguments of a call, evaluated by index, on demand.
+     *
+     * <p>They are created for every call, since functions may
+     * keep them, or evaluate them after a nested call.</p>
+     *
+     * @since 3.0.0
+     */
+    public abstract static class IndexedArguments implements Function.Arguments {
+        private final Expression[] expressions;
+        private int next;
+
+        /**
+         * Creates the arguments of a call.
+         *
+         * @param expressions The argument expressions.
+         * @since 3.0.0
+         */
+        protected IndexedArguments(final @NotNull Expression @NotNull [] expressions) {
+            this.expressions = requireNonNull(expressions, "expressions");
+        }
+
+        /**
+         * Evaluates the argument at the given index.
+         *
+         * @param index The argument index.
+         * @return The argument value.
+         * @since 3.0.0
+         */
+        protected abstract @Nullable Value eval(final int index);
+
+        @Override
+        public Function.@NotNull Argument next() {
+            if (next < expressions.length) {
+                return new Argument(next++);
+            } else {
+                return MISSING_ARGUMENT;
+            }
+        }
+
+        @Override
+        public int length() {
+            return expressions.length;
+        }
+
+        private final class Argument implements Function.Argument {
+            private final int index;
+
+            Argument(final int index) {
+                this.index = index;
+            }
+
+            @Override
+            public @NotNull Expression expression() {
+                return expressions[index];
+            }
+
+            @Override
+            public @Nullable Value eval() {
+                return IndexedArguments.this.eval(index);
+            }
+        }
+    }
+
+    private static final class MissingArgument implements Function.Argument {
+        @Override
+        public @Nullable Expression expression() {
+            return null;
+        }
+
+        @Override
+        public @Nullable Value eval() {
+            return NumberValue.zero();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+final class AssignNode extends Node {
+    // null if the assigned expression is not an access,
+    // in that case, the value is evaluated but not assigned
+    private final @Nullable Node object;
+    private final @Nullable String property;
+    private final Node value;
+
+    AssignNode(final @Nullable Node object, final @Nullable String property, final @NotNull Node value) {
+        this.object = object;
+        this.property = property;
+        this.value = requireNonNull(value, "value");
+    }
+
+    @Override
+    @Nullable Value value(final @NotNull ExpressionInterpreter<?> context) {
+        final Value val = value.value(context);
+        if (object != null) {
+            final Value objectValue = object.value(context);
+            if (objectValue instanceof MutableObjectBinding) {
+                //noinspection DataFlowIssue
+                ((MutableObjectBinding) objectValue).set(property, val);
+            }
+        }
+        return val;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+
+import static java.util.Objects.requireNonNull;
+import static team.unnamed.mocha.runtime.TierSupport.number;
+
+abstract class BinaryNode extends NumberNode {
+    final Node left;
+    final Node right;
+
+    BinaryNode(final @NotNull Node left, final @NotNull Node right) {
+        this.left = requireNonNull(left, "left");
+        this.right = requireNonNull(right, "right");
+    }
+
+    static @NotNull BinaryNode of(final @NotNull BinaryExpression.Op op, final @NotNull Node left, final @NotNull Node right) {
+        switch (op) {
+            case AND: return new And(left, right);
+            case OR: return new Or(left, right);
+            case LT: return new Lt(left, right);
+            case LTE: return new Lte(left, right);
+            case GT: return new Gt(left, right);
+            case GTE: return new Gte(left, right);
+            case ADD: return new Add(left, right);
+            case SUB: return new Sub(left, right);
+            case MUL: return new Mul(left, right);
+            case DIV: return new Div(left, right);
+            case EQ: return new Eq(left, right);
+            case NEQ: return new Neq(left, right);
+            default: throw new IllegalArgumentException("Not a numeric operator: " + op);
+        }
+    }
+
+    static float operate(final @NotNull BinaryExpression.Op op, final float a, final float b) {
+        switch (op) {
+            case LT: return a < b ? 1.0F : 0.0F;
+            case LTE: return a <= b ? 1.0F : 0.0F;
+            case GT: return a > b ? 1.0F : 0.0F;
+            case GTE: return a >= b ? 1.0F : 0.0F;
+            case ADD: return number(a + b);
+            case SUB: return number(a - b);
+            case MUL: return number(a * b);
+            // Molang allows division by zero, which is always equal to 0
+            case DIV: return b == 0 ? 0 : number(a / b);
+            case EQ: return a == b ? 1.0F : 0.0F;
+            case NEQ: return a != b ? 1.0F : 0.0F;
+            default: throw new IllegalStateException("Unknown operation");
+        }
+    }
+
+    static final class And extends BinaryNode {
+        And(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.test(context) && right.test(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Or extends BinaryNode {
+        Or(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.test(context) || right.test(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Lt extends BinaryNode {
+        Lt(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) < right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Lte extends BinaryNode {
+        Lte(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) <= right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Gt extends BinaryNode {
+        Gt(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) > right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Gte extends BinaryNode {
+        Gte(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) >= right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Add extends BinaryNode {
+        Add(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return number(left.eval(context) + right.eval(context));
+        }
+    }
+
+    static final class Sub extends BinaryNode {
+        Sub(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return number(left.eval(context) - right.eval(context));
+        }
+    }
+
+    static final class Mul extends BinaryNode {
+        Mul(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return number(left.eval(context) * right.eval(context));
+        }
+    }
+
+    static final class Div extends BinaryNode {
+        Div(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            final float dividend = left.eval(context);
+            final float divisor = right.eval(context);
+            // Molang allows division by zero, which is always equal to 0
+            return divisor == 0 ? 0 : number(dividend / divisor);
+        }
+    }
+
+    static final class Eq extends BinaryNode {
+        Eq(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) == right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+
+    static final class Neq extends BinaryNode {
+        Neq(final @NotNull Node left, final @NotNull Node right) {
+            super(left, right);
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return left.eval(context) != right.eval(context) ? 1.0F : 0.0F;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node for long left-leaning chains of eager operators, like
+ * "a + b + c + ...", evaluated iteratively so that they don't
+ * need a stack frame per operator.
+ */
+final class ChainNode extends NumberNode {
+    private final Node first;
+    private final BinaryExpression.Op[] ops;
+    private final Node[] operands;
+
+    ChainNode(final @NotNull Node first, final BinaryExpression.Op @NotNull [] ops, final @NotNull Node @NotNull [] operands) {
+        this.first = requireNonNull(first, "first");
+        this.ops = requireNonNull(ops, "ops");
+        this.operands = requireNonNull(operands, "operands");
+    }
+
+    @Override
+    float eval(final @NotNull ExpressionInterpreter<?> context) {
+        float value = first.eval(context);
+        for (int i = 0; i < ops.length; i++) {
+            value = BinaryNode.operate(ops[i], value, operands[i].eval(context));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.TierSupport;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node for the conditional operator, e.g. {@code q.a ? { ... }},
+ * the body is called if it is a function, like execution scopes.
+ */
+final class ConditionalNode extends Node {
+    private final Node condition;
+    private final Node body;
+
+    ConditionalNode(final @NotNull Node condition, final @NotNull Node body) {
+        this.condition = requireNonNull(condition, "condition");
+        this.body = requireNonNull(body, "body");
+    }
+
+    @Override
+    @Nullable Value value(final @NotNull ExpressionInterpreter<?> context) {
+        if (!condition.test(context)) {
+            return NumberValue.zero();
+        }
+        final Value value = body.value(context);
+        if (value instanceof Function) {
+            return Value.of(TierSupport.evaluate((Function<?>) value, context));
+        }
+        return value;
+    }
+}
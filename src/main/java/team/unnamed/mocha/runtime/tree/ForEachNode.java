@@ -0,0 +1,75 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.TierSupport;
+import team.unnamed.mocha.runtime.value.ArrayValue;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Node for the {@code for_each(variable, array, body)} built-in
+ * function, the variable must be an access, e.g. {@code t.item}.
+ */
+final class ForEachNode extends Node {
+    private final Node object;
+    private final String property;
+    private final Node array;
+    private final Node body;
+
+    ForEachNode(final @NotNull Node object, final @NotNull String property, final @NotNull Node array, final @NotNull Node body) {
+        this.object = requireNonNull(object, "object");
+        this.property = requireNonNull(property, "property");
+        this.array = requireNonNull(array, "array");
+        this.body = requireNonNull(body, "body");
+    }
+
+    @Override
+    @NotNull Value value(final @NotNull ExpressionInterpreter<?> context) {
+        final Value arrayValue = array.value(context);
+        if (!(arrayValue instanceof ArrayValue)) {
+            return NumberValue.zero();
+        }
+        final Value value = body.value(context);
+        if (value instanceof Function) {
+            final Function<?> function = (Function<?>) value;
+            for (final Value element : ((ArrayValue) arrayValue).values()) {
+                final Value objectValue = object.value(context);
+                if (objectValue instanceof MutableObjectBinding) {
+                    ((MutableObjectBinding) objectValue).set(property, element);
+                }
+                // same as the interpreter, break statements set the flag of
+                // the context, that only stops the current body
+                TierSupport.evaluate(function, context);
+            }
+        }
+        return NumberValue.zero();
+    }
+}
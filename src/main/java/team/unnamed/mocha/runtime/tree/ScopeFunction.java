@@ -0,0 +1,108 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.ExecutionContext;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The function an execution scope evaluates to, same as the
+ * one created by the interpreter, but its expressions are built
+ * to nodes once and shared by every evaluation.
+ *
+ * <p>Nodes of lazy execution scopes are built the first time
+ * the scope is evaluated, like the interpreter parses them the
+ * first time it visits them, see {@link ScopeNode}.</p>
+ */
+final class ScopeFunction implements Function<Object> {
+    private final ExecutionScopeExpression scope;
+    private final TreeBuilder builder;
+
+    // null until built
+    private volatile Node @Nullable [] statements;
+
+    ScopeFunction(final @NotNull ExecutionScopeExpression scope, final @NotNull TreeBuilder builder) {
+        this.scope = requireNonNull(scope, "scope");
+        this.builder = requireNonNull(builder, "builder");
+        if (scope.resolved()) {
+            this.statements = build();
+        }
+    }
+
+    private @NotNull Node @NotNull [] build() {
+        final List<Expression> expressions = scope.expressions();
+        final Node[] statements = new Node[expressions.size()];
+        for (int i = 0; i < statements.length; i++) {
+            statements[i] = expressions.get(i).visit(builder);
+        }
+        return statements;
+    }
+
+    @NotNull Node @NotNull [] statements() {
+        Node[] statements = this.statements;
+        if (statements == null) {
+            // building twice is harmless, nodes are immutable
+            statements = build();
+            this.statements = statements;
+        }
+        return statements;
+    }
+
+    @Override
+    public @Nullable Value evaluate(final @NotNull ExecutionContext<Object> context, final @NotNull Arguments arguments) {
+        if (!(context instanceof ExpressionInterpreter)) {
+            // called by a function binding with its own context
+            for (final Expression expression : scope.expressions()) {
+                context.eval(expression);
+                if (context.flag() != null) {
+                    break;
+                }
+            }
+            return NumberValue.zero();
+        }
+
+        final ExpressionInterpreter<?> interpreter = (ExpressionInterpreter<?>) context;
+        for (final Node statement : statements()) {
+            // eval expression, ignore result
+            statement.eval(interpreter);
+
+            // check for break and continue statements
+            if (interpreter.flag() != null) {
+                break;
+            }
+        }
+        return NumberValue.zero();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
+import team.unnamed.mocha.parser.ast.*;
+import team.unnamed.mocha.runtime.EagerChains;
+import team.unnamed.mocha.runtime.Scope;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+import team.unnamed.mocha.runtime.value.ObjectValue;
+import team.unnamed.mocha.runtime.value.StringValue;
+
+import java.util.List;
+
+/**
+ * Builds the {@link Node} tree for an expression.
+ *
+ * <p>Expressions that are not compiled are evaluated by the
+ * interpreter, see {@link InterpretedNode}. Constant bindings
+ * of the given scope are resolved while building.</p>
+ */
+final class TreeBuilder implements ExpressionVisitor<Node> {
+    private final @Nullable Scope scope;
+
+    TreeBuilder(final @Nullable Scope scope) {
+        this.scope = scope;
+    }
+
+    @Override
+    public @NotNull Node visitFloat(final @NotNull FloatExpression expression) {
+        return new ConstantNode(expression.value());
+    }
+
+    @Override
+    public @NotNull Node visitString(final @NotNull StringExpression expression) {
+        return new ValueNode(StringValue.of(expression.value()));
+    }
+
+    @Override
+    public @NotNull Node visitIdentifier(final @NotNull IdentifierExpression expression) {
+        final String name = expression.name();
+        if (scope != null && !ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
+            // constant bindings are resolved now, like the compiler does,
+            // temps are never resolved, they are different per evaluation
+            final ObjectProperty property = scope.getProperty(name);
+            if (property != null && property.constant()) {
+                return new ValueNode(property.value());
+            }
+        }
+        return new IdentifierNode(name);
+    }
+
+    @Override
+    public @NotNull Node visitAccess(final @NotNull AccessExpression expression) {
+        final Node object = expression.object().visit(this);
+        if (object instanceof ValueNode && ((ValueNode) object).value() instanceof ObjectValue) {
+            // constant properties of constant objects, e.g. functions
+            // like "math.sin" or constant fields like "math.pi"
+            final ObjectProperty property = ((ObjectValue) ((ValueNode) object).value()).getProperty(expression.property());
+            if (property != null && property.constant()) {
+                return new ValueNode(property.value());
+            }
+        }
+        return new AccessNode(object, expression.property());
+    }
+
+    @Override
+    public @NotNull Node visitCall(final @NotNull CallExpression expression) {
+        final List<Expression> argumentExpressions = expression.arguments();
+        final Node[] arguments = new Node[argumentExpressions.size()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = argumentExpressions.get(i).visit(this);
+        }
+        return new CallNode(
+                expression.function().visit(this),
+                argumentExpressions.toArray(new Expression[0]),
+                arguments
+        );
+    }
+
+    @Override
+    public @NotNull Node visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+        return new TernaryNode(
+                expression.condition().visit(this),
+                expression.trueExpression().visit(this),
+                expression.falseExpression().visit(this)
+        );
+    }
+
+    @Override
+    public @NotNull Node visitUnary(final @NotNull UnaryExpression expression) {
+        final Node node = expression.expression().visit(this);
+        switch (expression.op()) {
+            case LOGICAL_NEGATION:
+                return new UnaryNode.Not(node);
+            case ARITHMETICAL_NEGATION:
+                return new UnaryNode.Negate(node);
+            case RETURN:
+                return new UnaryNode.Return(node);
+            default:
+                throw new IllegalStateException("Unknown operation");
+        }
+    }
+
+    @Override
+    public @NotNull Node visitBinary(final @NotNull BinaryExpression expression) {
+        switch (expression.op()) {
+            case ARROW:
+                return new ArrowNode(expression.left().visit(this), expression.right().visit(this));
+            case CONDITIONAL:
+                return new ConditionalNode(expression.left().visit(this), expression.right().visit(this));
+            case NULL_COALESCE:
+                return new NullCoalesceNode(expression.left().visit(this), expression.right().visit(this));
+            case ASSIGN: {
+                final Node value = expression.right().visit(this);
+                final Expression target = expression.left();
+                if (target instanceof AccessExpression) {
+                    final AccessExpression access = (AccessExpression) target;
+                    return new AssignNode(access.object().visit(this), access.property(), value);
+                }
+                return new AssignNode(null, null, value);
+            }
+            case AND:
+            case OR:
+                return BinaryNode.of(expression.op(), expression.left().visit(this), expression.right().visit(this));
+            default:
+                if (EagerChains.isLong(expression)) {
+                    return chain(expression);
+                }
+                return BinaryNode.of(expression.op(), expression.left().visit(this), expression.right().visit(this));
+        }
+    }
+
+    private @NotNull Node chain(final @NotNull BinaryExpression expression) {
+        // long chains are built iteratively into a single node, see EagerChains
+        final BinaryExpression[] chain = EagerChains.collect(expression);
+        final Node first = chain[0].left().visit(this);
+        final BinaryExpression.Op[] ops = new BinaryExpression.Op[chain.length];
+        final Node[] operands = new Node[chain.length];
+        for (int i = 0; i < chain.length; i++) {
+            ops[i] = chain[i].op();
+            operands[i] = chain[i].right().visit(this);
+        }
+        return new ChainNode(first, ops, operands);
+    }
+
+    @Override
+    public @NotNull Node visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+        return new ScopeNode(new ScopeFunction(expression, this));
+    }
+
+    @Override
+    public @NotNull Node visitLoop(final @NotNull LoopExpression expression) {
+        return new LoopNode(expression.count().visit(this), expression.body().visit(this));
+    }
+
+    @Override
+    public @NotNull Node visitForEach(final @NotNull ForEachExpression expression) {
+        if (!(expression.variable() instanceof AccessExpression)) {
+            // the variable must be an access, nothing is evaluated otherwise
+            return new ConstantNode(0);
+        }
+        final AccessExpression variable = (AccessExpression) expression.variable();
+        return new ForEachNode(
+                variable.object().visit(this),
+                variable.property(),
+                expression.array().visit(this),
+                expression.body().visit(this)
+        );
+    }
+
+    @Override
+    public @NotNull Node visit(final @NotNull Expression expression) {
+        // array accesses, statements...
+        return new InterpretedNode(expression);
+    }
+}
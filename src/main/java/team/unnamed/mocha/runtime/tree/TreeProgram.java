@@ -0,0 +1,105 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.Scope;
+import team.unnamed.mocha.runtime.value.Value;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A list of expressions compiled to a tree of specialized,
+ * immutable node objects, evaluated by calling the nodes
+ * directly instead of visiting the expressions.
+ *
+ * <p>This is an intermediate tier between the {@link ExpressionInterpreter}
+ * and the bytecode compiler: building the tree is cheap and doesn't
+ * define any class, and evaluating numeric expressions doesn't create
+ * intermediate values. Expressions that are not compiled to specialized
+ * nodes (e.g. array accesses or statements) are evaluated by the
+ * interpreter, so every interpretable expression is supported.</p>
+ *
+ * <p>Programs are immutable and can be evaluated by many threads at
+ * the same time, as long as each uses its own interpreter.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class TreeProgram {
+    private final Node[] statements;
+
+    private TreeProgram(final @NotNull Node @NotNull [] statements) {
+        this.statements = requireNonNull(statements, "statements");
+    }
+
+    /**
+     * Compiles the given expressions to a tree program.
+     *
+     * <p>Constant bindings of the given scope, like {@code math}
+     * and its functions, are resolved when compiling, same as the
+     * bytecode compiler does, other bindings are looked up in the
+     * interpreter bindings for every evaluation.</p>
+     *
+     * @param expressions The expressions
+     * @param scope       The scope to resolve constant bindings from
+     * @return The compiled program
+     * @since 3.0.0
+     */
+    public static @NotNull TreeProgram compile(final @NotNull List<Expression> expressions, final @Nullable Scope scope) {
+        final TreeBuilder builder = new TreeBuilder(scope);
+        final Node[] statements = new Node[expressions.size()];
+        for (int i = 0; i < statements.length; i++) {
+            statements[i] = expressions.get(i).visit(builder);
+        }
+        return new TreeProgram(statements);
+    }
+
+    /**
+     * Evaluates this program using the given interpreter
+     * state and bindings, same as evaluating its expressions
+     * one by one with the interpreter.
+     *
+     * @param interpreter The interpreter
+     * @return The result of the last expression, or the returned value
+     * @since 3.0.0
+     */
+    public float eval(final @NotNull ExpressionInterpreter<?> interpreter) {
+        float lastResult = 0F;
+        for (final Node statement : statements) {
+            lastResult = statement.eval(interpreter);
+            final Value returnValue = interpreter.popReturnValue();
+            if (returnValue != null) {
+                return returnValue.getAsNumber();
+            }
+        }
+        return lastResult;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.jetbrains.annotations.NotNull;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+import static team.unnamed.mocha.runtime.TierSupport.number;
+
+final class UnaryNode {
+    private UnaryNode() {
+    }
+
+    static final class Negate extends NumberNode {
+        private final Node expression;
+
+        Negate(final @NotNull Node expression) {
+            this.expression = requireNonNull(expression, "expression");
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return number(-expression.eval(context));
+        }
+    }
+
+    static final class Not extends NumberNode {
+        private final Node expression;
+
+        Not(final @NotNull Node expression) {
+            this.expression = requireNonNull(expression, "expression");
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            return expression.test(context) ? 0.0F : 1.0F;
+        }
+    }
+
+    static final class Return extends Node {
+        private final Node expression;
+
+        Return(final @NotNull Node expression) {
+            this.expression = requireNonNull(expression, "expression");
+        }
+
+        @Override
+        @NotNull Value value(final @NotNull ExpressionInterpreter<?> context) {
+            context.pushReturnValue(expression.value(context));
+            return NumberValue.zero();
+        }
+
+        @Override
+        float eval(final @NotNull ExpressionInterpreter<?> context) {
+            value(context);
+            return 0.0F;
+        }
+
+        @Override
+        boolean test(final @NotNull ExpressionInterpreter<?> context) {
+            value(context);
+            return false;
+        }
+    }
+}
@@ -39,6 +39,8 @@ import static java.util.Objects.requireNonNull;
  */
 public class MutableObjectBinding implements ObjectValue {
     private final Map<String, ObjectProperty> properties = new CaseInsensitiveStringHashMap<>();
+    // handles to properties, only for the names requested via property(String)
+    private final Map<String, Handle> handles = new CaseInsensitiveStringHashMap<>();
     private boolean blocked = false;
 
     @Override
@@ -46,6 +48,27 @@ public class MutableObjectBinding implements ObjectValue {
         return properties.get(name);
     }
 
+    /**
+     * Gets a handle to the property with the given {@code name}.
+     *
+     * <p>Unlike {@link #getProperty(String)}, the handle always has
+     * the current value of the property, even after it is set again,
+     * removed or cleared, in which case it is {@link Value#nil()}.</p>
+     *
+     * @param name The property name
+     * @return The property handle
+     * @since 3.0.0
+     */
+    public @NotNull ObjectProperty property(final @NotNull String name) {
+        requireNonNull(name, "name");
+        Handle handle = handles.get(name);
+        if (handle == null) {
+            handle = new Handle(properties.get(name));
+            handles.put(name, handle);
+        }
+        return handle;
+    }
+
     /**
      * Sets the property with the given
      * {@code name} to the specified {@code value},
@@ -56,10 +79,17 @@ public class MutableObjectBinding implements ObjectValue {
         if (blocked) {
             return false;
         }
-        if (value == null) {
+        final ObjectProperty property = value == null ? null : ObjectProperty.property(value, false);
+        if (property == null) {
             properties.remove(name);
         } else {
-            properties.put(name, ObjectProperty.property(value, false));
+            properties.put(name, property);
+        }
+        if (!handles.isEmpty()) {
+            final Handle handle = handles.get(name);
+            if (handle != null) {
+                handle.property = property;
+            }
         }
         return true;
     }
@@ -70,6 +100,30 @@ public class MutableObjectBinding implements ObjectValue {
             throw new IllegalStateException("This object binding has been blocked!");
         }
         this.properties.putAll(binding.properties);
+        if (!handles.isEmpty()) {
+            for (final Map.Entry<String, Handle> entry : handles.entrySet()) {
+                final ObjectProperty property = binding.properties.get(entry.getKey());
+                if (property != null) {
+                    entry.getValue().property = property;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all the properties of this binding,
+     * keeping its allocated storage
+     */
+    public void clear() {
+        if (blocked) {
+            throw new IllegalStateException("This object binding has been blocked!");
+        }
+        this.properties.clear();
+        if (!handles.isEmpty()) {
+            for (final Handle handle : handles.values()) {
+                handle.property = null;
+            }
+        }
     }
 
     public boolean blocked() {
@@ -83,4 +137,27 @@ public class MutableObjectBinding implements ObjectValue {
         blocked = true;
     }
 
+    private static final class Handle implements ObjectProperty {
+        private @Nullable ObjectProperty property;
+
+        Handle(final @Nullable ObjectProperty property) {
+            this.property = property;
+        }
+
+        @Override
+        public @NotNull Value value() {
+            final ObjectProperty property = this.property;
+            return property == null ? Value.nil() : property.value();
+        }
+
+        @Override
+        public boolean constant() {
+            return false;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return "ObjectProperty(" + value() + "(variable))";
+        }
+    }
 }
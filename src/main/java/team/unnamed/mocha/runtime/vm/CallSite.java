@@ -0,0 +1,73 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.vm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.TierSupport;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A call to a function resolved when compiling, with arguments
+ * that can be evaluated before calling it, since they don't have
+ * side effects.
+ *
+ * <p>Numeric arguments are evaluated to registers by the program,
+ * accesses like {@code v.x} are deferred until the function asks
+ * for them, so that it gets the accessed value, not its number.</p>
+ */
+final class CallSite {
+    private final Function<?> function;
+    private final Expression[] argumentExpressions;
+    private final boolean[] deferred;
+
+    CallSite(final @NotNull Function<?> function, final @NotNull Expression @NotNull [] argumentExpressions, final boolean @NotNull [] deferred) {
+        this.function = requireNonNull(function, "function");
+        this.argumentExpressions = requireNonNull(argumentExpressions, "argumentExpressions");
+        this.deferred = requireNonNull(deferred, "deferred");
+    }
+
+    @Nullable Value call(final @NotNull ExpressionInterpreter<?> context, final float @NotNull [] registers, final int first) {
+        // registers are reused by the rest of the program, and functions
+        // may keep the arguments, so the evaluated values are copied
+        final float[] values = new float[argumentExpressions.length];
+        System.arraycopy(registers, first, values, 0, values.length);
+
+        return TierSupport.call(context, function, new TierSupport.IndexedArguments(argumentExpressions) {
+            @Override
+            protected @Nullable Value eval(final int index) {
+                if (deferred[index]) {
+                    return argumentExpressions[index].visit(context);
+                }
+                return NumberValue.of(values[index]);
+            }
+        });
+    }
+}
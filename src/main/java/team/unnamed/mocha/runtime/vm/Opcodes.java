@@ -0,0 +1,96 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.vm;
+
+/**
+ * The instruction set of the {@link VmProgram} virtual machine.
+ *
+ * <p>Instructions are encoded in an {@code int[]}, as an opcode
+ * followed by its operands. Operands are register indexes, pool
+ * indexes (names, objects, call sites and expressions), or jump
+ * offsets, relative to the next instruction. Operands named
+ * {@code rk} are registers if positive, or constants if negative,
+ * {@code ~rk} being the index in the constant pool.</p>
+ */
+final class Opcodes {
+    // dst, constant
+    static final int LOAD_CONSTANT = 0;
+
+    // dst, rk
+    static final int MOVE = 1;
+
+    // dst, rk, rk
+    static final int ADD = 2;
+    static final int SUB = 3;
+    static final int MUL = 4;
+    static final int DIV = 5;
+    static final int LT = 6;
+    static final int LTE = 7;
+    static final int GT = 8;
+    static final int GTE = 9;
+    static final int EQ = 10;
+    static final int NEQ = 11;
+
+    // dst, rk
+    static final int NEGATE = 12;
+    static final int NOT = 13;
+    static final int BOOL = 14;
+
+    // register, offset
+    static final int JUMP_IF_ZERO = 15;
+    static final int JUMP_IF_NOT_ZERO = 16;
+
+    // offset
+    static final int JUMP = 17;
+
+    // dst, object, property (the object is a constant value in the pool)
+    static final int GET_FIELD = 18;
+    static final int TEST_FIELD = 19;
+
+    // dst, name, property (the object is looked up in the interpreter bindings)
+    static final int GET_VARIABLE = 20;
+    static final int TEST_VARIABLE = 21;
+
+    // dst, object, property, rk
+    static final int SET_FIELD = 22;
+
+    // dst, name, property, rk
+    static final int SET_VARIABLE = 23;
+
+    // dst, call site, test (evaluated arguments are in registers dst to dst + n - 1)
+    static final int CALL = 24;
+
+    // dst, expression (evaluated by the interpreter)
+    static final int EVAL = 25;
+    static final int TEST = 26;
+
+    // dst, rk
+    static final int RETURN = 27;
+
+    // register (the statement result)
+    static final int END_STATEMENT = 28;
+
+    private Opcodes() {
+    }
+}
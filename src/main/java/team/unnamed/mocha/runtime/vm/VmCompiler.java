@@ -0,0 +1,501 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.vm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ExpressionCanonicalizer;
+import team.unnamed.mocha.parser.ast.*;
+import team.unnamed.mocha.runtime.EagerChains;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.Scope;
+import team.unnamed.mocha.runtime.value.Function;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+import team.unnamed.mocha.runtime.value.ObjectValue;
+import team.unnamed.mocha.runtime.value.StringValue;
+import team.unnamed.mocha.runtime.value.Value;
+import team.unnamed.mocha.util.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static team.unnamed.mocha.runtime.vm.Opcodes.*;
+
+/**
+ * Lowers expressions to {@link VmProgram} instructions.
+ *
+ * <p>Every expression is lowered to a destination register, and
+ * may use the registers after it as scratch space, so registers
+ * work like a stack whose depth is known when compiling. Expressions
+ * that are not lowered (e.g. loops or execution scopes) are evaluated
+ * by the interpreter, see {@link Opcodes#EVAL}. Constant bindings of
+ * the given scope are resolved while lowering.</p>
+ *
+ * <p>If nothing else can see the "temp" bindings during the evaluation,
+ * i.e. nothing is evaluated by the interpreter or by a function, temps
+ * are kept in registers too, the first ones, before the scratch registers.</p>
+ */
+final class VmCompiler {
+    private final @Nullable Scope scope;
+    private final @Nullable Map<String, Integer> temps;
+    private final int base;
+    private boolean interpreted;
+
+    private int[] code = new int[64];
+    private int length;
+    private float[] constants = new float[8];
+    private int constantCount;
+    // indexes of the constants, by their bits, and of the pool entries,
+    // strings by value, anything else by identity
+    private final Map<Integer, Integer> constantIndexes = new HashMap<>();
+    private final List<Object> pool = new ArrayList<>();
+    private final Map<Object, Integer> stringIndexes = new HashMap<>();
+    private final Map<Object, Integer> identityIndexes = new IdentityHashMap<>();
+    private int registerCount;
+
+    private VmCompiler(final @Nullable Scope scope, final @Nullable Map<String, Integer> temps, final int base) {
+        this.scope = scope;
+        this.temps = temps;
+        this.base = base;
+        this.registerCount = base + 1;
+    }
+
+    static @NotNull VmProgram compile(final @NotNull List<Expression> expressions, final @Nullable Scope scope) {
+        // lower with temps in registers, to know if they can be kept there,
+        // and how many registers they need, then lower again if needed
+        final VmCompiler compiler = new VmCompiler(scope, new HashMap<>(), 0);
+        final VmProgram program = compiler.lower(expressions);
+        final int tempCount = compiler.temps.size();
+        if (tempCount == 0) {
+            return program;
+        } else if (compiler.interpreted) {
+            return new VmCompiler(scope, null, 0).lower(expressions);
+        } else {
+            return new VmCompiler(scope, compiler.temps, tempCount).lower(expressions);
+        }
+    }
+
+    private @NotNull VmProgram lower(final @NotNull List<Expression> expressions) {
+        for (final Expression expression : expressions) {
+            lowerFloat(expression, base);
+            emit(END_STATEMENT, base);
+        }
+        return new VmProgram(
+                Arrays.copyOf(code, length),
+                Arrays.copyOf(constants, constantCount),
+                pool.toArray(),
+                registerCount,
+                temps == null ? 0 : temps.size()
+        );
+    }
+
+    //
+    // Lowers the expression as a number, the same value that
+    // ExpressionInterpreter#evalFloat would return
+    //
+    private void lowerFloat(final @NotNull Expression expression, final int dst) {
+        use(dst);
+        if (expression instanceof FloatExpression || expression instanceof StringExpression) {
+            emit(LOAD_CONSTANT, dst, ~operand(expression, dst));
+        } else if (expression instanceof BinaryExpression) {
+            lowerBinary((BinaryExpression) expression, dst);
+        } else if (expression instanceof UnaryExpression) {
+            final UnaryExpression unary = (UnaryExpression) expression;
+            switch (unary.op()) {
+                case LOGICAL_NEGATION:
+                    lowerBoolean(unary.expression(), dst);
+                    emit(NOT, dst, dst);
+                    break;
+                case ARITHMETICAL_NEGATION:
+                    emit(NEGATE, dst, operand(unary.expression(), dst));
+                    break;
+                case RETURN:
+                    emit(RETURN, dst, operand(unary.expression(), dst));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation");
+            }
+        } else if (expression instanceof TernaryConditionalExpression) {
+            lowerTernary((TernaryConditionalExpression) expression, dst, false);
+        } else if (expression instanceof AccessExpression) {
+            lowerAccess((AccessExpression) expression, dst, false);
+        } else if (expression instanceof CallExpression) {
+            lowerCall((CallExpression) expression, dst, false);
+        } else {
+            // loops, execution scopes, array accesses, statements...
+            interpret(expression, dst, false);
+        }
+    }
+
+    //
+    // Lowers the expression as a boolean, the register will be zero
+    // if ExpressionInterpreter#evalBoolean would return false
+    //
+    private void lowerBoolean(final @NotNull Expression expression, final int dst) {
+        use(dst);
+        if (ExpressionInterpreter.isNumeric(expression)) {
+            lowerFloat(expression, dst);
+        } else if (expression instanceof StringExpression) {
+            final boolean value = StringValue.of(((StringExpression) expression).value()).getAsBoolean();
+            emit(LOAD_CONSTANT, dst, constant(value ? 1.0F : 0.0F));
+        } else if (expression instanceof TernaryConditionalExpression) {
+            lowerTernary((TernaryConditionalExpression) expression, dst, true);
+        } else if (expression instanceof AccessExpression) {
+            lowerAccess((AccessExpression) expression, dst, true);
+        } else if (expression instanceof CallExpression) {
+            lowerCall((CallExpression) expression, dst, true);
+        } else {
+            interpret(expression, dst, true);
+        }
+    }
+
+    //
+    // Lowers the expression as a number, returns the constant operand
+    // for literals, or the destination register for anything else
+    //
+    private int operand(final @NotNull Expression expression, final int dst) {
+        return operand(expression, dst, true);
+    }
+
+    //
+    // Same, but also returns the register of temps kept in registers
+    // if allowed, i.e. if the temp can't be assigned before the operand
+    // is used
+    //
+    private int operand(final @NotNull Expression expression, final int dst, final boolean temp) {
+        final int register = temp ? tempRegister(expression) : -1;
+        if (register != -1) {
+            return register;
+        } else if (expression instanceof FloatExpression) {
+            return ~constant(NumberValue.of(((FloatExpression) expression).value()).getAsNumber());
+        } else if (expression instanceof StringExpression) {
+            return ~constant(StringValue.of(((StringExpression) expression).value()).getAsNumber());
+        } else {
+            lowerFloat(expression, dst);
+            return dst;
+        }
+    }
+
+    private void lowerBinary(final @NotNull BinaryExpression expression, final int dst) {
+        switch (expression.op()) {
+            case AND:
+            case OR: {
+                lowerBoolean(expression.left(), dst);
+                final int jump = jump(expression.op() == BinaryExpression.Op.AND ? JUMP_IF_ZERO : JUMP_IF_NOT_ZERO, dst);
+                lowerBoolean(expression.right(), dst);
+                patch(jump);
+                emit(BOOL, dst, dst);
+                break;
+            }
+            case ASSIGN:
+                lowerAssign(expression, dst);
+                break;
+            case ARROW:
+            case NULL_COALESCE:
+            case CONDITIONAL:
+                interpret(expression, dst, false);
+                break;
+            default:
+                lowerChain(expression, dst);
+                break;
+        }
+    }
+
+    //
+    // Chains of eager operators, like "a + b + c + ...", are always
+    // lowered iteratively (see EagerChains), accumulating in the destination
+    // register, so they need a single scratch register
+    //
+    private void lowerChain(final @NotNull BinaryExpression expression, final int dst) {
+        // lowered from the innermost operator, left to right, the first
+        // operand is read after the second is evaluated, so it is copied
+        // if the second can assign temps
+        final BinaryExpression[] chain = EagerChains.collect(expression);
+        int accumulator = operand(chain[0].left(), dst, isPure(chain[0].right()));
+        for (final BinaryExpression binary : chain) {
+            final int right = operand(binary.right(), use(dst + 1));
+            emit(opcode(binary.op()), dst, accumulator, right);
+            accumulator = dst;
+        }
+    }
+
+    private void lowerAssign(final @NotNull BinaryExpression expression, final int dst) {
+        final Expression target = expression.left();
+        final Expression value = expression.right();
+        final int register = tempRegister(target);
+        if (register != -1 && (ExpressionInterpreter.isNumeric(value) || tempRegister(value) != -1)) {
+            // the value is evaluated first, like the interpreter does
+            emit(MOVE, register, operand(value, dst));
+            emit(MOVE, dst, register);
+            return;
+        }
+
+        if (!(target instanceof AccessExpression)
+                || !(((AccessExpression) target).object() instanceof IdentifierExpression)
+                || !ExpressionInterpreter.isNumeric(value)) {
+            // assigned strings, arrays or objects are kept as values
+            interpret(expression, dst, false);
+            return;
+        }
+
+        final AccessExpression access = (AccessExpression) target;
+        final String name = ((IdentifierExpression) access.object()).name();
+        final int operand = operand(value, dst);
+
+        final Value object = resolve(name);
+        if (object != null) {
+            emit(SET_FIELD, dst, pool(object), pool(access.property()), operand);
+        } else {
+            emit(SET_VARIABLE, dst, pool(name), pool(access.property()), operand);
+        }
+    }
+
+    private void lowerTernary(final @NotNull TernaryConditionalExpression expression, final int dst, final boolean test) {
+        lowerBoolean(expression.condition(), dst);
+        final int falseJump = jump(JUMP_IF_ZERO, dst);
+        lower(expression.trueExpression(), dst, test);
+        final int endJump = jump(JUMP, -1);
+        patch(falseJump);
+        lower(expression.falseExpression(), dst, test);
+        patch(endJump);
+    }
+
+    private void lowerAccess(final @NotNull AccessExpression expression, final int dst, final boolean test) {
+        if (!(expression.object() instanceof IdentifierExpression)) {
+            interpret(expression, dst, test);
+            return;
+        }
+
+        final int register = tempRegister(expression);
+        if (register != -1) {
+            emit(test ? BOOL : MOVE, dst, register);
+            return;
+        }
+
+        final String name = ((IdentifierExpression) expression.object()).name();
+        final Value object = resolve(name);
+        if (object == null) {
+            emit(test ? TEST_VARIABLE : GET_VARIABLE, dst, pool(name), pool(expression.property()));
+        } else if (!(object instanceof ObjectValue)) {
+            // accessing a property of something that isn't an object is zero
+            emit(LOAD_CONSTANT, dst, constant(0.0F));
+        } else {
+            final Value value = constantProperty((ObjectValue) object, expression.property());
+            if (value != null) {
+                final float number = test ? (value.getAsBoolean() ? 1.0F : 0.0F) : value.getAsNumber();
+                emit(LOAD_CONSTANT, dst, constant(number));
+            } else {
+                emit(test ? TEST_FIELD : GET_FIELD, dst, pool(object), pool(expression.property()));
+            }
+        }
+    }
+
+    private void lowerCall(final @NotNull CallExpression expression, final int dst, final boolean test) {
+        final Function<?> function = resolveFunction(expression.function());
+        final List<Expression> arguments = expression.arguments();
+        boolean pure = function != null;
+        for (int i = 0; pure && i < arguments.size(); i++) {
+            pure = isPure(arguments.get(i));
+        }
+        if (!pure) {
+            // functions resolved on every call, or arguments that must
+            // be evaluated by the function, in its order, and only if used
+            interpret(expression, dst, test);
+            return;
+        }
+
+        // arguments don't have side effects, so numeric ones can be
+        // evaluated before calling, without creating values
+        final boolean[] deferred = new boolean[arguments.size()];
+        use(dst + Math.max(0, deferred.length - 1));
+        for (int i = 0; i < deferred.length; i++) {
+            final Expression argument = arguments.get(i);
+            if (ExpressionInterpreter.isNumeric(argument)) {
+                lowerFloat(argument, dst + i);
+            } else {
+                deferred[i] = true;
+            }
+        }
+        final CallSite site = new CallSite(function, arguments.toArray(new Expression[0]), deferred);
+        interpreted = true;
+        emit(CALL, dst, pool(site), test ? 1 : 0);
+    }
+
+    private void interpret(final @NotNull Expression expression, final int dst, final boolean test) {
+        interpreted = true;
+        emit(test ? TEST : EVAL, dst, pool(expression));
+    }
+
+    private void lower(final @NotNull Expression expression, final int dst, final boolean test) {
+        if (test) {
+            lowerBoolean(expression, dst);
+        } else {
+            lowerFloat(expression, dst);
+        }
+    }
+
+    private int tempRegister(final @NotNull Expression expression) {
+        if (temps == null || !(expression instanceof AccessExpression)) {
+            return -1;
+        }
+        final AccessExpression access = (AccessExpression) expression;
+        if (!(access.object() instanceof IdentifierExpression)) {
+            return -1;
+        }
+        final String name = ((IdentifierExpression) access.object()).name();
+        if (!ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
+            return -1;
+        }
+        // same keys as the temp storage, properties are case-insensitive
+        return temps.computeIfAbsent(SymbolTable.lowerCase(access.property()), key -> temps.size());
+    }
+
+    private @Nullable Value resolve(final @NotNull String name) {
+        // constant bindings are resolved now, like the compiler does,
+        // temps are never resolved, they are different per evaluation
+        if (scope == null || ExpressionCanonicalizer.canonicalName(name).equals("temp")) {
+            return null;
+        }
+        final ObjectProperty property = scope.getProperty(name);
+        return property != null && property.constant() ? property.value() : null;
+    }
+
+    private static @Nullable Value constantProperty(final @NotNull ObjectValue object, final @NotNull String name) {
+        final ObjectProperty property = object.getProperty(name);
+        return property != null && property.constant() ? property.value() : null;
+    }
+
+    private @Nullable Function<?> resolveFunction(final @NotNull Expression expression) {
+        Value value = null;
+        if (expression instanceof IdentifierExpression) {
+            value = resolve(((IdentifierExpression) expression).name());
+        } else if (expression instanceof AccessExpression
+                && ((AccessExpression) expression).object() instanceof IdentifierExpression) {
+            final AccessExpression access = (AccessExpression) expression;
+            final Value object = resolve(((IdentifierExpression) access.object()).name());
+            if (object instanceof ObjectValue) {
+                value = constantProperty((ObjectValue) object, access.property());
+            }
+        }
+        return value instanceof Function ? (Function<?>) value : null;
+    }
+
+    private static boolean isPure(final @NotNull Expression expression) {
+        // expressions without side effects, that can be evaluated
+        // in any order, any amount of times
+        if (expression instanceof FloatExpression
+                || expression instanceof StringExpression
+                || expression instanceof IdentifierExpression) {
+            return true;
+        } else if (expression instanceof AccessExpression) {
+            return isPure(((AccessExpression) expression).object());
+        } else if (expression instanceof BinaryExpression) {
+            final BinaryExpression binary = (BinaryExpression) expression;
+            return ExpressionInterpreter.isNumeric(binary) && isPure(binary.left()) && isPure(binary.right());
+        } else if (expression instanceof UnaryExpression) {
+            final UnaryExpression unary = (UnaryExpression) expression;
+            return unary.op() != UnaryExpression.Op.RETURN && isPure(unary.expression());
+        } else if (expression instanceof TernaryConditionalExpression) {
+            final TernaryConditionalExpression ternary = (TernaryConditionalExpression) expression;
+            return isPure(ternary.condition()) && isPure(ternary.trueExpression()) && isPure(ternary.falseExpression());
+        } else {
+            return false;
+        }
+    }
+
+    private static int opcode(final @NotNull BinaryExpression.Op op) {
+        switch (op) {
+            case LT: return LT;
+            case LTE: return LTE;
+            case GT: return GT;
+            case GTE: return GTE;
+            case ADD: return ADD;
+            case SUB: return SUB;
+            case MUL: return MUL;
+            case DIV: return DIV;
+            case EQ: return EQ;
+            case NEQ: return NEQ;
+            default: return -1;
+        }
+    }
+
+    private int use(final int register) {
+        if (register >= registerCount) {
+            registerCount = register + 1;
+        }
+        return register;
+    }
+
+    private int constant(final float value) {
+        final Integer index = constantIndexes.get(Float.floatToIntBits(value));
+        if (index != null) {
+            return index;
+        }
+        if (constantCount == constants.length) {
+            constants = Arrays.copyOf(constants, constantCount * 2);
+        }
+        constants[constantCount] = value;
+        constantIndexes.put(Float.floatToIntBits(value), constantCount);
+        return constantCount++;
+    }
+
+    private int pool(final @NotNull Object value) {
+        final Map<Object, Integer> indexes = value instanceof String ? stringIndexes : identityIndexes;
+        final Integer index = indexes.get(value);
+        if (index != null) {
+            return index;
+        }
+        pool.add(value);
+        indexes.put(value, pool.size() - 1);
+        return pool.size() - 1;
+    }
+
+    private int jump(final int opcode, final int register) {
+        if (opcode == JUMP) {
+            emit(JUMP, 0);
+        } else {
+            emit(opcode, register, 0);
+        }
+        // the offset operand, patched later
+        return length - 1;
+    }
+
+    private void patch(final int offsetIndex) {
+        // offsets are relative to the next instruction
+        code[offsetIndex] = length - (offsetIndex + 1);
+    }
+
+    private void emit(final int... instruction) {
+        if (length + instruction.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, length + instruction.length));
+        }
+        System.arraycopy(instruction, 0, code, length, instruction.length);
+        length += instruction.length;
+    }
+}
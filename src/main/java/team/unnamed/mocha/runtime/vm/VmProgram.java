@@ -0,0 +1,315 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.vm;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+import team.unnamed.mocha.runtime.Scope;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.ObjectValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+import static team.unnamed.mocha.runtime.TierSupport.number;
+import static team.unnamed.mocha.runtime.vm.Opcodes.*;
+
+/**
+ * A list of expressions lowered to a compact instruction set,
+ * evaluated by a register-based virtual machine.
+ *
+ * <p>Instructions are stored in a single {@code int[]} and operate
+ * on {@code float} registers, so evaluating numeric expressions
+ * doesn't create intermediate values or visit any object. Expressions
+ * that are not lowered (e.g. loops or execution scopes) are evaluated
+ * by the interpreter, so every interpretable expression is supported.</p>
+ *
+ * <p>Programs are immutable and can be evaluated by many threads at
+ * the same time, as long as each uses its own interpreter and registers.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class VmProgram {
+    private final int[] code;
+    private final float[] constants;
+    private final Object[] pool;
+    private final int registerCount;
+    private final int tempCount;
+
+    VmProgram(
+            final int @NotNull [] code,
+            final float @NotNull [] constants,
+            final @NotNull Object @NotNull [] pool,
+            final int registerCount,
+            final int tempCount
+    ) {
+        this.code = requireNonNull(code, "code");
+        this.constants = requireNonNull(constants, "constants");
+        this.pool = requireNonNull(pool, "pool");
+        this.registerCount = registerCount;
+        this.tempCount = tempCount;
+    }
+
+    /**
+     * Compiles the given expressions to a virtual machine program.
+     *
+     * <p>Constant bindings of the given scope, like {@code math}
+     * and its functions, are resolved when compiling, same as the
+     * bytecode compiler does, other bindings are looked up in the
+     * interpreter bindings for every evaluation.</p>
+     *
+     * @param expressions The expressions
+     * @param scope       The scope to resolve constant bindings from
+     * @return The compiled program
+     * @since 3.0.0
+     */
+    public static @NotNull VmProgram compile(final @NotNull List<Expression> expressions, final @Nullable Scope scope) {
+        requireNonNull(expressions, "expressions");
+        return VmCompiler.compile(expressions, scope);
+    }
+
+    /**
+     * Returns the amount of registers this program needs.
+     *
+     * @return The amount of registers
+     * @since 3.0.0
+     */
+    public int registerCount() {
+        return registerCount;
+    }
+
+    /**
+     * Evaluates this program using the given interpreter
+     * state and bindings, same as evaluating its expressions
+     * one by one with the interpreter.
+     *
+     * @param interpreter The interpreter
+     * @return The result of the last expression, or the returned value
+     * @since 3.0.0
+     */
+    public float eval(final @NotNull ExpressionInterpreter<?> interpreter) {
+        return eval(interpreter, new float[registerCount]);
+    }
+
+    /**
+     * Evaluates this program using the given interpreter
+     * state and bindings, and the given registers, which can
+     * be reused between evaluations.
+     *
+     * @param interpreter The interpreter
+     * @param registers   The registers, at least {@link #registerCount()}
+     * @return The result of the last expression, or the returned value
+     * @since 3.0.0
+     */
+    public float eval(final @NotNull ExpressionInterpreter<?> interpreter, final float @NotNull [] registers) {
+        if (registers.length < registerCount) {
+            throw new IllegalArgumentException("Program needs " + registerCount + " registers, got " + registers.length);
+        }
+
+        final int[] code = this.code;
+        final float[] constants = this.constants;
+        final Object[] pool = this.pool;
+
+        // temps kept in registers start empty, like the temp storage
+        Arrays.fill(registers, 0, tempCount, 0.0F);
+
+        float lastResult = 0F;
+        boolean returned = false;
+        float returnValue = 0F;
+
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc]) {
+                case LOAD_CONSTANT:
+                    registers[code[pc + 1]] = constants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case MOVE:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]);
+                    pc += 3;
+                    break;
+                case ADD:
+                    registers[code[pc + 1]] = number(rk(registers, constants, code[pc + 2]) + rk(registers, constants, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case SUB:
+                    registers[code[pc + 1]] = number(rk(registers, constants, code[pc + 2]) - rk(registers, constants, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case MUL:
+                    registers[code[pc + 1]] = number(rk(registers, constants, code[pc + 2]) * rk(registers, constants, code[pc + 3]));
+                    pc += 4;
+                    break;
+                case DIV: {
+                    // Molang allows division by zero, which is always equal to 0
+                    final float b = rk(registers, constants, code[pc + 3]);
+                    registers[code[pc + 1]] = b == 0 ? 0 : number(rk(registers, constants, code[pc + 2]) / b);
+                    pc += 4;
+                    break;
+                }
+                case LT:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) < rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case LTE:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) <= rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case GT:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) > rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case GTE:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) >= rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case EQ:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) == rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case NEQ:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) != rk(registers, constants, code[pc + 3]) ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case NEGATE:
+                    registers[code[pc + 1]] = number(-rk(registers, constants, code[pc + 2]));
+                    pc += 3;
+                    break;
+                case NOT:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) == 0 ? 1.0F : 0.0F;
+                    pc += 3;
+                    break;
+                case BOOL:
+                    registers[code[pc + 1]] = rk(registers, constants, code[pc + 2]) != 0 ? 1.0F : 0.0F;
+                    pc += 3;
+                    break;
+                case JUMP_IF_ZERO:
+                    pc += registers[code[pc + 1]] == 0 ? 3 + code[pc + 2] : 3;
+                    break;
+                case JUMP_IF_NOT_ZERO:
+                    pc += registers[code[pc + 1]] != 0 ? 3 + code[pc + 2] : 3;
+                    break;
+                case JUMP:
+                    pc += 2 + code[pc + 1];
+                    break;
+                case GET_FIELD:
+                    registers[code[pc + 1]] = ((ObjectValue) pool[code[pc + 2]]).get((String) pool[code[pc + 3]]).getAsNumber();
+                    pc += 4;
+                    break;
+                case TEST_FIELD:
+                    registers[code[pc + 1]] = ((ObjectValue) pool[code[pc + 2]]).get((String) pool[code[pc + 3]]).getAsBoolean() ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case GET_VARIABLE:
+                    registers[code[pc + 1]] = variable(interpreter, (String) pool[code[pc + 2]], (String) pool[code[pc + 3]]).getAsNumber();
+                    pc += 4;
+                    break;
+                case TEST_VARIABLE:
+                    registers[code[pc + 1]] = variable(interpreter, (String) pool[code[pc + 2]], (String) pool[code[pc + 3]]).getAsBoolean() ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                case SET_FIELD: {
+                    final float value = rk(registers, constants, code[pc + 4]);
+                    set((Value) pool[code[pc + 2]], (String) pool[code[pc + 3]], value);
+                    registers[code[pc + 1]] = value;
+                    pc += 5;
+                    break;
+                }
+                case SET_VARIABLE: {
+                    final float value = rk(registers, constants, code[pc + 4]);
+                    set(interpreter.bindings().get((String) pool[code[pc + 2]]), (String) pool[code[pc + 3]], value);
+                    registers[code[pc + 1]] = value;
+                    pc += 5;
+                    break;
+                }
+                case CALL: {
+                    final int dst = code[pc + 1];
+                    final Value result = ((CallSite) pool[code[pc + 2]]).call(interpreter, registers, dst);
+                    registers[dst] = code[pc + 3] == 0
+                            ? result.getAsNumber()
+                            : result.getAsBoolean() ? 1.0F : 0.0F;
+                    pc += 4;
+                    break;
+                }
+                case EVAL:
+                    registers[code[pc + 1]] = interpreter.evalFloat((Expression) pool[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                case TEST:
+                    registers[code[pc + 1]] = interpreter.evalBoolean((Expression) pool[code[pc + 2]]) ? 1.0F : 0.0F;
+                    pc += 3;
+                    break;
+                case RETURN:
+                    // the last returned value wins, even if it was
+                    // returned by an expression evaluated by the interpreter
+                    returnValue = rk(registers, constants, code[pc + 2]);
+                    returned = true;
+                    interpreter.popReturnValue();
+                    registers[code[pc + 1]] = 0.0F;
+                    pc += 3;
+                    break;
+                case END_STATEMENT: {
+                    final Value interpretedReturnValue = interpreter.popReturnValue();
+                    if (interpretedReturnValue != null) {
+                        return interpretedReturnValue.getAsNumber();
+                    } else if (returned) {
+                        return returnValue;
+                    }
+                    lastResult = registers[code[pc + 1]];
+                    pc += 2;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Unknown opcode: " + code[pc]);
+            }
+        }
+        return lastResult;
+    }
+
+    private static float rk(final float @NotNull [] registers, final float @NotNull [] constants, final int operand) {
+        return operand >= 0 ? registers[operand] : constants[~operand];
+    }
+
+    private static @NotNull Value variable(final @NotNull ExpressionInterpreter<?> interpreter, final @NotNull String name, final @NotNull String property) {
+        final Value object = interpreter.bindings().get(name);
+        if (object instanceof ObjectValue) {
+            return ((ObjectValue) object).get(property);
+        }
+        return NumberValue.zero();
+    }
+
+    private static void set(final @NotNull Value object, final @NotNull String property, final float value) {
+        // we can only assign to mutable objects, same as the interpreter
+        if (object instanceof MutableObjectBinding) {
+            ((MutableObjectBinding) object).set(property, NumberValue.of(value));
+        }
+    }
+}
@@ -43,6 +43,10 @@ import java.util.function.Function;
  *
  * <p>Listing keys will return all the keys in lowercase.</p>
  *
+ * <p>Keys are stored as {@link SymbolTable} symbols, so looking
+ * up a key that is already a symbol (e.g. an identifier name from
+ * the parser) doesn't lower-case nor re-hash it.</p>
+ *
  * @param <V> The value type
  * @see HashMap
  * @since 3.0.0
@@ -68,13 +72,17 @@ public class CaseInsensitiveStringHashMap<V> extends HashMap<String, V> {
 
     private static <T> T lowercase(T key) {
         //noinspection unchecked
-        return key instanceof String ? ((T) ((String) key).toLowerCase()) : key;
+        return key instanceof String ? ((T) SymbolTable.lowerCase((String) key)) : key;
+    }
+
+    private static String symbol(String key) {
+        return key == null ? null : SymbolTable.symbol(key);
     }
 
     private static <V> Map<? extends String, ? extends V> lowercaseMap(Map<? extends String, ? extends V> m) {
         final Map<String, V> lowercased = new HashMap<>();
         for (Entry<? extends String, ? extends V> entry : m.entrySet()) {
-            lowercased.put(lowercase(entry.getKey()), entry.getValue());
+            lowercased.put(symbol(entry.getKey()), entry.getValue());
         }
         return lowercased;
     }
@@ -91,7 +99,7 @@ public class CaseInsensitiveStringHashMap<V> extends HashMap<String, V> {
 
     @Override
     public V put(String key, V value) {
-        return super.put(lowercase(key), value);
+        return super.put(symbol(key), value);
     }
 
     @Override
@@ -127,7 +135,7 @@ public class CaseInsensitiveStringHashMap<V> extends HashMap<String, V> {
 
     @Override
     public V putIfAbsent(String key, V value) {
-        return super.putIfAbsent(lowercase(key), value);
+        return super.putIfAbsent(symbol(key), value);
     }
 
     @Override
@@ -147,7 +155,7 @@ public class CaseInsensitiveStringHashMap<V> extends HashMap<String, V> {
 
     @Override
     public V computeIfAbsent(String key, @NotNull Function<? super String, ? extends V> mappingFunction) {
-        return super.computeIfAbsent(lowercase(key), mappingFunction);
+        return super.computeIfAbsent(symbol(key), mappingFunction);
     }
 
     @Override
@@ -157,12 +165,12 @@ public class CaseInsensitiveStringHashMap<V> extends HashMap<String, V> {
 
     @Override
     public V compute(String key, @NotNull BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
-        return super.compute(lowercase(key), remappingFunction);
+        return super.compute(symbol(key), remappingFunction);
     }
 
     @Override
     public V merge(String key, @NotNull V value, @NotNull BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
-        return super.merge(lowercase(key), value, remappingFunction);
+        return super.merge(symbol(key), value, remappingFunction);
     }
 
     private final class CaseInsensitiveKeySet extends AbstractSet<String> {
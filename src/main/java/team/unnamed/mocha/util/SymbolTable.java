@@ -0,0 +1,267 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.util;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Process-wide table of identifier symbols. A symbol is the
+ * canonical, lower-cased {@link String} instance for a
+ * case-insensitive identifier, e.g. {@code query}, {@code Query}
+ * and {@code QUERY} all resolve to the same {@code "query"}
+ * instance.
+ *
+ * <p>Since symbols are lower-cased, their {@link String#hashCode()}
+ * is also their case-folded hash, it is computed once when the
+ * symbol is created and then cached by the string itself, so maps
+ * keyed by symbols never need to re-hash or lower-case them.</p>
+ *
+ * <p>Lookups are lock-free, insertions are synchronized. Only
+ * short ASCII identifiers are interned, and the table stops growing
+ * after a fixed amount of symbols, after that, new identifiers
+ * are just lower-cased.</p>
+ *
+ * <p>The table is static and shared by all engines, and symbols
+ * are never evicted, they are retained until the class is unloaded.
+ * Since any parsed identifier may become a symbol, the retention is
+ * bounded by {@link #MAX_SYMBOLS} symbols of, at most,
+ * {@link #MAX_SYMBOL_LENGTH} characters each.</p>
+ *
+ * @since 3.0.0
+ */
+@ApiStatus.Internal
+public final class SymbolTable {
+    /**
+     * The maximum amount of symbols the table holds.
+     *
+     * @since 3.0.0
+     */
+    public static final int MAX_SYMBOLS = 1 << 16;
+
+    /**
+     * The maximum length of a symbol, longer identifiers
+     * are not interned.
+     *
+     * @since 3.0.0
+     */
+    public static final int MAX_SYMBOL_LENGTH = 64;
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    // open-addressing table with linear probing, its length is always
+    // a power of two and it is never more than half full
+    private static volatile String[] table = new String[INITIAL_CAPACITY];
+    private static int size; // guarded by SymbolTable.class
+
+    private SymbolTable() {
+    }
+
+    /**
+     * Gets the symbol for the given string, creating it if
+     * it doesn't exist yet.
+     *
+     * @param string The string
+     * @return The symbol, a lower-cased string
+     * @since 3.0.0
+     */
+    public static @NotNull String symbol(final @NotNull String string) {
+        final String found = find(string);
+        if (found != null) {
+            return found;
+        }
+        return symbol(string, 0, string.length());
+    }
+
+    /**
+     * Gets the symbol for the given character region, creating
+     * it if it doesn't exist yet. No string is created if the
+     * symbol already exists.
+     *
+     * @param chars The characters
+     * @param from  The region start (inclusive)
+     * @param to    The region end (exclusive)
+     * @return The symbol, a lower-cased string
+     * @since 3.0.0
+     */
+    public static @NotNull String symbol(final @NotNull CharSequence chars, final int from, final int to) {
+        if (to - from > MAX_SYMBOL_LENGTH || !isAscii(chars, from, to)) {
+            return chars.subSequence(from, to).toString().toLowerCase(Locale.ROOT);
+        }
+        final int hash = foldedHash(chars, from, to);
+        final String found = find(table, chars, from, to, hash);
+        if (found != null) {
+            return found;
+        }
+        return insert(chars, from, to, hash);
+    }
+
+    /**
+     * Lower-cases the given string, returning the existing
+     * symbol if there is one, but without creating it otherwise.
+     *
+     * @param string The string
+     * @return The lower-cased string
+     * @since 3.0.0
+     */
+    public static @NotNull String lowerCase(final @NotNull String string) {
+        String found = find(string);
+        if (found != null) {
+            return found;
+        }
+        if (string.length() <= MAX_SYMBOL_LENGTH && isAscii(string, 0, string.length())) {
+            found = find(table, string, 0, string.length(), foldedHash(string, 0, string.length()));
+            if (found != null) {
+                return found;
+            }
+        }
+        // locale-independent, so it folds ASCII letters like the symbols do
+        return string.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAscii(final @NotNull CharSequence chars, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            if (chars.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the String#hashCode() of the lower-cased characters
+    private static int foldedHash(final @NotNull CharSequence chars, final int from, final int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + lowerCase(chars.charAt(i));
+        }
+        return hash;
+    }
+
+    private static char lowerCase(final char c) {
+        return 'A' <= c && c <= 'Z' ? (char) (c | 0x20) : c;
+    }
+
+    private static int indexFor(final int hash, final int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    // identity lookup, fast path for strings that are already symbols
+    private static String find(final @NotNull String string) {
+        final String[] table = SymbolTable.table;
+        final int mask = table.length - 1;
+        for (int i = indexFor(string.hashCode(), mask); ; i = (i + 1) & mask) {
+            final String symbol = table[i];
+            if (symbol == null) {
+                return null;
+            } else if (symbol == string) {
+                return symbol;
+            }
+        }
+    }
+
+    private static String find(final String @NotNull [] table, final @NotNull CharSequence chars, final int from, final int to, final int hash) {
+        final int mask = table.length - 1;
+        for (int i = indexFor(hash, mask); ; i = (i + 1) & mask) {
+            final String symbol = table[i];
+            if (symbol == null) {
+                return null;
+            } else if (symbol.hashCode() == hash && matches(symbol, chars, from, to)) {
+                return symbol;
+            }
+        }
+    }
+
+    private static boolean matches(final @NotNull String symbol, final @NotNull CharSequence chars, final int from, final int to) {
+        if (symbol.length() != to - from) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (symbol.charAt(i - from) != lowerCase(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static synchronized @NotNull String insert(final @NotNull CharSequence chars, final int from, final int to, final int hash) {
+        // check again, may have been inserted while we were waiting
+        String[] table = SymbolTable.table;
+        final String found = find(table, chars, from, to, hash);
+        if (found != null) {
+            return found;
+        }
+
+        final String symbol = toLowerCase(chars, from, to);
+        if (size >= MAX_SYMBOLS) {
+            // table is full, do not intern
+            return symbol;
+        }
+
+        if ((size + 1) * 2 > table.length) {
+            // grow, the new table is filled before being published
+            final String[] newTable = new String[table.length * 2];
+            final int newMask = newTable.length - 1;
+            for (final String existing : table) {
+                if (existing != null) {
+                    int i = indexFor(existing.hashCode(), newMask);
+                    while (newTable[i] != null) {
+                        i = (i + 1) & newMask;
+                    }
+                    newTable[i] = existing;
+                }
+            }
+            SymbolTable.table = table = newTable;
+        }
+
+        final int mask = table.length - 1;
+        int i = indexFor(hash, mask);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = symbol;
+        size++;
+        return symbol;
+    }
+
+    private static @NotNull String toLowerCase(final @NotNull CharSequence chars, final int from, final int to) {
+        String string = chars.subSequence(from, to).toString();
+        for (int i = 0, length = string.length(); i < length; i++) {
+            final char c = string.charAt(i);
+            if ('A' <= c && c <= 'Z') {
+                final char[] lowered = string.toCharArray();
+                for (int j = i; j < length; j++) {
+                    lowered[j] = lowerCase(lowered[j]);
+                }
+                string = new String(lowered);
+                break;
+            }
+        }
+        // computes and caches the hash code
+        //noinspection ResultOfMethodCallIgnored
+        string.hashCode();
+        return string;
+    }
+}
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -156,4 +157,74 @@ public class LexerTest {
         assertTokenization("array.accessing[atIndex[0]] = 1", IDENTIFIER, DOT, IDENTIFIER, LBRACKET, IDENTIFIER, LBRACKET, FLOAT, RBRACKET, RBRACKET, EQ, FLOAT);
     }
 
+    @Test
+    @DisplayName("Test lexing from readers, character sequences and arrays")
+    public void testInputSources() throws IOException {
+        final String expr = "v.x = 0;\n" +
+                "for_each(v.pig, query.get_nearby_entities(4, 'minecraft:pig'), {\n" +
+                "    v.x = v.x + v.pig->query.get_relative_block_state(0, 1.5, 0, 'flammable');\n" +
+                "}); $ 'unclosed";
+        final List<Token> expected = MolangLexer.tokenizeAll(new StringReader(expr));
+        assertEquals(expected, MolangLexer.tokenizeAll(expr));
+        try (MolangLexer lexer = MolangLexer.lexer(new StringBuilder(expr))) {
+            assertEquals(expected, lexer.tokenizeAll());
+        }
+
+        final char[] chars = ("<<" + expr + ">>").toCharArray();
+        try (MolangLexer lexer = MolangLexer.lexer(chars, 2, expr.length())) {
+            assertEquals(expected, lexer.tokenizeAll());
+        }
+    }
+
+    @Test
+    @DisplayName("Test lexing number literals")
+    public void testNumbers() throws IOException {
+        final String[] literals = {"0", "1", "3.14", "0.1", "10.", "16777217", "123456789.123456789", "0.30000001192092896"};
+        for (final String literal : literals) {
+            final List<Token> tokens = MolangLexer.tokenizeAll(literal);
+            assertEquals(1, tokens.size());
+            assertEquals(FLOAT, tokens.get(0).kind());
+            assertEquals(Float.parseFloat(literal), tokens.get(0).number(), literal);
+            assertEquals(literal, tokens.get(0).value());
+            assertEquals(new Token(FLOAT, literal, 0, literal.length()), tokens.get(0));
+            assertEquals(MolangLexer.tokenizeAll(new StringReader(literal)), tokens);
+        }
+    }
+
+    @Test
+    @DisplayName("Test cursor lines and columns")
+    public void testCursor() throws IOException {
+        final String expr = "v.x = 1;\n  v.y = 2;\n\n  v.z";
+        try (MolangLexer fromString = MolangLexer.lexer(expr);
+             MolangLexer fromReader = MolangLexer.lexer(new StringReader(expr))) {
+            Token token;
+            do {
+                token = fromString.next();
+                fromReader.next();
+                assertEquals(fromString.cursor(), fromReader.cursor());
+            } while (token.kind() != EOF);
+
+            assertEquals(4, fromString.cursor().line());
+        }
+    }
+
+    @Test
+    @DisplayName("Test that advancing without tokens gives the same tokens")
+    public void testAdvance() throws IOException {
+        final String expr = "v.x = 3.5 * q.anim_time; return v.x ?? 'none' $";
+        final List<Token> expected = MolangLexer.tokenizeAll(expr);
+        try (MolangLexer lexer = MolangLexer.lexer(expr)) {
+            for (final Token token : expected) {
+                assertEquals(token.kind(), lexer.advance());
+                assertEquals(token.kind(), lexer.currentKind());
+                assertEquals(token.value(), lexer.currentValue());
+                assertEquals(token.number(), lexer.currentNumber());
+                assertEquals(token.start(), lexer.currentStart());
+                assertEquals(token.end(), lexer.currentEnd());
+                assertEquals(token, lexer.current());
+            }
+            assertEquals(EOF, lexer.advance());
+        }
+    }
+
 }
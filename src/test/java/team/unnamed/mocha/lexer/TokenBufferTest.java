@@ -0,0 +1,100 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.lexer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenBufferTest {
+
+    @Test
+    @DisplayName("Test that token buffers produce the same tokens and trees")
+    public void test() throws IOException {
+        for (final String expr : readTests()) {
+            final TokenBuffer buffer = TokenBuffer.tokenize(expr);
+            final List<Token> tokens = new ArrayList<>();
+            for (int i = 0; i < buffer.size(); i++) {
+                tokens.add(buffer.token(i));
+            }
+            assertEquals(MolangLexer.tokenizeAll(expr), tokens, expr);
+            assertEquals(TokenKind.EOF, buffer.kind(buffer.size()));
+
+            assertEquals(parse(MolangLexer.lexer(expr)), parse(buffer.lexer()), expr);
+        }
+    }
+
+    // parses to the expression list or to the error message
+    private static Object parse(final MolangLexer lexer) throws IOException {
+        try (final MolangParser parser = MolangParser.parser(lexer)) {
+            return parser.parseAll();
+        } catch (final ParseException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    @DisplayName("Test that token buffers produce the same parse errors")
+    public void testErrors() {
+        final String[] exprs = {
+                "math.clamp(", "math.clamp())", "math.clamp)", "math.clamp(5 10)", "math.clamp(5;)",
+                "v.x = \"hello\"", "1 +\n  (2 * 3", "{\n  v.x = 1\n  v.y = 2;\n}", "q.x[1 2]"
+        };
+        for (final String expr : exprs) {
+            final ParseException expected = assertThrows(ParseException.class, () -> MolangParser.parseAll(expr), expr);
+            final ParseException actual = assertThrows(ParseException.class, () -> MolangParser.parser(TokenBuffer.tokenize(expr).lexer()).parseAll(), expr);
+            assertEquals(expected.getMessage(), actual.getMessage(), expr);
+            assertEquals(expected.cursor(), actual.cursor(), expr);
+        }
+    }
+
+    private static List<String> readTests() throws IOException {
+        final List<String> tests = new ArrayList<>();
+        try (final InputStream input = TokenBufferTest.class.getClassLoader().getResourceAsStream("tests.txt")) {
+            assertNotNull(input, "tests.txt not found");
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    tests.add(line);
+                }
+            }
+        }
+        return tests;
+    }
+
+}
@@ -81,6 +81,40 @@ class CallParseTest {
         ));
     }
 
+    @Test
+    void test_builtins() {
+        assertCreateTree("loop(10, { v.x = v.x + 1; })", new LoopExpression(
+                FloatExpression.of(10),
+                new ExecutionScopeExpression(Collections.singletonList(new BinaryExpression(
+                        BinaryExpression.Op.ASSIGN,
+                        new AccessExpression(new IdentifierExpression("v"), "x"),
+                        new BinaryExpression(
+                                BinaryExpression.Op.ADD,
+                                new AccessExpression(new IdentifierExpression("v"), "x"),
+                                FloatExpression.of(1)
+                        )
+                )))
+        ));
+
+        assertCreateTree("for_each(t.pig, q.pigs, {})", new ForEachExpression(
+                new AccessExpression(new IdentifierExpression("t"), "pig"),
+                new AccessExpression(new IdentifierExpression("q"), "pigs"),
+                new ExecutionScopeExpression(Collections.emptyList())
+        ));
+
+        // unexpected amount of arguments, kept as regular calls
+        assertCreateTree("loop(10)", new CallExpression(
+                new IdentifierExpression("loop"),
+                Collections.singletonList(FloatExpression.of(10))
+        ));
+
+        // not the built-in function
+        assertCreateTree("q.loop(10, {})", new CallExpression(
+                new AccessExpression(new IdentifierExpression("q"), "loop"),
+                Arrays.asList(FloatExpression.of(10), new ExecutionScopeExpression(Collections.emptyList()))
+        ));
+    }
+
     @Test
     void test_incorrect() {
         // unclosed parenthesis
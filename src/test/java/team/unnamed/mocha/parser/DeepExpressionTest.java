@@ -0,0 +1,142 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+import team.unnamed.mocha.parser.ast.UnaryExpression;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeepExpressionTest {
+    private static final int DEPTH = 50_000;
+
+    private static @NotNull String longChain() {
+        final StringBuilder source = new StringBuilder("1");
+        for (int i = 0; i < DEPTH; i++) {
+            source.append(" + 1");
+        }
+        return source.toString();
+    }
+
+    @Test
+    void test_long_chain() throws Exception {
+        final String source = longChain();
+        final List<Expression> expressions = MolangParser.parseAll(source);
+        assertEquals(1, expressions.size());
+        assertEquals(MolangParser.parseAll(source), expressions);
+        assertEquals(source.replace(" ", ""), expressions.get(0).toString());
+        assertEquals(DEPTH + 1, MochaEngine.createStandard().eval(expressions));
+    }
+
+    @Test
+    void test_long_chain_interning() throws Exception {
+        final List<Expression> expressions = MolangParser.parseAll(longChain());
+        final Expression interned = ExpressionInterner.intern(expressions.get(0));
+        assertEquals(expressions.get(0), interned);
+        assertSame(interned, ExpressionInterner.intern(MolangParser.parseAll(longChain()).get(0)));
+        assertEquals(DEPTH + 1, MochaEngine.createStandard().internExpressions(true).eval(longChain()));
+    }
+
+    @Test
+    void test_long_chain_canonicalization() throws Exception {
+        final String source = longChain().replace("1 + 1", "1 + v.x");
+        final Expression canonical = ExpressionCanonicalizer.canonicalize(MolangParser.parseAll(source).get(0));
+        assertEquals(MolangParser.parseAll(source.replace("v.x", "variable.x")).get(0), canonical);
+        assertEquals(DEPTH + 1, MochaEngine.createStandard().canonicalizeAliases(true).eval(longChain()));
+    }
+
+    @Test
+    void test_long_chain_prepared() {
+        assertEquals(DEPTH + 1, MochaEngine.createStandard().prepareEval(longChain()).evaluate());
+        // constant bindings inside the chain are resolved too
+        final String source = longChain().replace("1 + 1", "1 + math.abs(-1)");
+        assertEquals(DEPTH + 1, MochaEngine.createStandard().prepareEval(source).evaluate());
+    }
+
+    @Test
+    void test_long_chain_codec() throws Exception {
+        final List<Expression> expressions = MolangParser.parseAll(longChain());
+        assertEquals(expressions, FlatProgram.of(expressions).toExpressions());
+        assertEquals(expressions, ExpressionCodec.fromByteArray(ExpressionCodec.toByteArray(expressions)));
+
+        final StringBuilder negation = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            negation.append('-');
+        }
+        negation.append("v.x");
+        final List<Expression> negated = MolangParser.parseAll(negation.toString());
+        assertEquals(DEPTH + 2, FlatProgram.of(negated).nodeCount());
+    }
+
+    @Test
+    void test_deep_nesting() throws Exception {
+        final StringBuilder source = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            source.append('(');
+        }
+        source.append('5');
+        for (int i = 0; i < DEPTH; i++) {
+            source.append(')');
+        }
+        assertEquals(FloatExpression.of(5), MolangParser.parseAll(source.toString()).get(0));
+
+        final StringBuilder ternary = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            ternary.append("1 ? ");
+        }
+        ternary.append("2");
+        for (int i = 0; i < DEPTH; i++) {
+            ternary.append(" : 3");
+        }
+        assertEquals(1, MolangParser.parseAll(ternary.toString()).size());
+
+        final StringBuilder negation = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            negation.append('!');
+        }
+        negation.append("v.x");
+        assertInstanceOf(UnaryExpression.class, MolangParser.parseAll(negation.toString()).get(0));
+    }
+
+    @Test
+    void test_unclosed_nesting() {
+        final StringBuilder source = new StringBuilder();
+        for (int i = 0; i < DEPTH; i++) {
+            source.append("math.abs(");
+        }
+        source.append('1');
+        final ParseException exception = assertThrows(ParseException.class, () -> MolangParser.parseAll(source.toString()));
+        assertTrue(exception.getMessage().startsWith("Found EOF before closing RPAREN"));
+    }
+}
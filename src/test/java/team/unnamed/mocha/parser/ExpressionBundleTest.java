@@ -0,0 +1,122 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpressionBundleTest {
+    @Test
+    void test_load() throws IOException {
+        final String[] expressions = {
+                "math.cos(query.anim_time * 38) * variable.rotation_scale",
+                "v.x = 'héllo'; return v.x",
+                "",
+                "math.clamp(5 10)",
+                "q.is_sneaking ? 10 : 3"
+        };
+        final Path file = Files.createTempFile("mocha", ".txt");
+        // mapped files can't be deleted on some platforms while they are mapped
+        file.toFile().deleteOnExit();
+        Files.write(file, (String.join("\n", expressions) + "\n").getBytes(StandardCharsets.UTF_8));
+        final ExpressionBundle bundle = ExpressionBundle.load(file, '\n');
+
+        assertEquals(expressions.length, bundle.size());
+        assertEquals(1, bundle.errorCount());
+        for (int i = 0; i < expressions.length; i++) {
+            if (i == 3) {
+                assertNull(bundle.get(i));
+                assertNotNull(bundle.error(i));
+                assertEquals(15, bundle.error(i).cursor().column());
+            } else {
+                assertNull(bundle.error(i));
+                assertEquals(MolangParser.parseAll(expressions[i]), bundle.get(i));
+            }
+        }
+    }
+
+    @Test
+    void test_parse_all() throws IOException {
+        final String[] expressions = {
+                "math.cos(query.anim_time * 38) * variable.rotation_scale",
+                "v.x = 'héllo'; return v.x",
+                "math.clamp(5 10)",
+                "q.is_sneaking ? 10 : 3"
+        };
+        final List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sources.add(expressions[i % expressions.length] + " + " + i);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final ExpressionBundle bundle;
+        try {
+            bundle = ExpressionBundle.parseAll(sources, pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(sources.size(), bundle.size());
+        assertEquals(250, bundle.errorCount());
+        for (int i = 0; i < sources.size(); i++) {
+            if (i % expressions.length == 2) {
+                assertNull(bundle.get(i));
+                assertNotNull(bundle.error(i));
+            } else {
+                assertNull(bundle.error(i));
+                assertEquals(MolangParser.parseAll(sources.get(i)), bundle.get(i));
+            }
+        }
+        assertEquals(0, ExpressionBundle.parseAll(Collections.emptyList()).size());
+    }
+
+    @Test
+    void test_engine_parse_all() throws IOException {
+        final MochaEngine<?> engine = MochaEngine.createStandard()
+                .canonicalizeAliases(true)
+                .internExpressions(true)
+                .lightweightParseErrors(true);
+        final ExpressionBundle bundle = engine.parseAll(Arrays.asList("v.x * q.y", "math.clamp(5 10)"));
+
+        // sources are processed with the engine options
+        assertEquals(MolangParser.parseAll("variable.x * query.y"), bundle.get(0));
+        assertSame(bundle.get(0).get(0), engine.parse("variable.x * query.y").get(0));
+        assertNull(bundle.get(1));
+        assertEquals(0, bundle.error(1).getStackTrace().length);
+    }
+}
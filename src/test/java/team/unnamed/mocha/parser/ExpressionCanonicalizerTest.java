@@ -0,0 +1,62 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpressionCanonicalizerTest {
+    @Test
+    void test_aliases() throws Exception {
+        final List<Expression> canonical = ExpressionCanonicalizer.canonicalizeAll(
+                MolangParser.parseAll("T.x = Q.Foo(v.y) + c.Bar[1]; return t;")
+        );
+        assertEquals(
+                MolangParser.parseAll("temp.x = query.foo(variable.y) + context.bar[1]; return temp;"),
+                canonical
+        );
+
+        // expressions without aliases are kept as they are
+        final Expression expression = MolangParser.parseAll("math.sin(query.anim_time) * time.x").get(0);
+        assertSame(expression, ExpressionCanonicalizer.canonicalize(expression));
+    }
+
+    @Test
+    void test_engine() {
+        final MutableObjectBinding query = new MutableObjectBinding();
+        query.set("x", NumberValue.of(5));
+        final MochaEngine<?> engine = MochaEngine.create(null, builder -> builder.set("query", query))
+                .canonicalizeAliases(true);
+        assertEquals(10, engine.eval("Q.X * 2"));
+        assertEquals(3, engine.eval("t.a = 3; return temp.a;"));
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExpressionCodecTest {
+    @Test
+    void test_round_trip() throws IOException {
+        try (final InputStream input = ExpressionCodecTest.class.getClassLoader().getResourceAsStream("tests.txt")) {
+            assertNotNull(input, "tests.txt not found");
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final List<Expression> expressions;
+                try {
+                    expressions = MolangParser.parseAll(line);
+                } catch (final ParseException e) {
+                    continue;
+                }
+
+                final ByteArrayOutputStream output = new ByteArrayOutputStream();
+                ExpressionCodec.write(expressions, output);
+                final List<Expression> decoded = ExpressionCodec.read(new ByteArrayInputStream(output.toByteArray()));
+                // compare the string representation, statements use identity equality
+                assertEquals(expressions.toString(), decoded.toString(), line);
+            }
+        }
+    }
+
+    @Test
+    void test_malformed() throws IOException {
+        final byte[] data = ExpressionCodec.toByteArray(MolangParser.parseAll("math.sin(q.anim_time * 20) + 'hello'"));
+
+        // unsupported version
+        final byte[] version = data.clone();
+        version[4] = ExpressionCodec.VERSION + 1;
+        assertThrows(IOException.class, () -> ExpressionCodec.fromByteArray(version));
+
+        // invalid magic number
+        final byte[] magic = data.clone();
+        magic[0] = 0;
+        assertThrows(IOException.class, () -> ExpressionCodec.fromByteArray(magic));
+
+        // truncated data
+        for (int length = 0; length < data.length; length++) {
+            final byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IOException.class, () -> ExpressionCodec.fromByteArray(truncated));
+        }
+
+        // corrupted data must either be rejected or decode to a valid program
+        for (int i = 5; i < data.length; i++) {
+            final byte[] corrupted = data.clone();
+            corrupted[i] ^= 0x5A;
+            try {
+                ExpressionCodec.fromByteArray(corrupted);
+            } catch (final IOException ignored) {
+            }
+        }
+    }
+}
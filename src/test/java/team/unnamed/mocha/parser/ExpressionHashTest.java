@@ -0,0 +1,72 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ExpressionHashTest {
+    @Test
+    void test_equal_expressions() throws Exception {
+        final String source = "v.x = math.sin(q.anim_time * 20) + q.a[1]; q.b ? { loop(2, { t.y = -t.y; }); } : !q.c";
+        final List<Expression> first = MolangParser.parseAll(source);
+        final List<Expression> second = MolangParser.parseAll(source);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+
+        assertNotEquals(first, MolangParser.parseAll(source.replace("20", "21")));
+    }
+
+    @Test
+    void test_rebuilt() throws Exception {
+        final BinaryExpression expression = (BinaryExpression) MolangParser.parseAll("1 + 2").get(0);
+
+        // the hash is computed from the sub-expressions when created
+        final BinaryExpression rebuilt = new BinaryExpression(expression.op(), expression.left(), FloatExpression.of(3));
+        assertNotEquals(expression.hashCode(), rebuilt.hashCode());
+        assertEquals(MolangParser.parseAll("1 + 3").get(0).hashCode(), rebuilt.hashCode());
+        assertEquals(MolangParser.parseAll("1 + 3").get(0), rebuilt);
+    }
+
+    @Test
+    void test_long_chain() throws Exception {
+        final StringBuilder source = new StringBuilder("q.a");
+        for (int i = 0; i < 1000; i++) {
+            source.append(" + q.a");
+        }
+        final BinaryExpression chain = (BinaryExpression) MolangParser.parseAll(source.toString()).get(0);
+        final BinaryExpression other = (BinaryExpression) MolangParser.parseAll(source.toString()).get(0);
+
+        assertEquals(other.hashCode(), chain.hashCode());
+        assertEquals(other, chain);
+    }
+}
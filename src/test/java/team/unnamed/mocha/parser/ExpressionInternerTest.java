@@ -0,0 +1,76 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpressionInternerTest {
+    @Test
+    void test_shared_subtrees() throws Exception {
+        final Expression a = ExpressionInterner.intern(MolangParser.parser("math.sin(query.anim_time * 20) + 1").parseAll().get(0));
+        final Expression b = ExpressionInterner.intern(MolangParser.parser("math.cos(query.anim_time * 20) - 1").parseAll().get(0));
+
+        final Expression sinArgument = ((CallExpression) ((BinaryExpression) a).left()).arguments().get(0);
+        final Expression cosArgument = ((CallExpression) ((BinaryExpression) b).left()).arguments().get(0);
+        assertSame(sinArgument, cosArgument);
+        assertSame(((BinaryExpression) a).right(), ((BinaryExpression) b).right());
+
+        // interning is idempotent and keeps structural equality
+        assertSame(a, ExpressionInterner.intern(a));
+        assertEquals(MolangParser.parser("math.sin(query.anim_time * 20) + 1").parseAll().get(0), a);
+    }
+
+    @Test
+    void test_lazy_scopes() throws Exception {
+        // the broken scope is never parsed when interning
+        final TernaryConditionalExpression interned = (TernaryConditionalExpression) ExpressionInterner.intern(
+                MolangParser.lazyParser("q.a ? { t.a = (1 + 2; } : q.b * 2").parseAll().get(0));
+        final ExecutionScopeExpression scope = (ExecutionScopeExpression) interned.trueExpression();
+        assertFalse(scope.resolved());
+
+        // the rest of the expression is still interned
+        assertSame(ExpressionInterner.intern(MolangParser.parser("q.b * 2").parseAll().get(0)), interned.falseExpression());
+    }
+
+    @Test
+    void test_engine() throws Exception {
+        final MochaEngine<?> engine = MochaEngine.createStandard().internExpressions(true);
+        final List<Expression> first = engine.parse("v.x = 10; return v.x * 2;");
+        final List<Expression> second = engine.parse("v.x = 10; return v.x * 2;");
+        assertSame(first.get(0), second.get(0));
+        assertEquals(20, engine.eval(first));
+    }
+}
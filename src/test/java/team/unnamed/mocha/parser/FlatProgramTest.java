@@ -0,0 +1,94 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class FlatProgramTest {
+    @Test
+    void test_round_trip() throws IOException {
+        try (final InputStream input = FlatProgramTest.class.getClassLoader().getResourceAsStream("tests.txt")) {
+            assertNotNull(input, "tests.txt not found");
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final List<Expression> expressions;
+                try {
+                    expressions = MolangParser.parseAll(line);
+                } catch (final ParseException e) {
+                    continue;
+                }
+                // compare the string representation, statements use identity equality
+                assertEquals(expressions.toString(), FlatProgram.of(expressions).toExpressions().toString(), line);
+            }
+        }
+    }
+
+    @Test
+    void test_walk() throws IOException {
+        final FlatProgram program = FlatProgram.of(MolangParser.parseAll("q.anim_time * 20; math.sin(q.anim_time * 20)"));
+        assertEquals(2, program.rootCount());
+
+        final int product = program.root(0);
+        assertEquals(FlatProgram.Kind.BINARY, program.kind(product));
+        assertEquals(BinaryExpression.Op.MUL, program.binaryOp(product));
+        assertEquals(2, program.operandCount(product));
+
+        final int access = program.operand(product, 0);
+        assertEquals(FlatProgram.Kind.ACCESS, program.kind(access));
+        assertEquals("anim_time", program.string(access));
+        assertEquals("q", program.string(program.operand(access, 0)));
+        assertEquals(20F, program.number(program.operand(product, 1)));
+
+        final int call = program.root(1);
+        assertEquals(FlatProgram.Kind.CALL, program.kind(call));
+        assertEquals(2, program.operandCount(call));
+        assertEquals("math.sin(q.anim_time*20)", program.toExpression(call).toString());
+    }
+
+    @Test
+    void test_builtins() throws IOException {
+        final List<Expression> expressions = MolangParser.parseAll("loop(3, { v.x = v.x + 1; }); for_each(t.x, q.list, { v.y = t.x; })");
+        final FlatProgram program = FlatProgram.of(expressions);
+        assertEquals(FlatProgram.Kind.LOOP, program.kind(program.root(0)));
+        assertEquals(FlatProgram.Kind.FOR_EACH, program.kind(program.root(1)));
+        assertEquals(3, program.operandCount(program.root(1)));
+        assertEquals(expressions, program.toExpressions());
+    }
+}
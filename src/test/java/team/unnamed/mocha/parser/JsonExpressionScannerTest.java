@@ -0,0 +1,122 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.FloatExpression;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonExpressionScannerTest {
+    private static final String ANIMATION = "{\n" +
+            "  \"format_version\": \"1.8.0\",\n" +
+            "  \"animations\": {\n" +
+            "    \"animation.walk\": {\n" +
+            "      \"loop\": true,\n" +
+            "      \"anim_time_update\": \"q.anim_time + q.delta_time\",\n" +
+            "      \"bones\": {\n" +
+            "        \"head/neck\": { \"rotation\": [0, \"math.sin(q.anim_time * 20) * 5\", -2.5e1] },\n" +
+            "        \"body\": { \"position\": [\"\\u0071.x\", \"(1\", null], \"scale\": {} }\n" +
+            "      }\n" +
+            "    }\n" +
+            "  }\n" +
+            "}";
+
+    private static @NotNull Map<String, String> scan(final @NotNull InputStream input) throws IOException {
+        final Map<String, String> values = new LinkedHashMap<>();
+        JsonExpressionScanner.scan(input, new JsonExpressionScanner.Listener() {
+            @Override
+            public boolean molang(final @NotNull String path) {
+                return !path.equals("/format_version");
+            }
+
+            @Override
+            public void expressions(final @NotNull String path, final @NotNull List<Expression> expressions) {
+                values.put(path, expressions.toString());
+            }
+
+            @Override
+            public void error(final @NotNull String path, final @NotNull ParseException exception) {
+                values.put(path, "error");
+            }
+        });
+        return values;
+    }
+
+    private static @NotNull InputStream bytes(final @NotNull String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void test_scan() throws IOException {
+        final Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("/animations/animation.walk/anim_time_update", "[q.anim_time+q.delta_time]");
+        expected.put("/animations/animation.walk/bones/head~1neck/rotation/0", "[0]");
+        expected.put("/animations/animation.walk/bones/head~1neck/rotation/1", "[math.sin(q.anim_time*20)*5]");
+        expected.put("/animations/animation.walk/bones/head~1neck/rotation/2", "[-25]");
+        expected.put("/animations/animation.walk/bones/body/position/0", "[q.x]");
+        expected.put("/animations/animation.walk/bones/body/position/1", "error");
+
+        assertEquals(expected, scan(bytes(ANIMATION)));
+
+        // same result when the stream is read byte by byte
+        assertEquals(expected, scan(new FilterInputStream(bytes(ANIMATION)) {
+            @Override
+            public int read(final byte @NotNull [] b, final int off, final int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        }));
+    }
+
+    @Test
+    void test_numbers() throws IOException {
+        final String[] numbers = {"0", "-0", "12", "-3.25", "0.5", "1e3", "1E-2", "2.5e+1"};
+        for (final String number : numbers) {
+            final Map<String, String> expected = new LinkedHashMap<>();
+            expected.put("/0", "[" + FloatExpression.of(Float.parseFloat(number)) + "]");
+            assertEquals(expected, scan(bytes("[" + number + "]")), number);
+        }
+    }
+
+    @Test
+    void test_malformed() {
+        final String[] documents = {"", "{", "[1,", "{\"a\" 1}", "[1] 2", "[tru]", "[\"abc", "{\"a\": 1,}", "[1.2.3]",
+                "[+1]", "[1.]", "[.5]", "[-.5]", "[01]", "[1e]", "[1e+]", "[--1]", "[1-2]", "[-]"};
+        for (final String document : documents) {
+            assertThrows(IOException.class, () -> scan(bytes(document)), document);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.ExpressionVisitor;
+import team.unnamed.mocha.parser.ast.LoopExpression;
+import team.unnamed.mocha.parser.ast.TernaryConditionalExpression;
+import team.unnamed.mocha.runtime.MochaFunction;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyParseTest {
+    @Test
+    void test_same_as_eager() throws Exception {
+        final String[] sources = {
+                "{}",
+                "t.x = 1; { t.x = t.x + 1; t.y = { 'a'; { 'b'; }; }; };",
+                "loop(10, { t.x = t.x + 1; (t.x > 5) ? break; })",
+                "q.a ? { return '{'; } : { return '}'; }",
+                "{ 1; 2; };; { 3 }"
+        };
+        for (final String source : sources) {
+            // compare the string representation, statements use identity equality
+            final List<Expression> lazy = MolangParser.lazyParser(source).parseAll();
+            lazy.forEach(expression -> expression.visit(RESOLVER));
+            assertEquals(MolangParser.parseAll(source).toString(), lazy.toString(), source);
+        }
+    }
+
+    @Test
+    void test_unresolved() throws Exception {
+        final String source = "q.a ? { 1 2 } : { 1 2 }";
+        final TernaryConditionalExpression first = (TernaryConditionalExpression) MolangParser.lazyParser(source).parseAll().get(0);
+        final TernaryConditionalExpression second = (TernaryConditionalExpression) MolangParser.lazyParser(source).parseAll().get(0);
+
+        // printed, hashed and compared using their source, without parsing them
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertTrue(first.toString().contains("{ 1 2 }"), first::toString);
+
+        final ExecutionScopeExpression left = (ExecutionScopeExpression) first.trueExpression();
+        final ExecutionScopeExpression right = (ExecutionScopeExpression) first.falseExpression();
+        assertEquals(left, right);
+        assertEquals("{ 1 2 }", left.toString());
+        assertFalse(left.resolved());
+        assertFalse(right.resolved());
+
+        // derived lazy scopes are compared by identity
+        final ExecutionScopeExpression derived = left.lazyTransform(expressions -> expressions);
+        assertNotEquals(left, derived);
+        assertEquals("{ 1 2 }", derived.toString());
+        assertFalse(left.resolved());
+    }
+
+    @Test
+    void test_deferred() throws Exception {
+        final Expression expression = MolangParser.lazyParser("q.never ? { 1 2 }").parseAll().get(0);
+        final ExecutionScopeExpression scope = (ExecutionScopeExpression) ((BinaryExpression) expression).right();
+        assertFalse(scope.resolved());
+
+        final UncheckedIOException exception = assertThrows(UncheckedIOException.class, scope::expressions);
+        assertInstanceOf(ParseException.class, exception.getCause());
+        assertEquals(1, ((ParseException) exception.getCause()).cursor().line());
+        assertEquals(15, ((ParseException) exception.getCause()).cursor().column());
+
+        // unbalanced braces are still found when parsing
+        assertThrows(ParseException.class, () -> MolangParser.lazyParser("q.a ? { { 1 }").parseAll());
+    }
+
+    @Test
+    void test_engine() {
+        final List<ParseException> errors = new ArrayList<>();
+        final MochaEngine<?> engine = MochaEngine.createStandard()
+                .handleParseExceptions(errors::add)
+                .canonicalizeAliases(true)
+                .lazyExecutionScopes(true);
+
+        assertEquals(3, engine.eval("loop(3, { t.x = t.x + 1; }); return temp.x;"));
+
+        // the broken scope is never evaluated
+        assertEquals(1, engine.eval("t.x = 1; t.x == 0 ? { 1 2 }; return t.x;"));
+        assertTrue(errors.isEmpty());
+
+        assertEquals(0, engine.eval("t.x = 1; t.x == 1 ? { 1 2 }; return t.x;"));
+        assertEquals(1, errors.size());
+
+        // interned parents don't parse the broken scope to hash it
+        engine.internExpressions(true);
+        assertEquals(1, engine.eval("t.x = 1; t.x == 0 ? { t.a = (1 + 2; }; return t.x;"));
+        assertEquals(0, engine.eval("t.x = 1; t.x == 1 ? { t.a = (1 + 2; }; return t.x;"));
+        assertEquals(2, errors.size());
+    }
+
+    @Test
+    void test_engine_options() {
+        final String source = "v.x = 1; v.x ? { t.a = (1 + 2; } : 0";
+        final List<ParseException> errors = new ArrayList<>();
+        final List<MochaEngine<?>> engines = new ArrayList<>();
+        engines.add(MochaEngine.createStandard());
+        engines.add(MochaEngine.createStandard().canonicalizeAliases(true));
+        engines.add(MochaEngine.createStandard().internExpressions(true));
+        engines.add(MochaEngine.createStandard().lightweightParseErrors(true));
+        engines.add(MochaEngine.createStandard().parseCache(ParseCache.create(16)));
+        engines.add(MochaEngine.createStandard()
+                .canonicalizeAliases(true)
+                .internExpressions(true)
+                .parseCache(ParseCache.create(16)));
+
+        for (final MochaEngine<?> engine : engines) {
+            engine.lazyExecutionScopes(true).handleParseExceptions(errors::add);
+
+            // the broken scope is reported and evaluates to zero, it is never thrown
+            errors.clear();
+            assertEquals(0, engine.eval(source));
+            assertEquals(1, errors.size());
+
+            errors.clear();
+            final MochaFunction prepared = engine.prepareEval(source);
+            assertTrue(prepared.toString().contains("{ t.a = (1 + 2; }"), prepared::toString);
+            assertEquals(0, prepared.evaluate());
+            assertEquals(1, errors.size());
+
+            errors.clear();
+            assertEquals(0, engine.compileTree(source).evaluate());
+            assertEquals(1, errors.size());
+
+            errors.clear();
+            assertEquals(0, engine.compileVm(source).evaluate());
+            assertEquals(1, errors.size());
+        }
+    }
+
+    @Test
+    void test_engine_compile() {
+        final List<ParseException> errors = new ArrayList<>();
+        final MochaEngine<?> engine = MochaEngine.createStandard()
+                .lazyExecutionScopes(true)
+                .handleParseExceptions(errors::add);
+
+        // the compiler parses every scope, the error is reported when compiling
+        assertEquals(0, engine.compile("v.x = 1; v.x ? { t.a = (1 + 2; } : 0").evaluate());
+        assertEquals(1, errors.size());
+    }
+
+    // resolves every lazy execution scope
+    private static final ExpressionVisitor<Void> RESOLVER = new ExpressionVisitor<Void>() {
+        @Override
+        public Void visitExecutionScope(final @NotNull ExecutionScopeExpression expression) {
+            expression.expressions().forEach(child -> child.visit(this));
+            return null;
+        }
+
+        @Override
+        public Void visitBinary(final @NotNull BinaryExpression expression) {
+            expression.left().visit(this);
+            expression.right().visit(this);
+            return null;
+        }
+
+        @Override
+        public Void visitTernaryConditional(final @NotNull TernaryConditionalExpression expression) {
+            expression.condition().visit(this);
+            expression.trueExpression().visit(this);
+            expression.falseExpression().visit(this);
+            return null;
+        }
+
+        @Override
+        public Void visitLoop(final @NotNull LoopExpression expression) {
+            expression.count().visit(this);
+            expression.body().visit(this);
+            return null;
+        }
+
+        @Override
+        public Void visitCall(final @NotNull CallExpression expression) {
+            expression.arguments().forEach(argument -> argument.visit(this));
+            return null;
+        }
+
+        @Override
+        public Void visit(final @NotNull Expression expression) {
+            return null;
+        }
+    };
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.ExecutionScopeExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LightweightParseErrorTest {
+    @Test
+    void test_parser() throws Exception {
+        final String[] sources = {"math.clamp(", "math.clamp())", "math.clamp(5 10)", "v.x = 1 v.y", "{ v.x = 1; "};
+        for (final String source : sources) {
+            final ParseException expected = assertThrows(ParseException.class, () -> MolangParser.parser(source).parseAll());
+            final ParseException lightweight = assertThrows(ParseException.class, () -> MolangParser.parser(source)
+                    .lightweightErrors(true)
+                    .parseAll());
+
+            assertNull(lightweight.cursor());
+            assertEquals(0, lightweight.getStackTrace().length);
+            assertEquals(expected.offset(), lightweight.offset(), source);
+            assertEquals(expected.cursor().index(), lightweight.offset(), source);
+            assertTrue(expected.getMessage().startsWith(lightweight.getMessage()), source);
+        }
+    }
+
+    @Test
+    void test_lazy() throws Exception {
+        final String source = "{ v.x = 1 v.y = 2; }";
+        final ParseException expected = assertThrows(ParseException.class, () -> MolangParser.parser(source).parseAll());
+        final List<Expression> expressions = MolangParser.lazyParser(source)
+                .lightweightErrors(true)
+                .parseAll();
+        final ExecutionScopeExpression scope = (ExecutionScopeExpression) expressions.get(0);
+        final RuntimeException e = assertThrows(RuntimeException.class, scope::expressions);
+        final ParseException cause = (ParseException) e.getCause();
+        assertNull(cause.cursor());
+        assertEquals(expected.offset(), cause.offset());
+    }
+
+    @Test
+    void test_engine() {
+        final List<ParseException> errors = new ArrayList<>();
+        final MochaEngine<?> engine = MochaEngine.createStandard()
+                .lightweightParseErrors(true)
+                .handleParseExceptions(errors::add);
+
+        assertEquals(0, engine.eval("math.clamp(5 10)"));
+        assertEquals(3, engine.eval("1 + 2"));
+        assertEquals(1, errors.size());
+        assertNull(errors.get(0).cursor());
+        assertEquals(0, errors.get(0).getStackTrace().length);
+        assertEquals(15, errors.get(0).offset());
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParseCacheTest {
+    @Test
+    void test_lru() throws Exception {
+        final ParseCache cache = ParseCache.create(2);
+        final List<Expression> a = cache.parse("1 + 1");
+        assertSame(a, cache.parse("1 + 1"));
+        cache.parse("2 + 2");
+
+        // "1 + 1" was used more recently than "2 + 2"
+        cache.parse("1 + 1");
+        cache.parse("3 + 3");
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getIfPresent("1 + 1"));
+        assertNull(cache.getIfPresent("2 + 2"));
+        assertEquals(2, cache.hits());
+        assertEquals(3, cache.misses());
+        assertEquals(1, cache.evictions());
+
+        // errors are not cached
+        assertThrows(ParseException.class, () -> cache.parse("math.clamp("));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void test_engine() throws Exception {
+        final ParseCache cache = ParseCache.create(16);
+        final MochaEngine<?> engine1 = MochaEngine.createStandard().parseCache(cache);
+        final MochaEngine<?> engine2 = MochaEngine.createStandard().parseCache(cache);
+
+        assertEquals(10, engine1.eval("v.x = 10; return v.x;"));
+        assertEquals(10, engine2.eval("v.x = 10; return v.x;"));
+        assertEquals(10, engine2.prepareEval("v.x = 10; return v.x;").evaluate());
+        assertEquals(1, cache.misses());
+        assertEquals(2, cache.hits());
+    }
+
+    @Test
+    void test_processed() throws Exception {
+        final ParseCache cache = ParseCache.create(16);
+        final MochaEngine<?> plain = MochaEngine.createStandard().parseCache(cache);
+        final MochaEngine<?> processing = MochaEngine.createStandard()
+                .parseCache(cache)
+                .canonicalizeAliases(true)
+                .internExpressions(true);
+
+        final String source = "v.x = q.anim_time; return variable.x;";
+        final List<Expression> processed = processing.parse(source);
+
+        // hits return the already processed expressions
+        assertSame(processed, processing.parse(source));
+        assertEquals(ExpressionCanonicalizer.canonicalizeAll(plain.parse(source)), processed);
+
+        // engines with other settings still get the plain expressions
+        assertSame(cache.getIfPresent(source), plain.parse(source));
+        assertNotSame(processed, plain.parse(source));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void test_options() throws Exception {
+        final ParseCache cache = ParseCache.create(16);
+        final String source = "v.x ? { t.a = 1; }; return v.x;";
+        final List<Expression> eager = cache.parse(source);
+
+        // lazily parsed expressions are cached apart, since they differ
+        final List<Expression> lazy = cache.parse(source, EnumSet.of(ParseCache.Option.LAZY_EXECUTION_SCOPES));
+        assertNotSame(eager, lazy);
+        assertSame(lazy, cache.parse(source, EnumSet.of(ParseCache.Option.LAZY_EXECUTION_SCOPES)));
+        assertEquals(2, cache.misses());
+
+        // lightweight errors share the parsed expressions
+        assertSame(eager, cache.parse(source, EnumSet.of(ParseCache.Option.LIGHTWEIGHT_ERRORS)));
+        final ParseException error = assertThrows(ParseException.class,
+                () -> cache.parse("math.clamp(", EnumSet.of(ParseCache.Option.LIGHTWEIGHT_ERRORS)));
+        assertEquals(0, error.getStackTrace().length);
+    }
+
+    @Test
+    void test_engine_options() throws Exception {
+        final ParseCache cache = ParseCache.create(16);
+        final MochaEngine<?> engine = MochaEngine.createStandard()
+                .parseCache(cache)
+                .lazyExecutionScopes(true)
+                .lightweightParseErrors(true);
+
+        // same results as the engine without cache
+        final MochaEngine<?> uncached = MochaEngine.createStandard()
+                .lazyExecutionScopes(true)
+                .lightweightParseErrors(true);
+        final String source = "v.x = 1; v.x ? { t.a = 2; return t.a; }; return 0;";
+        assertEquals(uncached.parse(source), engine.parse(source));
+        assertEquals(2, engine.eval(source));
+
+        final ParseException error = assertThrows(ParseException.class, () -> engine.parse("math.clamp("));
+        assertEquals(0, error.getStackTrace().length);
+    }
+}
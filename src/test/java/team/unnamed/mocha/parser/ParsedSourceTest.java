@@ -0,0 +1,101 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.parser;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.parser.ast.Expression;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ParsedSourceTest {
+    private static final String SOURCE = "v.x = 0;\n" +
+            "for_each(v.pig, query.get_nearby_entities(4, 'minecraft:pig'), {\n" +
+            "    v.x = v.x + v.pig->query.get_relative_block_state(0, 1, 0, 'flammable');\n" +
+            "});\n" +
+            "t.a = math.cos(query.anim_time * 38) * variable.rotation_scale;\n" +
+            "v.y = q.is_sneaking ? 10 : (t.a ?? 3);\n" +
+            "return v.x + v.y";
+
+    @Test
+    void test_reuse() throws IOException {
+        final ParsedSource parsed = ParsedSource.parse(SOURCE);
+        final int offset = SOURCE.indexOf("38");
+        final ParsedSource edited = parsed.edit(offset, 2, "40");
+
+        assertEquals(SOURCE.replace("38", "40"), edited.source());
+        assertEquals(MolangParser.parseAll(edited.source()), edited.expressions());
+
+        // only the edited statement was parsed again
+        final List<Expression> before = parsed.expressions();
+        final List<Expression> after = edited.expressions();
+        for (int i = 0; i < before.size(); i++) {
+            if (i != 2) {
+                assertSame(before.get(i), after.get(i));
+            }
+        }
+    }
+
+    @Test
+    void test_same_as_parse_all() throws IOException {
+        final Random random = new Random(8);
+        final String[] insertions = {";", "'", "(", ")", "{", "}", " ", "\n", "1", "+", "v.z", ";;", "1 + 2;", "x"};
+        ParsedSource parsed = ParsedSource.parse(SOURCE);
+        for (int i = 0; i < 2000; i++) {
+            final String source = parsed.source();
+            final int offset = random.nextInt(source.length() + 1);
+            final int removed = random.nextInt(Math.min(4, source.length() - offset) + 1);
+            final String inserted = insertions[random.nextInt(insertions.length)];
+            final String newSource = source.substring(0, offset) + inserted + source.substring(offset + removed);
+
+            final Object expected = parseAll(newSource);
+            Object actual;
+            ParsedSource edited = null;
+            try {
+                edited = parsed.edit(offset, removed, inserted);
+                actual = edited.expressions();
+            } catch (final ParseException e) {
+                actual = e.getMessage();
+            }
+            assertEquals(expected, actual, newSource);
+
+            // keep the source around the same size and valid
+            parsed = edited == null || newSource.length() > 2 * SOURCE.length()
+                    ? ParsedSource.parse(SOURCE)
+                    : edited;
+        }
+    }
+
+    private static Object parseAll(final String source) throws IOException {
+        try {
+            return MolangParser.parseAll(source);
+        } catch (final ParseException e) {
+            return e.getMessage();
+        }
+    }
+}
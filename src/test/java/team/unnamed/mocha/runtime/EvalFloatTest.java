@@ -0,0 +1,66 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.StringValue;
+import team.unnamed.mocha.runtime.value.Value;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EvalFloatTest {
+    @Test
+    void test() throws Exception {
+        final Scope scope = Scope.create();
+        final MutableObjectBinding variable = new MutableObjectBinding();
+        variable.set("x", NumberValue.of(1.5F));
+        variable.set("s", StringValue.of("str"));
+        scope.set("v", variable);
+
+        final String[] sources = {
+                "v.x * 2 + (v.x > 1 ? -v.x / 3 : v.x * v.x)",
+                "v.x && v.s",
+                "!v.s || 0",
+                "v.s ? 2 : 3",
+                "v.s + 1",
+                "1 / 0",
+                "-(0 * -1)",
+                "10000000000000000000000 * 10000000000000000000000 + 1",
+                "(v.y = 4) * v.y",
+                "v.s ?? 5"
+        };
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        for (final String source : sources) {
+            final Expression expression = engine.parse(source).get(0);
+            final ExpressionInterpreter<?> interpreter = new ExpressionInterpreter<>(null, scope);
+            final Value expected = expression.visit(interpreter);
+            assertEquals(expected.getAsNumber(), interpreter.evalFloat(expression), source);
+            assertEquals(expected.getAsBoolean(), interpreter.evalBoolean(expression), source);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.parser.ast.AccessExpression;
+import team.unnamed.mocha.parser.ast.BinaryExpression;
+import team.unnamed.mocha.parser.ast.CallExpression;
+import team.unnamed.mocha.parser.ast.Expression;
+import team.unnamed.mocha.parser.ast.IdentifierExpression;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+import team.unnamed.mocha.runtime.value.ObjectProperty;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ExpressionResolverTest {
+    @Test
+    void test_resolves_constants() throws IOException {
+        final Scope scope = Scope.builder()
+                .set("v", new MutableObjectBinding())
+                .build();
+        scope.set("q", new MutableObjectBinding());
+
+        final List<Expression> resolved = ExpressionResolver.resolveAll(MolangParser.parseAll("v.x + q.y"), scope);
+        final BinaryExpression binary = (BinaryExpression) resolved.get(0);
+
+        // constant binding, its property is bound to a handle
+        final ResolvedExpression left = assertInstanceOf(ResolvedExpression.class, binary.left());
+        assertFalse(left.constant());
+        assertEquals("v.x", left.toString());
+
+        // not a constant binding, kept as is
+        final AccessExpression right = (AccessExpression) binary.right();
+        assertInstanceOf(IdentifierExpression.class, right.object());
+    }
+
+    @Test
+    void test_variable_handles() {
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        final MochaFunction function = engine.prepareEval("v.x * 2 + V.X");
+        assertEquals(0, function.evaluate());
+
+        engine.eval("v.x = 2");
+        assertEquals(6, function.evaluate());
+
+        final MutableObjectBinding variables = (MutableObjectBinding) engine.scope().get("variable");
+        variables.set("x", NumberValue.of(5));
+        assertEquals(15, function.evaluate());
+
+        // removed, then set again
+        variables.set("x", null);
+        assertNull(variables.getProperty("x"));
+        assertEquals(0, function.evaluate());
+        variables.set("x", NumberValue.of(1));
+        assertEquals(3, function.evaluate());
+
+        // properties are still snapshots, only handles are updated
+        final ObjectProperty property = variables.getProperty("x");
+        variables.set("x", NumberValue.of(4));
+        assertEquals(NumberValue.of(1), property.value());
+        assertEquals(12, function.evaluate());
+
+        variables.clear();
+        assertEquals(0, function.evaluate());
+    }
+
+    @Test
+    void test_reuses_unchanged_expressions() throws IOException {
+        final Expression expression = MolangParser.parseAll("t.x * 2 + q.y").get(0);
+        final List<Expression> resolved = ExpressionResolver.resolveAll(
+                Collections.singletonList(expression),
+                MochaEngine.createStandard().scope()
+        );
+        assertSame(expression, resolved.get(0));
+    }
+
+    @Test
+    void test_constant_functions() throws IOException {
+        final Scope scope = MochaEngine.createStandard().scope();
+        final CallExpression call = (CallExpression) ExpressionResolver.resolveAll(MolangParser.parseAll("math.sin(math.pi)"), scope).get(0);
+        assertInstanceOf(ResolvedExpression.class, call.function());
+        assertInstanceOf(ResolvedExpression.class, call.arguments().get(0));
+        assertEquals("math.sin(math.pi)", call.toString());
+    }
+
+    @Test
+    void test_same_as_interpreter() {
+        final String[] sources = {
+                "v.x = 1.5; v.x * 2 + (v.x > 1 ? -v.x / 3 : v.x * v.x)",
+                "v.x = 2; return math.clamp(v.x * 3, 0, 5) + math.abs(-v.x) + math.pi;",
+                "math.pi = 3; return math.pi;",
+                "math.pi.x",
+                "t.i = 0; loop(10, { t.i = t.i + math.pi; t.i > 4 ? break; }); return t.i;",
+                "t.n = 0; for_each(math.pi, q.list, { t.n = t.n + 1; }); return t.n;",
+                "t.x = 1; t.x > 0 -> { t.x = math.floor(math.pi); }; return t.x;",
+                "q.unknown(math.pi) + 1"
+        };
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        for (final String source : sources) {
+            assertEquals(engine.eval(source), engine.prepareEval(source).evaluate(), source);
+        }
+    }
+}
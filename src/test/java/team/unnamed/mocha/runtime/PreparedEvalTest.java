@@ -0,0 +1,73 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PreparedEvalTest {
+    @Test
+    void test_temp_is_cleared() {
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        final MochaFunction function = engine.prepareEval("t.x = t.x + 1; return t.x;");
+        assertEquals(1, function.evaluate());
+        assertEquals(1, function.evaluate());
+        assertEquals(1, engine.eval("t.x = t.x + 1; return t.x;"));
+        assertEquals(1, engine.eval("t.x = t.x + 1; return t.x;"));
+    }
+
+    @Test
+    void test_late_bindings() {
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        final MochaFunction function = engine.prepareEval("q.value * 2");
+        assertEquals(0, function.evaluate());
+
+        final MutableObjectBinding query = new MutableObjectBinding();
+        query.set("value", NumberValue.of(4));
+        engine.scope().set("query", query);
+        engine.scope().set("q", query);
+        assertEquals(8, function.evaluate());
+    }
+
+    @Test
+    void test_nested() {
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        final MochaFunction inner = engine.prepareEval("t.x = 5; return t.x;");
+        final MutableObjectBinding query = new MutableObjectBinding();
+        query.setFunction("inner", (float multiplier) -> inner.evaluate() * multiplier);
+        query.setFunction("outer", (float multiplier) -> engine.eval("t.x = 3; return t.x;") * multiplier);
+        engine.scope().set("q", query);
+
+        // nested evaluations don't share the temp storage
+        assertEquals(5 * 2 + 1, engine.eval("t.x = 1; return q.inner(2) + t.x;"));
+        assertEquals(3 * 2 + 1, engine.eval("t.x = 1; return q.outer(2) + t.x;"));
+
+        final MochaFunction recursive = engine.prepareEval("t.x = 1; return q.outer(2) + t.x;");
+        assertEquals(3 * 2 + 1, recursive.evaluate());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.FlatProgram;
+import team.unnamed.mocha.parser.ParseException;
+import team.unnamed.mocha.runtime.value.ArrayValue;
+import team.unnamed.mocha.runtime.value.MutableObjectBinding;
+import team.unnamed.mocha.runtime.value.NumberValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Checks that every evaluation tier computes the same results
+ * as the interpreter. Tier-specific cases are in each tier test.
+ */
+class TierEquivalenceTest {
+    private static final String[] SOURCES = {
+            "temp.t = 3; return 3*temp.t*temp.t - 2*temp.t*temp.t*temp.t;",
+            "v.x = 1.5; v.x * 2 + (v.x > 1 ? -v.x / 3 : v.x * v.x)",
+            "t.s = 'str'; t.s && 1",
+            "t.s = ''; !t.s || 0",
+            "v.x = 2; return math.clamp(v.x * 3, 0, 5) + math.abs(-v.x) + math.pi;",
+            "1 / 0",
+            "-(0 * -1)",
+            "10000000000000000000000 * 10000000000000000000000 + 1",
+            "(v.y = 4) * v.y",
+            "t.a = 2; t.a * (t.a = 5) + t.a",
+            "t.a = 1; T.A = t.A + 1; temp.b = t.a; return t.b * 10 + t.missing;",
+            "t.missing ?? 5",
+            "t.i = 0; loop(10, { t.i = t.i + 1; t.i > 4 ? break; }); return t.i;",
+            "t.n = 0; loop(3, { loop(2, { t.n = t.n + 1; }); t.n = t.n * 10; }); return t.n;",
+            "t.n = 0; loop(5, { t.n = t.n + 1; continue; t.n = 100; }); return t.n;",
+            "t.sum = 0; v.list = q.list; for_each(t.x, v.list, { t.sum = t.sum + t.x; }); return t.sum;",
+            "t.n = 0; for_each(t.x, q.list, { t.n = t.n + 1; break; t.n = 100; }); return t.n;",
+            "for_each(1, q.list, { return 5; })",
+            "t.x = 3; { t.x = t.x * 2; }; return t.x;",
+            "t.x = 1; t.x > 0 -> { t.x = 10; }; return t.x;",
+            "q.value ? { t.x = 1; }; q.missing ? 2",
+            "t.f = { t.x = 5; }; t.f ? 1",
+            "(return 2) + (v.x = 7); 3",
+            "v.x > 0 ? (return 4); 5",
+            "return 2; 3",
+            "q.unknown(1, 2) + 1"
+    };
+
+    @TestFactory
+    List<DynamicTest> test_same_as_interpreter() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final Tier tier : Tier.values()) {
+            for (final String source : SOURCES) {
+                tests.add(dynamicTest(tier + ": " + source, () ->
+                        assertEquals(engine().eval(source), tier.compile(engine(), source).evaluate(), source)));
+            }
+        }
+        return tests;
+    }
+
+    @TestFactory
+    List<DynamicTest> test_long_chain() {
+        final StringBuilder source = new StringBuilder("1");
+        for (int i = 0; i < 100_000; i++) {
+            source.append(" + 1");
+        }
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final Tier tier : Tier.values()) {
+            tests.add(dynamicTest(tier.toString(), () ->
+                    assertEquals(100_001, tier.compile(MochaEngine.createStandard(), source.toString()).evaluate())));
+        }
+        return tests;
+    }
+
+    @TestFactory
+    List<DynamicTest> test_bindings() {
+        final List<DynamicTest> tests = new ArrayList<>();
+        for (final Tier tier : Tier.values()) {
+            tests.add(dynamicTest(tier.toString(), () -> {
+                final MochaEngine<?> engine = MochaEngine.createStandard();
+                final MochaFunction function = tier.compile(engine, "t.x = 2; return q.value * t.x;");
+                assertEquals(0, function.evaluate());
+
+                // non-constant bindings are looked up in every evaluation
+                final MutableObjectBinding query = new MutableObjectBinding();
+                query.set("value", NumberValue.of(4));
+                engine.scope().set("q", query);
+                assertEquals(8, function.evaluate());
+
+                query.set("value", NumberValue.of(5));
+                assertEquals(10, function.evaluate());
+            }));
+        }
+        return tests;
+    }
+
+    private static MochaEngine<?> engine() {
+        final MochaEngine<?> engine = MochaEngine.createStandard();
+        final MutableObjectBinding query = new MutableObjectBinding();
+        query.set("value", NumberValue.of(2));
+        query.set("list", ArrayValue.of(NumberValue.of(1), NumberValue.of(2), NumberValue.of(3)));
+        engine.scope().set("q", query);
+        return engine;
+    }
+
+    private enum Tier {
+        PREPARED(MochaEngine::prepareEval),
+        TREE(MochaEngine::compileTree),
+        VM(MochaEngine::compileVm),
+        FLAT((engine, source) -> {
+            final FlatProgram program;
+            try {
+                program = FlatProgram.of(engine.parse(source));
+            } catch (final ParseException e) {
+                throw new AssertionError(e);
+            }
+            return () -> engine.eval(program);
+        });
+
+        private final BiFunction<MochaEngine<?>, String, MochaFunction> compiler;
+
+        Tier(final BiFunction<MochaEngine<?>, String, MochaFunction> compiler) {
+            this.compiler = compiler;
+        }
+
+        MochaFunction compile(final MochaEngine<?> engine, final String source) {
+            return compiler.apply(engine, source);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.runtime.tree;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.MochaEngine;
+import team.unnamed.mocha.parser.MolangParser;
+import team.unnamed.mocha.runtime.ExpressionInterpreter;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+class TreeProgramTest {
+    @Test
+    void test_nodes() throws Exception {
+        final TreeBuilder builder = new TreeBuilder(null);
+        final ExpressionInterpreter<?> interpreter = new ExpressionInterpreter<>(null, MochaEngine.createStandard().scope());
+
+        // control flow is built to nodes, not interpreted
+        final Node node = MolangParser.parseAll("{ loop(2, { t.x = 1; }); q.a ? { t.y = 1; }; }").get(0).visit(builder);
+        final ScopeFunction scope = (ScopeFunction) node.value(interpreter);
+        assertInstanceOf(LoopNode.class, scope.statements()[0]);
+        assertInstanceOf(ConditionalNode.class, scope.statements()[1]);
+        assertInstanceOf(ForEachNode.class, MolangParser.parseAll("for_each(t.x, q.list, { })").get(0).visit(builder));
+        assertInstanceOf(ArrowNode.class, MolangParser.parseAll("q.a -> q.b").get(0).visit(builder));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of mocha, licensed under the MIT license
+ *
+ * Copyright (c) 2021-2025 Unnamed Team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package team.unnamed.mocha.util;
+
+import org.junit.jupiter.api.Test;
+import team.unnamed.mocha.lexer.MolangLexer;
+import team.unnamed.mocha.lexer.Token;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolTableTest {
+    @Test
+    void test() {
+        final String symbol = SymbolTable.symbol("Query");
+        assertEquals("query", symbol);
+        assertSame(symbol, SymbolTable.symbol("query"));
+        assertSame(symbol, SymbolTable.symbol("QUERY"));
+        assertSame(symbol, SymbolTable.symbol("a.query.b", 2, 7));
+        assertSame(symbol, SymbolTable.symbol(new StringBuilder("qUeRy"), 0, 5));
+        assertSame(symbol, SymbolTable.lowerCase("QuErY"));
+
+        // lowerCase doesn't create symbols
+        final String lowerCased = SymbolTable.lowerCase("Not_A_Symbol_Yet");
+        assertEquals("not_a_symbol_yet", lowerCased);
+        assertNotSame(lowerCased, SymbolTable.symbol("not_a_symbol_yet"));
+    }
+
+    @Test
+    void testLocaleIndependent() {
+        final Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            // non-ASCII identifiers take the fallback path, 'I' must still fold to 'i'
+            assertEquals("identifier_\u00e9", SymbolTable.symbol("IDENTIFIER_\u00c9"));
+            assertEquals("identifier_\u00e9", SymbolTable.lowerCase("IDENTIFIER_\u00c9"));
+            assertEquals(SymbolTable.symbol("Identifier"), SymbolTable.lowerCase("IDENTIFIER"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testLongIdentifiersAreNotInterned() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i <= SymbolTable.MAX_SYMBOL_LENGTH; i++) {
+            builder.append('X');
+        }
+        final String name = builder.toString();
+        final String symbol = SymbolTable.symbol(name);
+        assertEquals(name.toLowerCase(Locale.ROOT), symbol);
+        assertNotSame(symbol, SymbolTable.symbol(name));
+    }
+
+    @Test
+    void testLexerSymbols() throws IOException {
+        final List<Token> tokens = MolangLexer.tokenizeAll("Variable.X + variable.x");
+        assertEquals("variable", tokens.get(0).value());
+        assertSame(tokens.get(0).value(), tokens.get(4).value());
+        assertSame(tokens.get(2).value(), tokens.get(6).value());
+    }
+}